@@ -1,12 +1,14 @@
 package ch.epfl.chacun;
 
-
-import java.util.Comparator;
 import java.util.List;
 
 /**
  * The ActionEncoder class provides methods for encoding and decoding game actions into and from Base32 strings,
  * facilitating the communication of game state changes in a compact format to make online gaming easier.
+ * <p>
+ * The index of a placement position in the sorted fringe and the index of a pawn among the sorted pawns
+ * are given by the board itself ({@link Board#fringeIndexOf(Pos)}, {@link Board#pawnIndexOf(Occupant)}),
+ * so that no position or pawn is sorted when an action is encoded or decoded.
  *
  * @author Ilyes Rouibi (372420)
  * @author Weifeng Ding(379902)
@@ -27,12 +29,7 @@ public final class ActionEncoder {
      * @return a StateAction object representing the updated game state and the encoded action.
      */
     public static StateAction withPlacedTile(GameState gameState, PlacedTile placedTile) {
-        List<Pos> sortedFringe = gameState.board().insertionPositions()
-                .stream()
-                .sorted(Comparator.comparing(Pos::x).thenComparing(Pos::y))
-                .toList();
-
-        int position = sortedFringe.indexOf(placedTile.pos());
+        int position = gameState.board().fringeIndexOf(placedTile.pos());
         int rotation = placedTile.rotation().ordinal();
 
         int packedInfo = 0b1111111111 & ((position << 2) | rotation);
@@ -73,17 +70,28 @@ public final class ActionEncoder {
             return new StateAction(gameState.withOccupantRemoved(null), Base32.encodeBits5(0b11111));
         }
 
-        List<Occupant> sortedPawns = gameState.board().occupants()
-                .stream()
-                .filter(o -> o.kind() == Occupant.Kind.PAWN)
-                .sorted(Comparator.comparingInt(Occupant::zoneId))
-                .toList();
-
-        int occupantIndex = sortedPawns.indexOf(occupant);
+        int occupantIndex = gameState.board().pawnIndexOf(occupant);
 
         return new StateAction(gameState.withOccupantRemoved(occupant), Base32.encodeBits5(occupantIndex));
     }
 
+    /**
+     * Applies the given packed move (see {@link MoveGenerator}) to the game state, and encodes it :
+     * a tile placement on two characters, an occupation or a pawn retake on one.
+     *
+     * @param gameState The current game state.
+     * @param move      The packed move, for the next action of the game state.
+     * @return a StateAction object representing the updated game state and the encoded action.
+     * @throws IllegalArgumentException if the move is not legal.
+     */
+    public static StateAction withMove(GameState gameState, int move) {
+        GameState nextGameState = MoveGenerator.apply(gameState, move);
+        String actionB32 = gameState.nextAction() == GameState.Action.PLACE_TILE
+                ? Base32.encodeBits10(move)
+                : Base32.encodeBits5(move);
+        return new StateAction(nextGameState, actionB32);
+    }
+
     /**
      * Decodes the action code and applies the corresponding action to the game state.
      *
@@ -106,23 +114,21 @@ public final class ActionEncoder {
         Preconditions.checkArgument(
                 (actionCode.length() == 2 && gameState.nextAction() == GameState.Action.PLACE_TILE)
                         ^ (actionCode.length() == 1 && (gameState.nextAction() == GameState.Action.OCCUPY_TILE || gameState.nextAction() == GameState.Action.RETAKE_PAWN)));
+        int code = Base32.decode(actionCode);
 
         //when the next action is PLACE_TILE
         if (gameState.nextAction() == GameState.Action.PLACE_TILE) {
 
-            List<Pos> sortedFringe = gameState.board().insertionPositions()
-                    .stream()
-                    .sorted(Comparator.comparing(Pos::x).thenComparing(Pos::y))
-                    .toList();
+            List<Pos> sortedFringe = gameState.board().sortedInsertionPositions();
 
             //case when the placement index is out of bound of the fringe position list
-            if ((Base32.decode(actionCode) >>> 2) >= sortedFringe.size()) {
+            if ((code >>> 2) >= sortedFringe.size()) {
                 throw new IndexOutOfBoundsException();
             }
 
             //to unpack the position and rotation from the action code
-            Pos placedTilePos = sortedFringe.get(Base32.decode(actionCode) >>> 2);
-            Rotation rotation = Rotation.ALL.get(Base32.decode(actionCode) & 0b11);
+            Pos placedTilePos = sortedFringe.get(code >>> 2);
+            Rotation rotation = Rotation.ALL.get(code & 0b11);
 
             PlacedTile placedTileToPlace = new PlacedTile(gameState.tileToPlace(), gameState.currentPlayer(), rotation, placedTilePos);
 
@@ -137,19 +143,19 @@ public final class ActionEncoder {
         else if (gameState.nextAction() == GameState.Action.OCCUPY_TILE) {
 
             //case when the action code means to not occupy any zone
-            if (Base32.decode(actionCode) == 0b11111) {
+            if (code == 0b11111) {
                 return new StateAction(gameState.withNewOccupant(null), actionCode);
 
             } else {
                 assert gameState.board().lastPlacedTile() != null;
 
                 //case when the occupant's zone local ID is >= 10 (which is not possible because a tile has max 9 zones)
-                if ((Base32.decode(actionCode) & 0b01111) >= 10) {
+                if ((code & 0b01111) >= 10) {
                     throw new IllegalArgumentException();
                 }
 
-                Occupant.Kind occupantKind = Occupant.Kind.values()[Base32.decode(actionCode) >>> 4];
-                int occupantZoneId = Integer.parseInt("" + gameState.board().lastPlacedTile().id() + (Base32.decode(actionCode) & 0b1111));
+                Occupant.Kind occupantKind = Occupant.Kind.values()[code >>> 4];
+                int occupantZoneId = gameState.board().lastPlacedTile().id() * 10 + (code & 0b1111);
 
                 Occupant occupant = new Occupant(occupantKind, occupantZoneId);
 
@@ -165,23 +171,19 @@ public final class ActionEncoder {
         else {
 
             //case when the action code means to not retake any pawn
-            if (Base32.decode(actionCode) == 0b11111) {
+            if (code == 0b11111) {
                 return new StateAction(gameState.withOccupantRemoved(null), actionCode);
 
             } else {
-                List<Occupant> sortedPawns = gameState.board().occupants()
-                        .stream()
-                        .filter(o -> o.kind() == Occupant.Kind.PAWN)
-                        .sorted(Comparator.comparingInt(Occupant::zoneId))
-                        .toList();
+                PlacedTile tileOfThePawn = gameState.board().tileWithPawn(code);
 
                 //case when the occupant's index is greater than the number of pawn on the board
-                if (Base32.decode(actionCode) >= sortedPawns.size()) {
+                if (tileOfThePawn == null) {
                     throw new IllegalArgumentException();
                 }
 
-                Occupant pawnToBeRemoved = sortedPawns.get(Base32.decode(actionCode));
-                PlayerColor placerOfTheOccupant = gameState.board().tileWithId(Zone.tileId(pawnToBeRemoved.zoneId())).placer();
+                Occupant pawnToBeRemoved = tileOfThePawn.occupant();
+                PlayerColor placerOfTheOccupant = tileOfThePawn.placer();
 
                 //case when the pawn to be removed is not placed by the same player who wants to retake it
                 if (gameState.currentPlayer() != placerOfTheOccupant) {
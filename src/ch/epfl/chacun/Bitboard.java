@@ -0,0 +1,226 @@
+package ch.epfl.chacun;
+
+import java.util.Arrays;
+
+/**
+ * Immutable set of cells of the board, represented by one bit per cell index
+ * ({@code (y + REACH) * BOARD_SIZE + (x + REACH)}) packed into ten longs.
+ * The operations on whole neighborhoods are done by shifting and masking the words,
+ * without creating any position.
+ *
+ * @author Ilyes Rouibi (372420)
+ * @author Weifeng Ding (379902)
+ */
+final class Bitboard {
+    /**
+     * Value returned when there is no cell (no next set bit, neighbor outside of the board)
+     */
+    static final int NO_CELL = -1;
+
+    private static final int WIDTH = Board.BOARD_SIZE;
+    private static final int CELLS = Board.BOARD_CELL_NUMBER;
+    private static final int WORDS = (CELLS + Long.SIZE - 1) / Long.SIZE;
+
+    /**
+     * The empty set of cells
+     */
+    static final Bitboard EMPTY = new Bitboard(new long[WORDS]);
+
+    private static final Bitboard ALL_CELLS = columns(0, WIDTH);
+    private static final Bitboard NOT_FIRST_COLUMN = columns(1, WIDTH);
+    private static final Bitboard NOT_LAST_COLUMN = columns(0, WIDTH - 1);
+
+    private final long[] words;
+
+    private Bitboard(long[] words) {
+        this.words = words;
+    }
+
+    /**
+     * Returns the set of the cells whose column is between the given bounds.
+     *
+     * @param fromColumn the first column (inclusive)
+     * @param toColumn   the last column (exclusive)
+     * @return the set of the cells of the given columns
+     */
+    private static Bitboard columns(int fromColumn, int toColumn) {
+        long[] words = new long[WORDS];
+        for (int index = 0; index < CELLS; index++) {
+            int column = index % WIDTH;
+            if (column >= fromColumn && column < toColumn) words[index >>> 6] |= 1L << index;
+        }
+        return new Bitboard(words);
+    }
+
+    /**
+     * Gives the index of the neighbor of the cell of the given index in the given direction.
+     *
+     * @param index     the index of the cell
+     * @param direction the direction of the neighbor
+     * @return the index of the neighbor, or {@code NO_CELL} if it is outside of the board
+     */
+    static int neighborIndex(int index, Direction direction) {
+        int column = index % WIDTH;
+        return switch (direction) {
+            case N -> index >= WIDTH ? index - WIDTH : NO_CELL;
+            case S -> index + WIDTH < CELLS ? index + WIDTH : NO_CELL;
+            case E -> column < WIDTH - 1 ? index + 1 : NO_CELL;
+            case W -> column > 0 ? index - 1 : NO_CELL;
+        };
+    }
+
+    /**
+     * Checks if the cell of the given index is in the set.
+     *
+     * @param index the index of the cell
+     * @return true if the cell is in the set, false otherwise
+     */
+    boolean contains(int index) {
+        return (words[index >>> 6] & 1L << index) != 0;
+    }
+
+    /**
+     * Gives the set with the cell of the given index added.
+     *
+     * @param index the index of the cell to add
+     * @return the set with the cell added
+     */
+    Bitboard with(int index) {
+        long[] updatedWords = words.clone();
+        updatedWords[index >>> 6] |= 1L << index;
+        return new Bitboard(updatedWords);
+    }
+
+    /**
+     * Gives the union of this set and the given one.
+     *
+     * @param that the other set
+     * @return the union of the two sets
+     */
+    Bitboard or(Bitboard that) {
+        long[] result = new long[WORDS];
+        for (int i = 0; i < WORDS; i++) result[i] = words[i] | that.words[i];
+        return new Bitboard(result);
+    }
+
+    /**
+     * Gives the intersection of this set and the given one.
+     *
+     * @param that the other set
+     * @return the intersection of the two sets
+     */
+    Bitboard and(Bitboard that) {
+        long[] result = new long[WORDS];
+        for (int i = 0; i < WORDS; i++) result[i] = words[i] & that.words[i];
+        return new Bitboard(result);
+    }
+
+    /**
+     * Gives the cells of this set that are not in the given one.
+     *
+     * @param that the other set
+     * @return the difference of the two sets
+     */
+    Bitboard andNot(Bitboard that) {
+        long[] result = new long[WORDS];
+        for (int i = 0; i < WORDS; i++) result[i] = words[i] & ~that.words[i];
+        return new Bitboard(result);
+    }
+
+    /**
+     * Gives the cells that are orthogonally adjacent to at least one cell of this set (they can be in the set).
+     *
+     * @return the cells adjacent to the set
+     */
+    Bitboard neighbors() {
+        long[] result = new long[WORDS];
+        orShifted(result, words, NOT_LAST_COLUMN.words, 1);
+        orShifted(result, words, NOT_FIRST_COLUMN.words, -1);
+        orShifted(result, words, ALL_CELLS.words, WIDTH);
+        orShifted(result, words, ALL_CELLS.words, -WIDTH);
+        for (int i = 0; i < WORDS; i++) result[i] &= ALL_CELLS.words[i];
+        return new Bitboard(result);
+    }
+
+    /**
+     * Gives the cells that are at most one cell away from a cell of this set, diagonals included,
+     * i.e. the union of the 3×3 neighborhoods of the cells of the set.
+     *
+     * @return the 3×3 neighborhood of the set
+     */
+    Bitboard neighborhood() {
+        long[] row = words.clone();
+        orShifted(row, words, NOT_LAST_COLUMN.words, 1);
+        orShifted(row, words, NOT_FIRST_COLUMN.words, -1);
+        long[] result = row.clone();
+        orShifted(result, row, ALL_CELLS.words, WIDTH);
+        orShifted(result, row, ALL_CELLS.words, -WIDTH);
+        for (int i = 0; i < WORDS; i++) result[i] &= ALL_CELLS.words[i];
+        return new Bitboard(result);
+    }
+
+    /**
+     * Gives the index of the first cell of the set whose index is greater or equal to the given one.
+     *
+     * @param fromIndex the index to start from
+     * @return the index of the next cell of the set, or {@code NO_CELL} if there is none
+     */
+    int nextSetBit(int fromIndex) {
+        int wordIndex = fromIndex >>> 6;
+        if (wordIndex >= WORDS) return NO_CELL;
+        long word = words[wordIndex] & (-1L << fromIndex);
+        while (word == 0) {
+            if (++wordIndex == WORDS) return NO_CELL;
+            word = words[wordIndex];
+        }
+        return wordIndex * Long.SIZE + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * Gives the number of cells in the set.
+     *
+     * @return the number of cells in the set
+     */
+    int cardinality() {
+        int cardinality = 0;
+        for (long word : words) cardinality += Long.bitCount(word);
+        return cardinality;
+    }
+
+    /**
+     * Adds to the given words the given source words, masked by the given mask, shifted toward the higher indexes
+     * by the given (possibly negative) number of bits.
+     *
+     * @param target the words to add the shifted words to
+     * @param source the words to shift
+     * @param mask   the mask applied to the source words before shifting
+     * @param shift  the number of bits to shift by, toward the higher indexes if positive
+     */
+    private static void orShifted(long[] target, long[] source, long[] mask, int shift) {
+        int wordShift = Math.abs(shift) >>> 6;
+        int bitShift = Math.abs(shift) & 63;
+        for (int i = 0; i < WORDS; i++) {
+            if (shift > 0) {
+                int from = i - wordShift;
+                long word = from >= 0 ? (source[from] & mask[from]) << bitShift : 0;
+                if (bitShift != 0 && from - 1 >= 0) word |= (source[from - 1] & mask[from - 1]) >>> (Long.SIZE - bitShift);
+                target[i] |= word;
+            } else {
+                int from = i + wordShift;
+                long word = from < WORDS ? (source[from] & mask[from]) >>> bitShift : 0;
+                if (bitShift != 0 && from + 1 < WORDS) word |= (source[from + 1] & mask[from + 1]) << (Long.SIZE - bitShift);
+                target[i] |= word;
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Bitboard that && Arrays.equals(words, that.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(words);
+    }
+}
@@ -1,10 +1,8 @@
 package ch.epfl.chacun;
 
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Objects;
-import java.util.Set;
+import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Represents the board in ChaCuN.
@@ -13,22 +11,77 @@ import java.util.stream.Collectors;
  * @author Weifeng Ding (379902)
  */
 public final class Board {
-    private final PlacedTile[] placedTiles;
-    private final int[] tilesIndex;
+    private final Cells placedTiles;
+    private final NeighborSideKinds neighborSideKinds;
+    private final PlacementCache placementCache;
+    private final int lastPlacedTileIndex;
+    private final int[] cellIndexOfTileId;
+    private final Zone.Meadow[][] meadowZonesByTileId;
     private final ZonePartitions zonePartitions;
     private final Set<Animal> cancelledAnimals;
+    private final int[] occupantCounts;
+    private final long zobristKey;
+    private final Bitboard occupiedCells;
+    private final Bitboard fringeCells;
+    //the column-major indices of the fringe cells, sorted, which are in the order of the sorted fringe
+    private final int[] sortedFringeKeys;
+    private final List<Pos> sortedFringe;
+    private final Set<Pos> fringe;
+    //the ids of the tiles occupied by a pawn, one bit per tile id
+    private final long[] pawnTileIds;
 
     public static final int REACH = 12;
     public static final int BOARD_SIZE = 25;
     public static final int BOARD_CELL_NUMBER = 625;
 
-    public static final Board EMPTY = new Board(new PlacedTile[BOARD_CELL_NUMBER], new int[0], ZonePartitions.EMPTY, new HashSet<>());
+    /**
+     * The order of the sorted insertion positions : by x coordinate, then by y coordinate.
+     */
+    public static final Comparator<Pos> FRINGE_ORDER = Comparator.comparingInt(Pos::x).thenComparingInt(Pos::y);
+
+    private static final int NO_CELL = Bitboard.NO_CELL;
+    //the positions of the cells, shared by all the boards
+    private static final Pos[] POSITIONS = positions();
+    private static final int OCCUPANT_KIND_COUNT = Occupant.Kind.values().length;
+
+    public static final Board EMPTY = new Board(Cells.EMPTY, NeighborSideKinds.EMPTY, PlacementCache.EMPTY, NO_CELL, new int[0], new Zone.Meadow[0][], ZonePartitions.EMPTY, Set.of(), new int[PlayerColor.ALL.size() * OCCUPANT_KIND_COUNT], new long[0], 0, Bitboard.EMPTY, Bitboard.EMPTY);
+
+    private Board(Cells placedTiles, NeighborSideKinds neighborSideKinds, PlacementCache placementCache, int lastPlacedTileIndex, int[] cellIndexOfTileId, Zone.Meadow[][] meadowZonesByTileId, ZonePartitions zonePartitions, Set<Animal> cancelledAnimals, int[] occupantCounts, long[] pawnTileIds, long zobristKey, Bitboard occupiedCells, Bitboard fringeCells) {
+        this.placedTiles = placedTiles;
+        this.neighborSideKinds = neighborSideKinds;
+        this.placementCache = placementCache;
+        this.lastPlacedTileIndex = lastPlacedTileIndex;
+        this.cellIndexOfTileId = cellIndexOfTileId;
+        this.meadowZonesByTileId = meadowZonesByTileId;
+        this.zonePartitions = zonePartitions;
+        this.cancelledAnimals = cancelledAnimals;
+        this.occupantCounts = occupantCounts;
+        this.pawnTileIds = pawnTileIds;
+        this.zobristKey = zobristKey;
+        this.occupiedCells = occupiedCells;
+        this.fringeCells = fringeCells;
+        this.sortedFringeKeys = sortedColumnMajorIndices(fringeCells);
+        this.sortedFringe = positionsOf(sortedFringeKeys);
+        this.fringe = new CellSet(fringeCells, sortedFringe);
+    }
 
-    public Board(PlacedTile[] placedTiles, int[] tilesIndex, ZonePartitions zonePartitions, Set<Animal> cancelledAnimals) {
+    private Board(Board board, Cells placedTiles, ZonePartitions zonePartitions, Set<Animal> cancelledAnimals, int[] occupantCounts, long[] pawnTileIds, long zobristKey) {
         this.placedTiles = placedTiles;
-        this.tilesIndex = tilesIndex;
+        this.neighborSideKinds = board.neighborSideKinds;
+        this.placementCache = board.placementCache;
+        this.lastPlacedTileIndex = board.lastPlacedTileIndex;
+        this.cellIndexOfTileId = board.cellIndexOfTileId;
+        this.meadowZonesByTileId = board.meadowZonesByTileId;
         this.zonePartitions = zonePartitions;
         this.cancelledAnimals = cancelledAnimals;
+        this.occupantCounts = occupantCounts;
+        this.pawnTileIds = pawnTileIds;
+        this.zobristKey = zobristKey;
+        this.occupiedCells = board.occupiedCells;
+        this.fringeCells = board.fringeCells;
+        this.sortedFringeKeys = board.sortedFringeKeys;
+        this.sortedFringe = board.sortedFringe;
+        this.fringe = board.fringe;
     }
 
     /**
@@ -40,7 +93,7 @@ public final class Board {
 
     public PlacedTile tileAt(Pos pos) {
         int tileIndex = (pos.y() + REACH) * BOARD_SIZE + (pos.x() + REACH);
-        return (isValidPos(pos)) ? placedTiles[tileIndex] : null;
+        return (isValidPos(pos)) ? placedTiles.get(tileIndex) : null;
     }
 
     /**
@@ -52,11 +105,31 @@ public final class Board {
      */
 
     public PlacedTile tileWithId(int tileId) {
-        return Arrays.stream(tilesIndex)
-                .mapToObj(i -> placedTiles[i])
-                .filter(tile -> tile.tile().id() == tileId)
-                .findFirst()
-                .orElseThrow(() -> new IllegalArgumentException("Tile with such ID is not on the board"));
+        int cellIndex = cellIndexOfTileId(tileId);
+        if (cellIndex == NO_CELL) {
+            throw new IllegalArgumentException("Tile with such ID is not on the board");
+        }
+        return placedTiles.get(cellIndex);
+    }
+
+    /**
+     * Returns the tile with the given ID, or null if the tile is not on the board.
+     *
+     * @param tileId The ID of the tile.
+     * @return The tile with the given ID, or null if it is not on the board.
+     */
+    PlacedTile tileWithIdOrNull(int tileId) {
+        int cellIndex = cellIndexOfTileId(tileId);
+        return cellIndex == NO_CELL ? null : placedTiles.get(cellIndex);
+    }
+
+    /**
+     * Returns an upper bound (exclusive) of the IDs of the tiles placed on the board.
+     *
+     * @return An upper bound of the IDs of the placed tiles.
+     */
+    int tileIdBound() {
+        return cellIndexOfTileId.length;
     }
 
     /**
@@ -74,8 +147,8 @@ public final class Board {
      * @return The set of all occupants on the board.
      */
     public Set<Occupant> occupants() {
-        return Arrays.stream(tilesIndex)
-                .mapToObj(i -> placedTiles[i].occupant())
+        return placedTilesStream()
+                .map(PlacedTile::occupant)
                 .filter(Objects::nonNull)
                 .collect(Collectors.toSet());
     }
@@ -150,15 +223,20 @@ public final class Board {
      * @return The adjacent meadow to the given zone, including all occupants of the initial meadow.
      */
     public Area<Zone.Meadow> adjacentMeadow(Pos pos, Zone.Meadow meadowZone) {
-        Area<Zone.Meadow> initialMeadowArea = zonePartitions.meadows().areaContaining(meadowZone);
-        Set<Zone.Meadow> adjacentMeadowZones = initialMeadowArea
-                .zones()
-                .stream()
-                .filter(z -> {
-                    Pos zTilePosition = tileWithId(z.tileId()).pos();
-                    return (Math.abs(zTilePosition.x() - pos.x()) <= 1) && (Math.abs(zTilePosition.y() - pos.y()) <= 1);
-                })
-                .collect(Collectors.toSet());
+        ZonePartition<Zone.Meadow> meadows = zonePartitions.meadows();
+        Area<Zone.Meadow> initialMeadowArea = meadows.areaContaining(meadowZone);
+        Set<Zone.Meadow> adjacentMeadowZones = new HashSet<>();
+
+        //only the meadow zones of the tiles in the 3x3 square around the position can be adjacent
+        for (int y = Math.max(pos.y() - 1, -REACH); y <= Math.min(pos.y() + 1, REACH); y++) {
+            for (int x = Math.max(pos.x() - 1, -REACH); x <= Math.min(pos.x() + 1, REACH); x++) {
+                PlacedTile tile = placedTiles.get((y + REACH) * BOARD_SIZE + (x + REACH));
+                if (tile == null) continue;
+                for (Zone.Meadow zone : meadowZonesByTileId[tile.id()]) {
+                    if (meadows.inSameArea(zone, meadowZone)) adjacentMeadowZones.add(zone);
+                }
+            }
+        }
         return new Area<>(adjacentMeadowZones, initialMeadowArea.occupants(), 0);
     }
 
@@ -172,25 +250,79 @@ public final class Board {
      */
 
     public int occupantCount(PlayerColor player, Occupant.Kind occupantKind) {
-        return (int) Arrays.stream(tilesIndex)
-                .filter(i -> placedTiles[i].placer() == player && placedTiles[i].occupant() != null && placedTiles[i].occupant().kind() == occupantKind)
-                .count();
+        return occupantCounts[occupantCountIndex(player, occupantKind)];
     }
 
     /**
      * Returns the set of insertion positions on the board.
+     * The fringe is maintained by {@link #withNewTile(PlacedTile)}, so this method does not compute anything.
      *
-     * @return The set of insertion positions on the board.
+     * @return The (immutable) set of insertion positions on the board.
      */
-
     public Set<Pos> insertionPositions() {
-        return Arrays.stream(tilesIndex)
-                .mapToObj(this::indexToPos)
-                .flatMap(pos -> Direction.ALL.stream()
-                        .map(pos::neighbor)
-                        .filter(this::isValidPos)
-                        .filter(neighbor -> tileAt(neighbor) == null))
-                .collect(Collectors.toSet());
+        return fringe;
+    }
+
+    /**
+     * Returns the insertion positions on the board sorted by {@link #FRINGE_ORDER},
+     * which is the order used to encode the placement of a tile.
+     *
+     * @return The (immutable) list of the sorted insertion positions on the board.
+     */
+    public List<Pos> sortedInsertionPositions() {
+        return sortedFringe;
+    }
+
+    /**
+     * Returns the index of the given position in the sorted insertion positions, found by binary search.
+     *
+     * @param pos The position.
+     * @return The index of the position in {@link #sortedInsertionPositions()}, or -1 if it is not an insertion position.
+     */
+    int fringeIndexOf(Pos pos) {
+        if (!isValidPos(pos)) return -1;
+        int index = Arrays.binarySearch(sortedFringeKeys, (pos.x() + REACH) * BOARD_SIZE + (pos.y() + REACH));
+        return index >= 0 ? index : -1;
+    }
+
+    /**
+     * Returns the index of the given pawn among the pawns of the board sorted by zone id,
+     * which is the number of pawns standing on a tile of smaller id since a tile holds at most one occupant.
+     *
+     * @param occupant The occupant.
+     * @return The index of the pawn, or -1 if the occupant is not a pawn of the board.
+     */
+    int pawnIndexOf(Occupant occupant) {
+        if (occupant.kind() != Occupant.Kind.PAWN) return -1;
+        int tileId = Zone.tileId(occupant.zoneId());
+        int word = tileId >>> 6;
+        if (tileId < 0 || word >= pawnTileIds.length || (pawnTileIds[word] & 1L << tileId) == 0
+                || !occupant.equals(tileWithId(tileId).occupant())) return -1;
+
+        int index = Long.bitCount(pawnTileIds[word] & ((1L << tileId) - 1));
+        for (int i = 0; i < word; i++) index += Long.bitCount(pawnTileIds[i]);
+        return index;
+    }
+
+    /**
+     * Returns the tile occupied by the pawn of the given index, among the pawns of the board sorted by zone id.
+     *
+     * @param pawnIndex The index of the pawn.
+     * @return The tile occupied by the pawn, or null if there is no such pawn.
+     */
+    PlacedTile tileWithPawn(int pawnIndex) {
+        if (pawnIndex < 0) return null;
+        int remaining = pawnIndex;
+        for (int word = 0; word < pawnTileIds.length; word++) {
+            int count = Long.bitCount(pawnTileIds[word]);
+            if (remaining < count) {
+                long bits = pawnTileIds[word];
+                for (int i = 0; i < remaining; i++) bits &= bits - 1;
+                return tileWithId(word * Long.SIZE + Long.numberOfTrailingZeros(bits));
+            }
+            remaining -= count;
+        }
+        return null;
     }
 
 
@@ -200,7 +332,7 @@ public final class Board {
      * @return The last placed tile on the board, or null if the board is empty.
      */
     public PlacedTile lastPlacedTile() {
-        return (tilesIndex.length == 0) ? null : placedTiles[tilesIndex[tilesIndex.length - 1]];
+        return (lastPlacedTileIndex == NO_CELL) ? null : placedTiles.get(lastPlacedTileIndex);
     }
 
     /**
@@ -240,27 +372,53 @@ public final class Board {
      * @return True if the tile can be added, false otherwise.
      */
     public boolean canAddTile(PlacedTile tile) {
-        if (!insertionPositions().contains(tile.pos())) {
+        return canAddTileFast(tile.tile(), tile.rotation(), tile.pos());
+    }
+
+    /**
+     * Checks if the given tile, rotated by the given rotation, can be added to the board at the given position,
+     * without creating any placed tile.
+     * The kinds of the sides of the tile are compared to the kinds of the sides of the neighbors of the position,
+     * which are kept by the board for every cell.
+     *
+     * @param tile     The tile to be checked for addition.
+     * @param rotation The rotation of the tile.
+     * @param pos      The position of the tile.
+     * @return True if the tile can be added, false otherwise.
+     */
+    public boolean canAddTileFast(Tile tile, Rotation rotation, Pos pos) {
+        if (!isValidPos(pos)) {
             return false;
         }
-        return Direction.ALL.stream()
-                .allMatch(direction -> {
-                    PlacedTile neighborTile = tileAt(tile.pos().neighbor(direction));
-                    return neighborTile == null || tile.side(direction).isSameKindAs(neighborTile.side(direction.opposite()));
-                });
+        int cellIndex = indexOf(pos);
+        int requiredSideKinds = neighborSideKinds.get(cellIndex);
+        //a position is in the fringe iff it is empty and has at least one neighbor
+        return !occupiedCells.contains(cellIndex)
+                && requiredSideKinds != 0
+                && fitsSideKinds(tile.sideKinds(rotation), requiredSideKinds);
     }
 
     /**
      * Checks if the given tile can be placed on the board.
+     * The answer only depends on the kinds of the sides of the tile and on the distinct side kinds required by the
+     * positions of the fringe, it is therefore cached by the board for every tile with the same side kinds.
      *
      * @param tile The tile to be checked for placement.
      * @return True if the tile can be placed, false otherwise.
      */
     public boolean couldPlaceTile(Tile tile) {
-        return insertionPositions().stream()
-                .flatMap(pos -> Rotation.ALL.stream()
-                        .map(rot -> new PlacedTile(tile, null, rot, pos)))
-                .anyMatch(this::canAddTile);
+        return placementCache.couldPlace(tile.sideKinds(Rotation.NONE));
+    }
+
+    /**
+     * Checks if a tile whose unrotated sides have the given packed kinds (see {@link Tile#sideKinds(Rotation)})
+     * can be placed on the board.
+     *
+     * @param sideKinds The packed side kinds of the unrotated tile.
+     * @return True if such a tile can be placed, false otherwise.
+     */
+    boolean couldPlaceSideKinds(int sideKinds) {
+        return placementCache.couldPlace(sideKinds);
     }
 
     /**
@@ -271,34 +429,65 @@ public final class Board {
      * @throws IllegalArgumentException if the tile cannot be added to the board.
      */
     public Board withNewTile(PlacedTile tile) {
-        Preconditions.checkArgument(tilesIndex.length == 0 || canAddTile(tile));
+        Preconditions.checkArgument(lastPlacedTileIndex == NO_CELL || canAddTile(tile));
 
         int newTileIndex = indexOf(tile);
 
-        //updating the tileIndex table
-        int[] updatedTilesIndex = Arrays.copyOf(tilesIndex, tilesIndex.length + 1);
-        updatedTilesIndex[updatedTilesIndex.length - 1] = newTileIndex;
+        //updating the tile id to cell index table
+        int[] updatedCellIndexOfTileId;
+        if (tile.id() >= cellIndexOfTileId.length) {
+            updatedCellIndexOfTileId = Arrays.copyOf(cellIndexOfTileId, Math.max(tile.id() + 1, 2 * cellIndexOfTileId.length));
+            Arrays.fill(updatedCellIndexOfTileId, cellIndexOfTileId.length, updatedCellIndexOfTileId.length, NO_CELL);
+        } else {
+            updatedCellIndexOfTileId = cellIndexOfTileId.clone();
+        }
+        updatedCellIndexOfTileId[tile.id()] = newTileIndex;
+
+        //indexing the meadow zones of the new tile, for the adjacent meadow queries
+        Zone.Meadow[][] updatedMeadowZonesByTileId = Arrays.copyOf(meadowZonesByTileId, updatedCellIndexOfTileId.length);
+        updatedMeadowZonesByTileId[tile.id()] = tile.meadowZones().toArray(new Zone.Meadow[0]);
 
-        //updating the placedTiles table
-        PlacedTile[] updatedPlacedTiles = placedTiles.clone();
-        updatedPlacedTiles[newTileIndex] = tile;
+        //updating the placedTiles table (only the row of the new tile is copied)
+        Cells updatedPlacedTiles = placedTiles.with(newTileIndex, tile);
+        NeighborSideKinds updatedNeighborSideKinds = neighborSideKinds.withTileAt(tile.pos(), tile.sideKinds());
+
+        //updating the placement cache, only the cell of the new tile and its neighbors can change
+        int[] oldRequiredSideKinds = new int[Direction.COUNT + 1];
+        int[] newRequiredSideKinds = new int[Direction.COUNT + 1];
+        oldRequiredSideKinds[Direction.COUNT] = neighborSideKinds.get(newTileIndex);
+        for (Direction direction : Direction.ALL) {
+            int neighborIndex = Bitboard.neighborIndex(newTileIndex, direction);
+            if (neighborIndex != NO_CELL && !occupiedCells.contains(neighborIndex)) {
+                oldRequiredSideKinds[direction.ordinal()] = neighborSideKinds.get(neighborIndex);
+                newRequiredSideKinds[direction.ordinal()] = updatedNeighborSideKinds.get(neighborIndex);
+            }
+        }
+        PlacementCache updatedPlacementCache = placementCache.withChangedCells(oldRequiredSideKinds, newRequiredSideKinds);
 
         //updating the zonePartitions
         ZonePartitions.Builder zonePartitionsBuilder = new ZonePartitions.Builder(zonePartitions);
         zonePartitionsBuilder.addTile(tile.tile());
 
         //connecting the new tiles side's with the placed neighbors
-        Direction.ALL
-                .forEach(direction -> {
-                    PlacedTile neighborTile = tileAt(tile.pos().neighbor(direction));
-                    if (neighborTile != null) {
-                        zonePartitionsBuilder.connectSides(tile.side(direction), neighborTile.side(direction.opposite()));
-                    }
-                });
+        for (Direction direction : Direction.ALL) {
+            int neighborIndex = Bitboard.neighborIndex(newTileIndex, direction);
+            if (neighborIndex != NO_CELL && occupiedCells.contains(neighborIndex)) {
+                PlacedTile neighborTile = placedTiles.get(neighborIndex);
+                zonePartitionsBuilder.connectSides(tile.side(direction), neighborTile.side(direction.opposite()));
+            }
+        }
 
         ZonePartitions updatedZonePartitions = zonePartitionsBuilder.build();
 
-        return new Board(updatedPlacedTiles, updatedTilesIndex, updatedZonePartitions, cancelledAnimals);
+        //the fringe is made of the empty cells next to an occupied one
+        Bitboard updatedOccupiedCells = occupiedCells.with(newTileIndex);
+        Bitboard updatedFringeCells = updatedOccupiedCells.neighbors().andNot(updatedOccupiedCells);
+
+        return new Board(updatedPlacedTiles, updatedNeighborSideKinds, updatedPlacementCache, newTileIndex, updatedCellIndexOfTileId, updatedMeadowZonesByTileId, updatedZonePartitions, cancelledAnimals,
+                tile.occupant() == null ? occupantCounts : withOccupantCountChanged(occupantCounts, tile.placer(), tile.occupant().kind(), 1),
+                tile.occupant() != null && tile.occupant().kind() == Occupant.Kind.PAWN ? withPawnTileId(pawnTileIds, tile.id(), true) : pawnTileIds,
+                zobristKey ^ Zobrist.placedTileKey(tile, newTileIndex),
+                updatedOccupiedCells, updatedFringeCells);
     }
 
     /**
@@ -316,9 +505,7 @@ public final class Board {
 
         //updating the placedTiles table
         int occupantsTileIndex = indexOf(occupantsTile);
-
-        PlacedTile[] updatedPlacedTiles = placedTiles.clone();
-        updatedPlacedTiles[occupantsTileIndex] = occupantsTileWithOccupant;
+        Cells updatedPlacedTiles = placedTiles.with(occupantsTileIndex, occupantsTileWithOccupant);
 
         //updating the zonePartitions
         ZonePartitions.Builder zonePartitionsBuilder = new ZonePartitions.Builder(zonePartitions);
@@ -327,7 +514,10 @@ public final class Board {
         zonePartitionsBuilder.addInitialOccupant(occupantsTile.placer(), occupant.kind(), occupantsZone);
         ZonePartitions updatedZonePartitions = zonePartitionsBuilder.build();
 
-        return new Board(updatedPlacedTiles, tilesIndex, updatedZonePartitions, cancelledAnimals);
+        return new Board(this, updatedPlacedTiles, updatedZonePartitions, cancelledAnimals,
+                withOccupantCountChanged(occupantCounts, occupantsTile.placer(), occupant.kind(), 1),
+                occupant.kind() == Occupant.Kind.PAWN ? withPawnTileId(pawnTileIds, occupantsTile.id(), true) : pawnTileIds,
+                zobristKey ^ Zobrist.occupantKey(occupant));
     }
 
     /**
@@ -343,8 +533,7 @@ public final class Board {
 
         //updating the placedTiles table
         int occupantsTileIndex = indexOf(occupantsTile);
-        PlacedTile[] updatedPlacedTiles = placedTiles.clone();
-        updatedPlacedTiles[occupantsTileIndex] = occupantsTileWithoutOccupant;
+        Cells updatedPlacedTiles = placedTiles.with(occupantsTileIndex, occupantsTileWithoutOccupant);
 
         //updating the zonePartitions
         ZonePartitions.Builder zonePartitionsBuilder = new ZonePartitions.Builder(zonePartitions);
@@ -353,7 +542,36 @@ public final class Board {
         zonePartitionsBuilder.removePawn(occupantsTile.placer(), occupantsZone);
         ZonePartitions updatedZonePartitions = zonePartitionsBuilder.build();
 
-        return new Board(updatedPlacedTiles, tilesIndex, updatedZonePartitions, cancelledAnimals);
+        Occupant removedOccupant = occupantsTile.occupant();
+        int[] updatedOccupantCounts = removedOccupant == null
+                ? occupantCounts
+                : withOccupantCountChanged(occupantCounts, occupantsTile.placer(), removedOccupant.kind(), -1);
+
+        long updatedZobristKey = zobristKey
+                ^ Zobrist.placedTileKey(occupantsTile, occupantsTileIndex)
+                ^ Zobrist.placedTileKey(occupantsTileWithoutOccupant, occupantsTileIndex);
+
+        long[] updatedPawnTileIds = removedOccupant != null && removedOccupant.kind() == Occupant.Kind.PAWN
+                ? withPawnTileId(pawnTileIds, occupantsTile.id(), false)
+                : pawnTileIds;
+
+        return new Board(this, updatedPlacedTiles, updatedZonePartitions, cancelledAnimals, updatedOccupantCounts, updatedPawnTileIds, updatedZobristKey);
+    }
+
+    /**
+     * Returns the pawns standing on a zone of the given area, i.e. the gatherers of a forest or the fishers of a river.
+     *
+     * @param area The area.
+     * @return The pawns of the area.
+     */
+    Set<Occupant> pawnsIn(Area<? extends Zone> area) {
+        Set<Occupant> pawns = new HashSet<>();
+        for (int tileId : area.tileIds()) {
+            PlacedTile tile = tileWithId(tileId);
+            int zoneId = tile.idOfZoneOccupiedBy(Occupant.Kind.PAWN);
+            if (zoneId != -1 && area.zones().contains(tile.zoneWithId(zoneId))) pawns.add(tile.occupant());
+        }
+        return pawns;
     }
 
     /**
@@ -364,7 +582,7 @@ public final class Board {
      * @return A new board with no gatherers or fishers in the specified forests and rivers.
      */
     public Board withoutGatherersOrFishersIn(Set<Area<Zone.Forest>> forests, Set<Area<Zone.River>> rivers) {
-        PlacedTile[] updatedPlacedTiles = placedTiles.clone();
+        List<PlacedTile> tilesToClear = new ArrayList<>();
         ZonePartitions.Builder zonePartitionsBuilder = new ZonePartitions.Builder(zonePartitions);
 
         for (Area<Zone.Forest> forestArea : forests) {
@@ -373,7 +591,7 @@ public final class Board {
                     .map(this::tileWithId)
                     .filter(tile -> tile.idOfZoneOccupiedBy(Occupant.Kind.PAWN) != -1)
                     .filter(tile -> forestArea.zones().contains(tile.zoneWithId(tile.idOfZoneOccupiedBy(Occupant.Kind.PAWN))))
-                    .forEach(tile -> updatedPlacedTiles[indexOf(tile)] = tile.withNoOccupant());
+                    .forEach(tilesToClear::add);
         }
 
         for (Area<Zone.River> riverArea : rivers) {
@@ -382,12 +600,23 @@ public final class Board {
                     .map(this::tileWithId)
                     .filter(tile -> tile.idOfZoneOccupiedBy(Occupant.Kind.PAWN) != -1)
                     .filter(tile -> riverArea.zones().contains(tile.zoneWithId(tile.idOfZoneOccupiedBy(Occupant.Kind.PAWN))))
-                    .forEach(tile -> updatedPlacedTiles[indexOf(tile)] = tile.withNoOccupant());
+                    .forEach(tilesToClear::add);
+        }
+
+        Cells updatedPlacedTiles = placedTiles;
+        int[] updatedOccupantCounts = tilesToClear.isEmpty() ? occupantCounts : occupantCounts.clone();
+        long[] updatedPawnTileIds = pawnTileIds;
+        long updatedZobristKey = zobristKey;
+        for (PlacedTile tile : tilesToClear) {
+            updatedPlacedTiles = updatedPlacedTiles.with(indexOf(tile), tile.withNoOccupant());
+            updatedOccupantCounts[occupantCountIndex(tile.placer(), Occupant.Kind.PAWN)] -= 1;
+            updatedPawnTileIds = withPawnTileId(updatedPawnTileIds, tile.id(), false);
+            updatedZobristKey ^= Zobrist.occupantKey(tile.occupant());
         }
 
         ZonePartitions updatedZonePartitions = zonePartitionsBuilder.build();
 
-        return new Board(updatedPlacedTiles, tilesIndex, updatedZonePartitions, cancelledAnimals);
+        return new Board(this, updatedPlacedTiles, updatedZonePartitions, cancelledAnimals, updatedOccupantCounts, updatedPawnTileIds, updatedZobristKey);
     }
 
     /**
@@ -398,8 +627,94 @@ public final class Board {
      */
     public Board withMoreCancelledAnimals(Set<Animal> newlyCancelledAnimals) {
         Set<Animal> updatedCancelledAnimals = new HashSet<>(cancelledAnimals);
-        updatedCancelledAnimals.addAll(newlyCancelledAnimals);
-        return new Board(placedTiles, tilesIndex, zonePartitions, Set.copyOf(updatedCancelledAnimals));
+        long updatedZobristKey = zobristKey;
+        for (Animal animal : newlyCancelledAnimals) {
+            if (updatedCancelledAnimals.add(animal)) updatedZobristKey ^= Zobrist.cancelledAnimalKey(animal);
+        }
+        return new Board(this, placedTiles, zonePartitions, Set.copyOf(updatedCancelledAnimals), occupantCounts, pawnTileIds, updatedZobristKey);
+    }
+
+    /**
+     * Returns the column-major indices ({@code (x + REACH) * BOARD_SIZE + (y + REACH)}) of the given cells, sorted,
+     * which is the order of {@link #FRINGE_ORDER}.
+     *
+     * @param cells The cells whose indices are to be returned.
+     * @return The sorted column-major indices of the cells.
+     */
+    private static int[] sortedColumnMajorIndices(Bitboard cells) {
+        //the cells are enumerated row by row, their column-major indices are sorted by x then y
+        int[] columnMajorIndices = new int[cells.cardinality()];
+        int count = 0;
+        for (int index = cells.nextSetBit(0); index != NO_CELL; index = cells.nextSetBit(index + 1)) {
+            columnMajorIndices[count++] = (index % BOARD_SIZE) * BOARD_SIZE + index / BOARD_SIZE;
+        }
+        Arrays.sort(columnMajorIndices);
+        return columnMajorIndices;
+    }
+
+    /**
+     * Returns the positions of the cells of the given column-major indices, in the same order.
+     *
+     * @param columnMajorIndices The column-major indices of the cells.
+     * @return The (immutable) list of the positions of the cells.
+     */
+    private static List<Pos> positionsOf(int[] columnMajorIndices) {
+        Pos[] positions = new Pos[columnMajorIndices.length];
+        for (int i = 0; i < columnMajorIndices.length; i++) {
+            int columnMajorIndex = columnMajorIndices[i];
+            positions[i] = POSITIONS[(columnMajorIndex % BOARD_SIZE) * BOARD_SIZE + columnMajorIndex / BOARD_SIZE];
+        }
+        return List.of(positions);
+    }
+
+    /**
+     * Returns a copy of the given pawn tile ids where the bit of the given tile id is set or cleared.
+     *
+     * @param pawnTileIds The ids of the tiles occupied by a pawn, one bit per tile id.
+     * @param tileId      The id of the tile.
+     * @param hasPawn     Whether the tile is occupied by a pawn.
+     * @return The updated pawn tile ids.
+     */
+    private static long[] withPawnTileId(long[] pawnTileIds, int tileId, boolean hasPawn) {
+        int word = tileId >>> 6;
+        long[] updatedPawnTileIds = Arrays.copyOf(pawnTileIds, Math.max(pawnTileIds.length, word + 1));
+        if (hasPawn) updatedPawnTileIds[word] |= 1L << tileId;
+        else updatedPawnTileIds[word] &= ~(1L << tileId);
+        return updatedPawnTileIds;
+    }
+
+    /**
+     * Returns the positions of all the cells of the board, indexed by cell index.
+     *
+     * @return The positions of all the cells of the board.
+     */
+    private static Pos[] positions() {
+        Pos[] positions = new Pos[BOARD_CELL_NUMBER];
+        for (int index = 0; index < BOARD_CELL_NUMBER; index++) {
+            positions[index] = new Pos(index % BOARD_SIZE - REACH, index / BOARD_SIZE - REACH);
+        }
+        return positions;
+    }
+
+    /**
+     * Returns the index of the cell of the tile with the given ID, or {@code NO_CELL} if the tile is not on the board.
+     *
+     * @param tileId The ID of the tile.
+     * @return The index of the cell of the tile, or {@code NO_CELL}.
+     */
+    private int cellIndexOfTileId(int tileId) {
+        return tileId >= 0 && tileId < cellIndexOfTileId.length ? cellIndexOfTileId[tileId] : NO_CELL;
+    }
+
+    /**
+     * Returns a stream of all the tiles placed on the board.
+     *
+     * @return A stream of all the tiles placed on the board.
+     */
+    private Stream<PlacedTile> placedTilesStream() {
+        return Arrays.stream(cellIndexOfTileId)
+                .filter(i -> i != NO_CELL)
+                .mapToObj(placedTiles::get);
     }
 
     /**
@@ -409,19 +724,62 @@ public final class Board {
      * @return The index of the given placed tile on the board.
      */
     private int indexOf(PlacedTile placedTile) {
-        return (placedTile.pos().y() + REACH) * BOARD_SIZE + (placedTile.pos().x() + REACH);
+        return indexOf(placedTile.pos());
     }
 
     /**
-     * Converts a given index to a position on the board.
+     * Returns the index of the given position on the board.
      *
-     * @param index The index to be converted.
-     * @return The position on the board corresponding to the given index.
+     * @param pos The position whose index is to be returned.
+     * @return The index of the given position on the board.
      */
-    private Pos indexToPos(int index) {
-        int x = index % BOARD_SIZE - REACH;
-        int y = index / BOARD_SIZE - REACH;
-        return new Pos(x, y);
+    private static int indexOf(Pos pos) {
+        return (pos.y() + REACH) * BOARD_SIZE + (pos.x() + REACH);
+    }
+
+    /**
+     * Returns the index of the counter of the occupants of the given kind belonging to the given player.
+     *
+     * @param player       The player owning the occupants.
+     * @param occupantKind The kind of the occupants.
+     * @return The index of the counter in the occupant counts.
+     */
+    private static int occupantCountIndex(PlayerColor player, Occupant.Kind occupantKind) {
+        return player.ordinal() * OCCUPANT_KIND_COUNT + occupantKind.ordinal();
+    }
+
+    /**
+     * Returns a copy of the given occupant counts where the counter of the given player and occupant kind is changed
+     * by the given delta. The counts are left unchanged if the player is null (e.g. the starting tile).
+     *
+     * @param occupantCounts The occupant counts to be copied.
+     * @param player         The player owning the occupant.
+     * @param occupantKind   The kind of the occupant.
+     * @param delta          The change of the counter.
+     * @return The updated occupant counts.
+     */
+    private static int[] withOccupantCountChanged(int[] occupantCounts, PlayerColor player, Occupant.Kind occupantKind, int delta) {
+        if (player == null) {
+            return occupantCounts;
+        }
+        int[] updatedOccupantCounts = occupantCounts.clone();
+        updatedOccupantCounts[occupantCountIndex(player, occupantKind)] += delta;
+        return updatedOccupantCounts;
+    }
+
+    /**
+     * Checks if the given packed side kinds of a tile match the packed side kinds required by the neighbors of a cell,
+     * the sides without neighbor (code 0) accepting any kind.
+     *
+     * @param sideKinds         The packed side kinds of the tile.
+     * @param requiredSideKinds The packed side kinds required by the neighbors.
+     * @return True if every side with a neighbor has the required kind, false otherwise.
+     */
+    private static boolean fitsSideKinds(int sideKinds, int requiredSideKinds) {
+        //mask with both bits set for every side that has a neighbor
+        int constrainedSides = (requiredSideKinds | requiredSideKinds >>> 1) & 0b01010101;
+        constrainedSides |= constrainedSides << 1;
+        return (sideKinds & constrainedSides) == requiredSideKinds;
     }
 
     /**
@@ -430,23 +788,253 @@ public final class Board {
      * @param pos The position to be checked.
      * @return True if the position is valid, false otherwise.
      */
-    private boolean isValidPos(Pos pos) {
+    private static boolean isValidPos(Pos pos) {
         return pos.x() >= -REACH && pos.y() >= -REACH && pos.x() <= REACH && pos.y() <= REACH;
     }
 
+    /**
+     * Returns the 64-bit Zobrist key of the board, combining its placed tiles (with their rotation, placer, position
+     * and occupant) and its cancelled animals. Equal boards have equal keys, and boards with different keys are
+     * different, which makes it suited to deduplicate boards.
+     *
+     * @return The Zobrist key of the board.
+     */
+    public long zobristKey() {
+        return zobristKey;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof Board board)) return false;
-        return Arrays.equals(placedTiles, board.placedTiles)
-                && Arrays.equals(tilesIndex, board.tilesIndex)
+        return zobristKey == board.zobristKey
+                && lastPlacedTileIndex == board.lastPlacedTileIndex
+                && placedTiles.equals(board.placedTiles)
                 && zonePartitions.equals(board.zonePartitions)
                 && cancelledAnimals.equals(board.cancelledAnimals);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(Arrays.hashCode(placedTiles), Arrays.hashCode(tilesIndex), zonePartitions, cancelledAnimals);
+        return Long.hashCode(zobristKey) * 31 + lastPlacedTileIndex;
     }
-}
 
+    /**
+     * Persistent storage of the cells of the board, split in rows of {@code BOARD_SIZE} cells.
+     * Modifying a cell only copies the array of rows and the row of the cell, all the other rows being
+     * shared with the storage it is derived from.
+     */
+    private static final class Cells {
+        private static final PlacedTile[] EMPTY_ROW = new PlacedTile[BOARD_SIZE];
+        private static final Cells EMPTY = new Cells(emptyRows());
+
+        private final PlacedTile[][] rows;
+
+        private Cells(PlacedTile[][] rows) {
+            this.rows = rows;
+        }
+
+        private static PlacedTile[][] emptyRows() {
+            PlacedTile[][] rows = new PlacedTile[BOARD_SIZE][];
+            Arrays.fill(rows, EMPTY_ROW);
+            return rows;
+        }
+
+        /**
+         * Returns the tile in the cell of the given index, or null if the cell is empty.
+         *
+         * @param index The index of the cell.
+         * @return The tile in the cell of the given index, or null if the cell is empty.
+         */
+        private PlacedTile get(int index) {
+            return rows[index / BOARD_SIZE][index % BOARD_SIZE];
+        }
+
+        /**
+         * Returns a new storage identical to this one, except for the cell of the given index.
+         *
+         * @param index The index of the cell.
+         * @param tile  The tile to put in the cell.
+         * @return A new storage with the given tile in the cell of the given index.
+         */
+        private Cells with(int index, PlacedTile tile) {
+            PlacedTile[][] updatedRows = rows.clone();
+            PlacedTile[] updatedRow = rows[index / BOARD_SIZE].clone();
+            updatedRow[index % BOARD_SIZE] = tile;
+            updatedRows[index / BOARD_SIZE] = updatedRow;
+            return new Cells(updatedRows);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Cells that)) return false;
+            for (int row = 0; row < BOARD_SIZE; row++) {
+                if (rows[row] != that.rows[row] && !Arrays.equals(rows[row], that.rows[row])) return false;
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.deepHashCode(rows);
+        }
+    }
+
+    /**
+     * Persistent storage of the kinds of the sides that the neighbors of every cell expose toward it,
+     * packed like {@link Tile#sideKinds(Rotation)} (the code of the neighbor in direction d is stored at the bits
+     * of direction d, and is 0 if there is no neighbor). Like {@link Cells}, it is split in rows shared between boards.
+     */
+    private static final class NeighborSideKinds {
+        private static final byte[] EMPTY_ROW = new byte[BOARD_SIZE];
+        private static final NeighborSideKinds EMPTY = new NeighborSideKinds(emptyRows());
+
+        private final byte[][] rows;
+
+        private NeighborSideKinds(byte[][] rows) {
+            this.rows = rows;
+        }
+
+        private static byte[][] emptyRows() {
+            byte[][] rows = new byte[BOARD_SIZE][];
+            Arrays.fill(rows, EMPTY_ROW);
+            return rows;
+        }
+
+        /**
+         * Returns the packed side kinds exposed toward the cell of the given index by its neighbors.
+         *
+         * @param index The index of the cell.
+         * @return The packed side kinds exposed toward the cell.
+         */
+        private int get(int index) {
+            return rows[index / BOARD_SIZE][index % BOARD_SIZE] & 0xFF;
+        }
+
+        /**
+         * Returns a new storage where the neighbors of the given position see the sides of a tile placed on it.
+         *
+         * @param pos       The position of the placed tile.
+         * @param sideKinds The packed side kinds of the placed tile.
+         * @return A new storage updated around the given position.
+         */
+        private NeighborSideKinds withTileAt(Pos pos, int sideKinds) {
+            byte[][] updatedRows = rows.clone();
+            boolean[] copiedRows = new boolean[BOARD_SIZE];
+            for (Direction direction : Direction.ALL) {
+                Pos neighbor = pos.neighbor(direction);
+                if (neighbor.x() < -REACH || neighbor.x() > REACH || neighbor.y() < -REACH || neighbor.y() > REACH) {
+                    continue;
+                }
+                int row = neighbor.y() + REACH;
+                if (!copiedRows[row]) {
+                    updatedRows[row] = rows[row].clone();
+                    copiedRows[row] = true;
+                }
+                int sideKind = (sideKinds >>> Tile.SIDE_KIND_BITS * direction.ordinal()) & 0b11;
+                updatedRows[row][neighbor.x() + REACH] |= (byte) (sideKind << Tile.SIDE_KIND_BITS * direction.opposite().ordinal());
+            }
+            return new NeighborSideKinds(updatedRows);
+        }
+    }
+
+    /**
+     * Cache of the legality of placements, based on the side kinds required by the positions of the fringe.
+     * It counts the positions of the fringe requiring each packed side kinds, and remembers, for every packed side kinds
+     * of an unrotated tile, whether such a tile could be placed somewhere. The remembered answers are shared with
+     * the next board as long as placing a tile does not change the set of distinct side kinds required by the fringe.
+     */
+    private static final class PlacementCache {
+        private static final int SIGNATURE_COUNT = 1 << (Tile.SIDE_KIND_BITS * Direction.COUNT);
+        private static final byte UNKNOWN = 0;
+        private static final byte PLACEABLE = 1;
+        private static final byte NOT_PLACEABLE = 2;
+        private static final PlacementCache EMPTY = new PlacementCache(new int[SIGNATURE_COUNT], new byte[SIGNATURE_COUNT]);
+
+        private final int[] fringeCountBySignature;
+        //filled lazily, concurrent fillings always write the same answer
+        private final byte[] placeabilityBySideKinds;
+
+        private PlacementCache(int[] fringeCountBySignature, byte[] placeabilityBySideKinds) {
+            this.fringeCountBySignature = fringeCountBySignature;
+            this.placeabilityBySideKinds = placeabilityBySideKinds;
+        }
+
+        /**
+         * Checks if a tile whose unrotated sides have the given packed kinds could be placed at some position
+         * of the fringe, in some rotation.
+         *
+         * @param sideKinds The packed side kinds of the unrotated tile.
+         * @return True if the tile could be placed, false otherwise.
+         */
+        private boolean couldPlace(int sideKinds) {
+            byte placeability = placeabilityBySideKinds[sideKinds];
+            if (placeability == UNKNOWN) {
+                placeability = NOT_PLACEABLE;
+                for (int signature = 1; signature < SIGNATURE_COUNT && placeability == NOT_PLACEABLE; signature++) {
+                    if (fringeCountBySignature[signature] == 0) continue;
+                    for (Rotation rotation : Rotation.ALL) {
+                        if (fitsSideKinds(Tile.rotatedSideKinds(sideKinds, rotation), signature)) {
+                            placeability = PLACEABLE;
+                            break;
+                        }
+                    }
+                }
+                placeabilityBySideKinds[sideKinds] = placeability;
+            }
+            return placeability == PLACEABLE;
+        }
+
+        /**
+         * Returns a new cache where some cells changed from requiring the given old side kinds to requiring the given
+         * new ones, 0 meaning that the cell is not in the fringe.
+         *
+         * @param oldSignatures The side kinds required by the changed cells before the change.
+         * @param newSignatures The side kinds required by the changed cells after the change.
+         * @return A new cache taking the changes into account.
+         */
+        private PlacementCache withChangedCells(int[] oldSignatures, int[] newSignatures) {
+            int[] updatedCounts = fringeCountBySignature.clone();
+            for (int i = 0; i < oldSignatures.length; i++) {
+                if (oldSignatures[i] != 0) updatedCounts[oldSignatures[i]] -= 1;
+                if (newSignatures[i] != 0) updatedCounts[newSignatures[i]] += 1;
+            }
+            boolean sameSignatures = true;
+            for (int i = 0; i < oldSignatures.length && sameSignatures; i++) {
+                sameSignatures = (fringeCountBySignature[oldSignatures[i]] == 0) == (updatedCounts[oldSignatures[i]] == 0)
+                        && (fringeCountBySignature[newSignatures[i]] == 0) == (updatedCounts[newSignatures[i]] == 0);
+            }
+            return new PlacementCache(updatedCounts, sameSignatures ? placeabilityBySideKinds : new byte[SIGNATURE_COUNT]);
+        }
+    }
+
+    /**
+     * Immutable set of positions backed by a bitboard, for constant time membership tests,
+     * and by the list of its positions for iteration.
+     */
+    private static final class CellSet extends AbstractSet<Pos> {
+        private final Bitboard cells;
+        private final List<Pos> positions;
+
+        private CellSet(Bitboard cells, List<Pos> positions) {
+            this.cells = cells;
+            this.positions = positions;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof Pos pos && isValidPos(pos) && cells.contains(indexOf(pos));
+        }
+
+        @Override
+        public Iterator<Pos> iterator() {
+            return positions.iterator();
+        }
+
+        @Override
+        public int size() {
+            return positions.size();
+        }
+    }
+}
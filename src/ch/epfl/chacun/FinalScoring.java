@@ -0,0 +1,188 @@
+package ch.epfl.chacun;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Final scoring of the meadows and river systems of a board, area by area.
+ * <p>
+ * The score of an area only depends on the board and on the area itself, since the animals of two different areas
+ * are distinct : every area is thus scored by a pure function, returning its score events and the animals it
+ * cancels. When the board has at least {@link #PARALLEL_THRESHOLD} areas, they are scored in parallel
+ * on the fork/join pool, and the scores are always returned in the same order as a sequential scoring,
+ * so that folding them into the message board gives the same result whatever the number of threads.
+ *
+ * @author Ilyes Rouibi (372420)
+ * @author Weifeng Ding (379902)
+ */
+public final class FinalScoring {
+    /**
+     * The number of areas from which they are scored in parallel
+     */
+    public static final int PARALLEL_THRESHOLD = 64;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private FinalScoring() {
+    }
+
+    /**
+     * Record representing the final score of an area.
+     *
+     * @param area             the scored meadow or river system.
+     * @param events           the score events of the area, in the order they are added to the message board.
+     * @param cancelledAnimals the animals of the area cancelled by the scoring, to add to the board.
+     */
+    public record AreaScore(Area<? extends Zone> area, List<MessageBoard.Event> events, Set<Animal> cancelledAnimals) {
+        /**
+         * Compact constructor that makes AreaScore immutable.
+         */
+        public AreaScore {
+            Objects.requireNonNull(area);
+            events = List.copyOf(events);
+            cancelledAnimals = Set.copyOf(cancelledAnimals);
+        }
+
+        /**
+         * Returns the points scored by the given player in the area.
+         *
+         * @param player the player.
+         * @return the points scored by the player.
+         */
+        public int pointsOf(PlayerColor player) {
+            int points = 0;
+            for (MessageBoard.Event event : events) {
+                if ((event.scorerMask() & 1 << player.ordinal()) != 0) points += event.points();
+            }
+            return points;
+        }
+    }
+
+    /**
+     * Returns the final scores of all the meadows, then of all the river systems of the given board.
+     *
+     * @param board the board at the end of the game.
+     * @return the scores of the areas, in a deterministic order.
+     */
+    public static List<AreaScore> breakdown(Board board) {
+        return breakdown(board, PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Returns the final scores of all the meadows, then of all the river systems of the given board,
+     * scored in parallel if there are at least the given number of areas.
+     *
+     * @param board             the board at the end of the game.
+     * @param parallelThreshold the number of areas from which they are scored in parallel.
+     * @return the scores of the areas, in a deterministic order.
+     */
+    static List<AreaScore> breakdown(Board board, int parallelThreshold) {
+        List<Area<Zone.Meadow>> meadows = List.copyOf(board.meadowAreas());
+        List<Area<Zone.Water>> riverSystems = List.copyOf(board.riverSystemAreas());
+        int areaCount = meadows.size() + riverSystems.size();
+
+        IntStream indexes = IntStream.range(0, areaCount);
+        if (areaCount >= parallelThreshold) indexes = indexes.parallel();
+        //an ordered stream keeps the order of the areas, even in parallel
+        return indexes
+                .mapToObj(i -> i < meadows.size()
+                        ? scoreMeadow(board, meadows.get(i))
+                        : scoreRiverSystem(riverSystems.get(i - meadows.size())))
+                .toList();
+    }
+
+    /**
+     * Returns the final score of the given meadow area : the pit trap it contains, if any, then the meadow itself.
+     * The smilodons of the meadow cancel its deer, the ones furthest from its pit trap first,
+     * unless the meadow contains a wild fire.
+     *
+     * @param board  the board at the end of the game.
+     * @param meadow the meadow area.
+     * @return the score of the meadow.
+     */
+    public static AreaScore scoreMeadow(Board board, Area<Zone.Meadow> meadow) {
+        Set<Animal> cancelledAnimals = board.cancelledAnimals();
+        List<MessageBoard.Event> events = new ArrayList<>(2);
+        Zone pitTrapZone = meadow.zoneWithSpecialPower(Zone.SpecialPower.PIT_TRAP);
+        boolean hasWildFire = meadow.zoneWithSpecialPower(Zone.SpecialPower.WILD_FIRE) != null;
+
+        if (pitTrapZone != null) {
+            Area<Zone.Meadow> adjacentMeadow = board.adjacentMeadow(board.tileWithId(pitTrapZone.tileId()).pos(), (Zone.Meadow) pitTrapZone);
+            Set<Animal> newlyCancelledAnimals = cancelledAnimals;
+
+            if (!hasWildFire) {
+                Map<Animal.Kind, Integer> animalCountMap = GameState.countAnimals(Area.animals(meadow, cancelledAnimals));
+                int smilodonCount = animalCountMap.getOrDefault(Animal.Kind.TIGER, 0);
+
+                Set<Animal> adjacentDeers = Area.animals(adjacentMeadow, cancelledAnimals)
+                        .stream()
+                        .filter(animal -> animal.kind() == Animal.Kind.DEER)
+                        .collect(Collectors.toSet());
+
+                Set<Animal> notAdjacentDeers = Area.animals(meadow, cancelledAnimals)
+                        .stream()
+                        .filter(animal -> animal.kind() == Animal.Kind.DEER)
+                        .filter(animal -> !adjacentDeers.contains(animal))
+                        .collect(Collectors.toSet());
+
+                int notAdjacentDeerCount = notAdjacentDeers.size();
+
+                newlyCancelledAnimals = new HashSet<>(cancelledAnimals);
+                if (smilodonCount >= notAdjacentDeerCount) {
+                    newlyCancelledAnimals.addAll(notAdjacentDeers);
+                    int remainingAdjDeerToCancelCount = smilodonCount - notAdjacentDeerCount;
+                    newlyCancelledAnimals.addAll(GameState.cancelDeers(remainingAdjDeerToCancelCount, adjacentDeers.size(), adjacentDeers.iterator()));
+                } else {
+                    newlyCancelledAnimals.addAll(GameState.cancelDeers(smilodonCount, notAdjacentDeerCount, notAdjacentDeers.iterator()));
+                }
+            }
+            addIfAny(events, MessageBoard.scoredPitTrapEvent(adjacentMeadow, newlyCancelledAnimals));
+            addIfAny(events, MessageBoard.scoredMeadowEvent(meadow, newlyCancelledAnimals));
+            //the deer cancelled around a pit trap are not kept on the board
+            return new AreaScore(meadow, events, Set.of());
+        }
+
+        if (hasWildFire) {
+            addIfAny(events, MessageBoard.scoredMeadowEvent(meadow, cancelledAnimals));
+            return new AreaScore(meadow, events, Set.of());
+        }
+
+        Set<Animal> notCancelledYetAnimals = Area.animals(meadow, cancelledAnimals);
+        Map<Animal.Kind, Integer> animalCountMap = GameState.countAnimals(notCancelledYetAnimals);
+        int deerCount = animalCountMap.getOrDefault(Animal.Kind.DEER, 0);
+        int smilodonCount = animalCountMap.getOrDefault(Animal.Kind.TIGER, 0);
+        Set<Animal> cancelledDeers = GameState.cancelDeers(smilodonCount, deerCount, notCancelledYetAnimals.iterator());
+
+        Set<Animal> newlyCancelledAnimals = new HashSet<>(cancelledAnimals);
+        newlyCancelledAnimals.addAll(cancelledDeers);
+        addIfAny(events, MessageBoard.scoredMeadowEvent(meadow, newlyCancelledAnimals));
+        return new AreaScore(meadow, events, cancelledDeers);
+    }
+
+    /**
+     * Returns the final score of the given river system : its raft, if any, then the river system itself.
+     *
+     * @param riverSystem the river system area.
+     * @return the score of the river system.
+     */
+    public static AreaScore scoreRiverSystem(Area<Zone.Water> riverSystem) {
+        List<MessageBoard.Event> events = new ArrayList<>(2);
+        if (riverSystem.zoneWithSpecialPower(Zone.SpecialPower.RAFT) != null) {
+            addIfAny(events, MessageBoard.scoredRaftEvent(riverSystem));
+        }
+        addIfAny(events, MessageBoard.scoredRiverSystemEvent(riverSystem));
+        return new AreaScore(riverSystem, events, Set.of());
+    }
+
+    /**
+     * Adds the given event to the given list, if it is not null.
+     *
+     * @param events the list of events.
+     * @param event  the event, or null.
+     */
+    private static void addIfAny(List<MessageBoard.Event> events, MessageBoard.Event event) {
+        if (event != null) events.add(event);
+    }
+}
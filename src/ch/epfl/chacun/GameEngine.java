@@ -0,0 +1,1244 @@
+package ch.epfl.chacun;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Mutable game engine applying moves in place and undoing them, for the search and the simulation of games.
+ * <p>
+ * The engine follows the rules of {@link GameState#withPlacedTile(PlacedTile)}, {@link GameState#withNewOccupant(Occupant)},
+ * {@link GameState#withOccupantRemoved(Occupant)} and of the end of the turns, the final scoring included,
+ * on flat arrays : the cells of the board, the tiles' placers and occupants, two union-finds of the zones
+ * (one for the forests, meadows and rivers, one for the river systems) whose roots hold the open connections
+ * and the occupants of their area, the animals of the meadows which are not cancelled, the occupant counts
+ * and the points of the players. The moves are the packed moves of {@link MoveGenerator}, generated in the same order.
+ * <p>
+ * Every write to these arrays is recorded with the value it replaces on a trail, so that {@link #unmake()}
+ * undoes a move by rewriting the values recorded since it was made. The union-finds are thus linked by size
+ * without path compression, and the zones of an area form a cyclic list whose splicing is undone like any write.
+ * <p>
+ * The engine converts from a {@link GameState} when it is constructed, and back with {@link #toGameState()},
+ * which replays the moves made since on the initial state.
+ *
+ * @author Ilyes Rouibi (372420)
+ * @author Weifeng Ding (379902)
+ */
+public final class GameEngine {
+    private static final int REACH = Board.REACH;
+    private static final int BOARD_SIZE = Board.BOARD_SIZE;
+    private static final int NO_CELL = Bitboard.NO_CELL;
+    private static final int NONE = MoveGenerator.NONE;
+    private static final int START_MOVE = -1;
+    private static final int NO_TILE = -1;
+    private static final int NO_OCCUPANT = -1;
+    private static final int NO_ZONE = -1;
+
+    private static final int LOCAL_ID_COUNT = 10;
+    private static final int HUT_SHIFT = 16;
+    private static final int HALF_MASK = (1 << HUT_SHIFT) - 1;
+    private static final int PAWN = Occupant.Kind.PAWN.ordinal();
+    private static final int HUT = Occupant.Kind.HUT.ordinal();
+    private static final int OCCUPANT_KIND_COUNT = Occupant.Kind.values().length;
+    private static final int COLOR_COUNT = PlayerColor.ALL.size();
+    //the occupants of an area are counted on 4 bits per color ordinal
+    private static final int OCCUPANT_BITS = 4;
+    private static final int OCCUPANT_MASK = (1 << OCCUPANT_BITS) - 1;
+    //the animals of a meadow are counted on 8 bits per kind ordinal
+    private static final int ANIMAL_BITS = 8;
+    private static final int ANIMAL_MASK = (1 << ANIMAL_BITS) - 1;
+
+    //the types of the zones
+    private static final int FOREST = 1;
+    private static final int MEADOW = 2;
+    private static final int RIVER = 3;
+    private static final int LAKE = 4;
+
+    //the indexes of the scalar registers
+    private static final int NEXT_ACTION = 0;
+    private static final int PLAYER = 1;
+    private static final int TILE_TO_PLACE = 2;
+    private static final int START_TOP = 3;
+    private static final int NORMAL_TOP = 4;
+    private static final int MENHIR_TOP = 5;
+    private static final int LAST_TILE = 6;
+    private static final int MIN_X = 7;
+    private static final int MAX_X = 8;
+    private static final int MIN_Y = 9;
+    private static final int MAX_Y = 10;
+    private static final int REGISTER_COUNT = 11;
+
+    //the ids of the arrays whose writes are recorded on the trail
+    private static final int CELL_TILES = 0;
+    private static final int CELL_ROTATIONS = 1;
+    private static final int REQUIRED_SIDE_KINDS = 2;
+    private static final int TILE_CELLS = 3;
+    private static final int TILE_PLACERS = 4;
+    private static final int TILE_OCCUPANTS = 5;
+    private static final int AREA_PARENTS = 6;
+    private static final int AREA_SIZES = 7;
+    private static final int AREA_OPEN_CONNECTIONS = 8;
+    private static final int AREA_OCCUPANTS = 9;
+    private static final int AREA_NEXT = 10;
+    private static final int SYSTEM_PARENTS = 11;
+    private static final int SYSTEM_SIZES = 12;
+    private static final int SYSTEM_OCCUPANTS = 13;
+    private static final int SYSTEM_NEXT = 14;
+    private static final int MEADOW_ANIMALS = 15;
+    private static final int OCCUPANT_COUNTS = 16;
+    private static final int POINTS = 17;
+    private static final int REGISTERS = 18;
+
+    private static final GameState.Action[] ACTIONS = GameState.Action.values();
+
+    private final GameState initialState;
+    private final PlayerColor[] players;
+    private final Tile[] startDeck;
+    private final Tile[] normalDeck;
+    private final Tile[] menhirDeck;
+
+    //the tiles and their zones, indexed by tile id and zone id
+    private final Tile[] tiles;
+    private final int[] tileSideKinds;
+    //per tile and unrotated side : the side kind, then the local ids of its zones on 4 bits each
+    private final int[] sideCodes;
+    private final int[][] tileZones;
+    private final int[] tileSpecialZones;
+    private final int[] zoneTypes;
+    //the kind ordinal of a forest, the fish of a river or a lake, the packed animals of a meadow
+    private final int[] zoneValues;
+    private final int[] zoneLakes;
+    private final int[] zonePowers;
+
+    private final int[] cellTiles;
+    private final int[] cellRotations;
+    private final int[] requiredSideKinds;
+    private final int[] tileCells;
+    private final int[] tilePlacers;
+    //the occupant of a tile : (kind << 4) | local id of its zone
+    private final int[] tileOccupants;
+    private final int[] areaParents;
+    private final int[] areaSizes;
+    private final int[] areaOpenConnections;
+    private final int[] areaOccupants;
+    private final int[] areaNext;
+    private final int[] systemParents;
+    private final int[] systemSizes;
+    private final int[] systemOccupants;
+    private final int[] systemNext;
+    private final int[] meadowAnimals;
+    private final int[] occupantCounts;
+    private final int[] points;
+    private final int[] registers;
+    private final int[][] trackedArrays;
+
+    //the trail of the writes : (array id, index, replaced value) triples
+    private int[] trail = new int[3 * 1024];
+    private int trailSize;
+    //per move made : the size of the trail before it, and the move
+    private int[] plyTrailSizes = new int[256];
+    private int[] plyMoves = new int[256];
+    private int depth;
+
+    //scratch marks, to count the distinct tiles and lakes of an area
+    private final int[] tileMarks;
+    private final int[] zoneMarks;
+    private int mark;
+
+    /**
+     * Constructs an engine starting from the given game state.
+     *
+     * @param state the initial game state
+     */
+    public GameEngine(GameState state) {
+        this.initialState = state;
+        Board board = state.board();
+        TileDecks tileDecks = state.tileDecks();
+        this.players = state.players().toArray(new PlayerColor[0]);
+        this.startDeck = tileDecks.startTiles().toArray(new Tile[0]);
+        this.normalDeck = tileDecks.normalTiles().toArray(new Tile[0]);
+        this.menhirDeck = tileDecks.menhirTiles().toArray(new Tile[0]);
+
+        int tileIdBound = board.tileIdBound();
+        for (List<Tile> deck : List.of(tileDecks.startTiles(), tileDecks.normalTiles(), tileDecks.menhirTiles()))
+            for (Tile tile : deck) tileIdBound = Math.max(tileIdBound, tile.id() + 1);
+        if (state.tileToPlace() != null) tileIdBound = Math.max(tileIdBound, state.tileToPlace().id() + 1);
+        int zoneIdBound = tileIdBound * LOCAL_ID_COUNT;
+
+        tiles = new Tile[tileIdBound];
+        tileSideKinds = new int[tileIdBound];
+        sideCodes = new int[tileIdBound * Direction.COUNT];
+        tileZones = new int[tileIdBound][];
+        tileSpecialZones = new int[tileIdBound];
+        zoneTypes = new int[zoneIdBound];
+        zoneValues = new int[zoneIdBound];
+        zoneLakes = new int[zoneIdBound];
+        zonePowers = new int[zoneIdBound];
+        for (List<Tile> deck : List.of(tileDecks.startTiles(), tileDecks.normalTiles(), tileDecks.menhirTiles()))
+            for (Tile tile : deck) indexTile(tile);
+        if (state.tileToPlace() != null) indexTile(state.tileToPlace());
+
+        cellTiles = new int[Board.BOARD_CELL_NUMBER];
+        cellRotations = new int[Board.BOARD_CELL_NUMBER];
+        requiredSideKinds = new int[Board.BOARD_CELL_NUMBER];
+        tileCells = new int[tileIdBound];
+        tilePlacers = new int[tileIdBound];
+        tileOccupants = new int[tileIdBound];
+        areaParents = new int[zoneIdBound];
+        areaSizes = new int[zoneIdBound];
+        areaOpenConnections = new int[zoneIdBound];
+        areaOccupants = new int[zoneIdBound];
+        areaNext = new int[zoneIdBound];
+        systemParents = new int[zoneIdBound];
+        systemSizes = new int[zoneIdBound];
+        systemOccupants = new int[zoneIdBound];
+        systemNext = new int[zoneIdBound];
+        meadowAnimals = new int[zoneIdBound];
+        occupantCounts = new int[COLOR_COUNT * OCCUPANT_KIND_COUNT];
+        points = new int[COLOR_COUNT];
+        registers = new int[REGISTER_COUNT];
+        trackedArrays = new int[][]{cellTiles, cellRotations, requiredSideKinds, tileCells, tilePlacers, tileOccupants,
+                areaParents, areaSizes, areaOpenConnections, areaOccupants, areaNext,
+                systemParents, systemSizes, systemOccupants, systemNext,
+                meadowAnimals, occupantCounts, points, registers};
+        tileMarks = new int[tileIdBound];
+        zoneMarks = new int[zoneIdBound];
+
+        Arrays.fill(cellTiles, NO_TILE);
+        Arrays.fill(tileCells, NO_CELL);
+        Arrays.fill(tilePlacers, -1);
+        Arrays.fill(tileOccupants, NO_OCCUPANT);
+        registers[NEXT_ACTION] = state.nextAction().ordinal();
+        registers[TILE_TO_PLACE] = state.tileToPlace() == null ? NO_TILE : state.tileToPlace().id();
+        registers[MIN_X] = registers[MIN_Y] = REACH + 1;
+        registers[MAX_X] = registers[MAX_Y] = -REACH - 1;
+        loadBoard(board);
+        registers[LAST_TILE] = board.lastPlacedTile() == null ? NO_TILE : board.lastPlacedTile().id();
+        for (PlayerColor player : PlayerColor.ALL) points[player.ordinal()] = state.messageBoard().pointsOf(player);
+        //the trail starts empty, the loaded state cannot be undone
+        trailSize = 0;
+    }
+
+    /**
+     * Returns the current game state (immutable), e.g. to hand it to the graphical interface or to an encoder.
+     * It is obtained by replaying the moves made since the initial state, so it is meant for the boundaries
+     * of a search, not for its inner loop.
+     *
+     * @return the current game state
+     */
+    public GameState toGameState() {
+        GameState state = initialState;
+        for (int ply = 0; ply < depth; ply++) {
+            state = plyMoves[ply] == START_MOVE ? state.withStartingTilePlaced() : MoveGenerator.apply(state, plyMoves[ply]);
+        }
+        return state;
+    }
+
+    /**
+     * Returns the next action to execute.
+     *
+     * @return the next action to execute
+     */
+    public GameState.Action nextAction() {
+        return ACTIONS[registers[NEXT_ACTION]];
+    }
+
+    /**
+     * Returns the current player, or null if the game has not started or is finished.
+     *
+     * @return the current player
+     */
+    public PlayerColor currentPlayer() {
+        GameState.Action action = nextAction();
+        return action == GameState.Action.START_GAME || action == GameState.Action.END_GAME ? null : players[registers[PLAYER]];
+    }
+
+    /**
+     * Returns the tile to place, or null if the next action is not to place a tile.
+     *
+     * @return the tile to place
+     */
+    public Tile tileToPlace() {
+        return registers[TILE_TO_PLACE] == NO_TILE ? null : tiles[registers[TILE_TO_PLACE]];
+    }
+
+    /**
+     * Returns the points earned by the given player.
+     *
+     * @param player the player
+     * @return the points of the player
+     */
+    public int pointsOf(PlayerColor player) {
+        return points[player.ordinal()];
+    }
+
+    /**
+     * Returns the number of free occupants of the given kind belonging to the given player.
+     *
+     * @param player the player
+     * @param kind   the kind of occupant
+     * @return the number of occupants of the player which are not on the board
+     */
+    public int freeOccupantsCount(PlayerColor player, Occupant.Kind kind) {
+        return Occupant.occupantsCount(kind) - occupantCounts[player.ordinal() * OCCUPANT_KIND_COUNT + kind.ordinal()];
+    }
+
+    /**
+     * Returns the number of moves that can be undone.
+     *
+     * @return the number of moves that can be undone
+     */
+    public int depth() {
+        return depth;
+    }
+
+    /**
+     * Writes the legal moves for the next action at the beginning of the given array, in the order
+     * of {@link MoveGenerator#generate(GameState, int[])}. There is no move when the next action is START_GAME
+     * or END_GAME.
+     *
+     * @param moves the array to write the moves to
+     * @return the number of moves written
+     * @throws ArrayIndexOutOfBoundsException if the array is too small (see {@link MoveGenerator#MAX_MOVES}).
+     */
+    public int generateMoves(int[] moves) {
+        return switch (nextAction()) {
+            case PLACE_TILE -> generatePlacements(moves);
+            case OCCUPY_TILE -> {
+                int count = 0;
+                if (tilePlacers[registers[LAST_TILE]] != -1) {
+                    int zones = occupiableZones();
+                    count = writeOccupants(PAWN, zones & HALF_MASK, moves, count);
+                    count = writeOccupants(HUT, zones >>> HUT_SHIFT, moves, count);
+                }
+                moves[count++] = NONE;
+                yield count;
+            }
+            case RETAKE_PAWN -> {
+                int count = 0;
+                int pawnIndex = 0;
+                int player = players[registers[PLAYER]].ordinal();
+                for (int tileId = 0; tileId < tiles.length; tileId++) {
+                    if (isPawn(tileOccupants[tileId])) {
+                        if (tilePlacers[tileId] == player) moves[count++] = pawnIndex;
+                        pawnIndex++;
+                    }
+                }
+                moves[count++] = NONE;
+                yield count;
+            }
+            case START_GAME, END_GAME -> 0;
+        };
+    }
+
+    /**
+     * Places the starting tile and draws the first tile to place, following {@link GameState#withStartingTilePlaced()}.
+     *
+     * @throws IllegalArgumentException if the next action is not START_GAME, or if a deck is empty
+     */
+    public void startGame() {
+        Preconditions.checkArgument(nextAction() == GameState.Action.START_GAME
+                && registers[START_TOP] < startDeck.length && registers[NORMAL_TOP] < normalDeck.length);
+        pushPly(START_MOVE);
+        Tile startTile = startDeck[registers[START_TOP]];
+        set(REGISTERS, START_TOP, registers[START_TOP] + 1);
+        placeTile(startTile.id(), -1, Rotation.NONE.ordinal(), cellIndex(0, 0));
+        set(REGISTERS, TILE_TO_PLACE, normalDeck[registers[NORMAL_TOP]].id());
+        set(REGISTERS, NORMAL_TOP, registers[NORMAL_TOP] + 1);
+        set(REGISTERS, NEXT_ACTION, GameState.Action.PLACE_TILE.ordinal());
+    }
+
+    /**
+     * Makes the given packed move (see {@link MoveGenerator}) for the next action.
+     * An illegal move leaves the engine unchanged.
+     *
+     * @param move the packed move
+     * @throws IllegalArgumentException if the move is not legal
+     */
+    public void makeMove(int move) {
+        switch (nextAction()) {
+            case PLACE_TILE -> {
+                int cell = fringeCell(move >>> 2);
+                int tileId = registers[TILE_TO_PLACE];
+                Preconditions.checkArgument(move >= 0 && cell != NO_CELL
+                        && fits(Tile.rotatedSideKinds(tileSideKinds[tileId], Rotation.ALL.get(move & 0b11)), requiredSideKinds[cell]));
+                pushPly(move);
+                makePlacement(tileId, move & 0b11, cell);
+            }
+            case OCCUPY_TILE -> {
+                if (move != NONE) {
+                    int kind = move >>> 4;
+                    int localId = move & 0b1111;
+                    Preconditions.checkArgument(move >= 0 && kind < OCCUPANT_KIND_COUNT && localId < LOCAL_ID_COUNT
+                            && tilePlacers[registers[LAST_TILE]] != -1
+                            && (occupiableZones() & 1 << (kind == HUT ? HUT_SHIFT + localId : localId)) != 0);
+                }
+                pushPly(move);
+                if (move != NONE) addOccupant(registers[LAST_TILE], move);
+                finishTurn();
+            }
+            case RETAKE_PAWN -> {
+                int tileId = move == NONE ? NO_TILE : tileWithPawn(move);
+                Preconditions.checkArgument(move == NONE
+                        || (tileId != NO_TILE && tilePlacers[tileId] == players[registers[PLAYER]].ordinal()));
+                pushPly(move);
+                if (move != NONE) {
+                    removeOccupant(tileId);
+                    set(REGISTERS, NEXT_ACTION, GameState.Action.OCCUPY_TILE.ordinal());
+                }
+                finishTurnIfOccupationImpossible();
+            }
+            case START_GAME, END_GAME -> throw new IllegalArgumentException();
+        }
+    }
+
+    /**
+     * Undoes the last move, by rewriting the values its writes replaced, latest first.
+     *
+     * @throws IllegalArgumentException if there is no move to undo
+     */
+    public void unmake() {
+        Preconditions.checkArgument(depth > 0);
+        depth--;
+        int plyTrailSize = plyTrailSizes[depth];
+        while (trailSize > plyTrailSize) {
+            trailSize -= 3;
+            trackedArrays[trail[trailSize]][trail[trailSize + 1]] = trail[trailSize + 2];
+        }
+    }
+
+    /**
+     * Indexes the zones of the given tile.
+     *
+     * @param tile the tile
+     */
+    private void indexTile(Tile tile) {
+        int tileId = tile.id();
+        if (tiles[tileId] != null) return;
+        tiles[tileId] = tile;
+        tileSideKinds[tileId] = tile.sideKinds(Rotation.NONE);
+        List<TileSide> sides = tile.sides();
+        for (int side = 0; side < Direction.COUNT; side++) {
+            sideCodes[tileId * Direction.COUNT + side] = switch (sides.get(side)) {
+                case TileSide.Forest(Zone.Forest forest) -> Tile.FOREST_SIDE | forest.localId() << 4;
+                case TileSide.Meadow(Zone.Meadow meadow) -> Tile.MEADOW_SIDE | meadow.localId() << 4;
+                case TileSide.River(Zone.Meadow meadow1, Zone.River river, Zone.Meadow meadow2) ->
+                        Tile.RIVER_SIDE | meadow1.localId() << 4 | river.localId() << 8 | meadow2.localId() << 12;
+            };
+        }
+
+        tileSpecialZones[tileId] = NO_ZONE;
+        tileZones[tileId] = tile.zones().stream().mapToInt(Zone::id).sorted().toArray();
+        for (Zone zone : tile.zones()) {
+            int zoneId = zone.id();
+            zoneLakes[zoneId] = NO_ZONE;
+            zonePowers[zoneId] = zone.specialPower() == null ? -1 : zone.specialPower().ordinal();
+            if (zone.specialPower() != null && tileSpecialZones[tileId] == NO_ZONE) tileSpecialZones[tileId] = zoneId;
+            switch (zone) {
+                case Zone.Forest forest -> {
+                    zoneTypes[zoneId] = FOREST;
+                    zoneValues[zoneId] = forest.kind().ordinal();
+                }
+                case Zone.Meadow meadow -> {
+                    zoneTypes[zoneId] = MEADOW;
+                    int animals = 0;
+                    for (Animal animal : meadow.animals()) animals += 1 << animal.kind().ordinal() * ANIMAL_BITS;
+                    zoneValues[zoneId] = animals;
+                }
+                case Zone.River river -> {
+                    zoneTypes[zoneId] = RIVER;
+                    zoneValues[zoneId] = river.fishCount();
+                    if (river.hasLake()) zoneLakes[zoneId] = river.lake().id();
+                }
+                case Zone.Lake lake -> {
+                    zoneTypes[zoneId] = LAKE;
+                    zoneValues[zoneId] = lake.fishCount();
+                }
+            }
+        }
+    }
+
+    /**
+     * Loads the tiles, the occupants and the cancelled animals of the given board.
+     *
+     * @param board the board
+     */
+    private void loadBoard(Board board) {
+        for (int tileId = 0; tileId < board.tileIdBound(); tileId++) {
+            PlacedTile placedTile = board.tileWithIdOrNull(tileId);
+            if (placedTile == null) continue;
+            indexTile(placedTile.tile());
+            placeTile(tileId, placedTile.placer() == null ? -1 : placedTile.placer().ordinal(),
+                    placedTile.rotation().ordinal(), cellIndex(placedTile.pos().x(), placedTile.pos().y()));
+        }
+        for (int tileId = 0; tileId < board.tileIdBound(); tileId++) {
+            PlacedTile placedTile = board.tileWithIdOrNull(tileId);
+            if (placedTile != null && placedTile.occupant() != null) {
+                Occupant occupant = placedTile.occupant();
+                addOccupant(tileId, occupant.kind().ordinal() << 4 | Zone.localId(occupant.zoneId()));
+            }
+        }
+        for (Animal animal : board.cancelledAnimals()) {
+            int zoneId = animal.id() / 10;
+            set(MEADOW_ANIMALS, zoneId, meadowAnimals[zoneId] - (1 << animal.kind().ordinal() * ANIMAL_BITS));
+        }
+    }
+
+    /**
+     * Places the given tile and applies its special power, following {@link GameState#withPlacedTile(PlacedTile)}.
+     *
+     * @param tileId   the id of the tile to place
+     * @param rotation the ordinal of its rotation
+     * @param cell     the index of its cell
+     */
+    private void makePlacement(int tileId, int rotation, int cell) {
+        int player = players[registers[PLAYER]].ordinal();
+        placeTile(tileId, player, rotation, cell);
+        set(REGISTERS, TILE_TO_PLACE, NO_TILE);
+
+        int specialZone = tileSpecialZones[tileId];
+        if (tiles[tileId].kind() == Tile.Kind.MENHIR && specialZone != NO_ZONE) {
+            switch (Zone.SpecialPower.values()[zonePowers[specialZone]]) {
+                case SHAMAN -> {
+                    if (occupantCounts[player * OCCUPANT_KIND_COUNT + PAWN] > 0) {
+                        set(REGISTERS, NEXT_ACTION, GameState.Action.RETAKE_PAWN.ordinal());
+                        return;
+                    }
+                }
+                case LOGBOAT -> addPoints(1 << player, Points.forLogboat(lakeCount(systemRoot(specialZone))));
+                case HUNTING_TRAP -> scoreHuntingTrap(player, cell, specialZone);
+                default -> {
+                }
+            }
+        }
+        set(REGISTERS, NEXT_ACTION, GameState.Action.OCCUPY_TILE.ordinal());
+        finishTurnIfOccupationImpossible();
+    }
+
+    /**
+     * Adds the given tile to the board : its cell, the side kinds required around it, and its zones,
+     * connected to the ones of its neighbors like {@link ZonePartitions.Builder} does.
+     *
+     * @param tileId   the id of the tile
+     * @param player   the ordinal of its placer, or -1
+     * @param rotation the ordinal of its rotation
+     * @param cell     the index of its cell
+     */
+    private void placeTile(int tileId, int player, int rotation, int cell) {
+        set(CELL_TILES, cell, tileId);
+        set(CELL_ROTATIONS, cell, rotation);
+        set(TILE_CELLS, tileId, cell);
+        set(TILE_PLACERS, tileId, player);
+        set(REGISTERS, LAST_TILE, tileId);
+        int x = cell % BOARD_SIZE - REACH;
+        int y = cell / BOARD_SIZE - REACH;
+        if (x < registers[MIN_X]) set(REGISTERS, MIN_X, x);
+        if (x > registers[MAX_X]) set(REGISTERS, MAX_X, x);
+        if (y < registers[MIN_Y]) set(REGISTERS, MIN_Y, y);
+        if (y > registers[MAX_Y]) set(REGISTERS, MAX_Y, y);
+
+        int sideKinds = Tile.rotatedSideKinds(tileSideKinds[tileId], Rotation.ALL.get(rotation));
+        for (Direction direction : Direction.ALL) {
+            int neighbor = Bitboard.neighborIndex(cell, direction);
+            if (neighbor == NO_CELL) continue;
+            int sideKind = sideKinds >>> Tile.SIDE_KIND_BITS * direction.ordinal() & 0b11;
+            set(REQUIRED_SIDE_KINDS, neighbor, requiredSideKinds[neighbor] | sideKind << Tile.SIDE_KIND_BITS * direction.opposite().ordinal());
+        }
+
+        //the open connections of the zones, counted like ZonePartitions.Builder does
+        int base = tileId * LOCAL_ID_COUNT;
+        int[] openConnections = new int[LOCAL_ID_COUNT];
+        for (int side = 0; side < Direction.COUNT; side++) {
+            int code = sideCodes[tileId * Direction.COUNT + side];
+            openConnections[code >>> 4 & 0xF]++;
+            if ((code & 0b11) == Tile.RIVER_SIDE) {
+                int river = code >>> 8 & 0xF;
+                openConnections[river]++;
+                openConnections[code >>> 12 & 0xF]++;
+                if (zoneLakes[base + river] != NO_ZONE) {
+                    openConnections[river]++;
+                    openConnections[Zone.localId(zoneLakes[base + river])]++;
+                }
+            }
+        }
+        for (int zoneId : tileZones[tileId]) {
+            int type = zoneTypes[zoneId];
+            int open = openConnections[Zone.localId(zoneId)];
+            if (type != LAKE) {
+                addSingleton(AREA_PARENTS, AREA_SIZES, AREA_OCCUPANTS, AREA_NEXT, zoneId);
+                set(AREA_OPEN_CONNECTIONS, zoneId, type == RIVER && zoneLakes[zoneId] != NO_ZONE ? open - 1 : open);
+            }
+            if (type == RIVER || type == LAKE) addSingleton(SYSTEM_PARENTS, SYSTEM_SIZES, SYSTEM_OCCUPANTS, SYSTEM_NEXT, zoneId);
+            if (type == MEADOW) set(MEADOW_ANIMALS, zoneId, zoneValues[zoneId]);
+        }
+        for (int zoneId : tileZones[tileId]) {
+            if (zoneTypes[zoneId] == RIVER && zoneLakes[zoneId] != NO_ZONE) unionSystems(zoneId, zoneLakes[zoneId]);
+        }
+
+        for (Direction direction : Direction.ALL) {
+            int neighbor = Bitboard.neighborIndex(cell, direction);
+            if (neighbor == NO_CELL || cellTiles[neighbor] == NO_TILE) continue;
+            int neighborId = cellTiles[neighbor];
+            int code = sideCode(tileId, rotation, direction.ordinal());
+            int neighborCode = sideCode(neighborId, cellRotations[neighbor], direction.opposite().ordinal());
+            int neighborBase = neighborId * LOCAL_ID_COUNT;
+            if ((code & 0b11) == Tile.RIVER_SIDE) {
+                int river = base + (code >>> 8 & 0xF);
+                int neighborRiver = neighborBase + (neighborCode >>> 8 & 0xF);
+                unionAreas(river, neighborRiver);
+                unionAreas(base + (code >>> 4 & 0xF), neighborBase + (neighborCode >>> 12 & 0xF));
+                unionAreas(base + (code >>> 12 & 0xF), neighborBase + (neighborCode >>> 4 & 0xF));
+                unionSystems(river, neighborRiver);
+            } else {
+                unionAreas(base + (code >>> 4 & 0xF), neighborBase + (neighborCode >>> 4 & 0xF));
+            }
+        }
+    }
+
+    /**
+     * Scores the hunting trap placed by the given player and cancels the animals of its adjacent meadow.
+     *
+     * @param player the ordinal of the placer
+     * @param cell   the cell of the hunting trap
+     * @param meadow the meadow zone of the hunting trap
+     */
+    private void scoreHuntingTrap(int player, int cell, int meadow) {
+        int animals = adjacentAnimals(cell, areaRoot(meadow), true);
+        int deer = animalCount(animals, Animal.Kind.DEER);
+        int cancelledDeer = Math.min(animalCount(animals, Animal.Kind.TIGER), deer);
+        int huntingTrapPoints = Points.forMeadow(animalCount(animals, Animal.Kind.MAMMOTH), animalCount(animals, Animal.Kind.AUROCHS), deer - cancelledDeer);
+        if (huntingTrapPoints > 0) addPoints(1 << player, huntingTrapPoints);
+    }
+
+    /**
+     * Returns the animals which are not cancelled in the meadow zones of the given area on the tiles
+     * of the 3x3 square centered on the given cell (see {@link Board#adjacentMeadow(Pos, Zone.Meadow)}).
+     *
+     * @param cell   the center cell
+     * @param root   the root of the meadow area
+     * @param cancel whether the animals are cancelled once counted
+     * @return the packed counts of the animals
+     */
+    private int adjacentAnimals(int cell, int root, boolean cancel) {
+        int x = cell % BOARD_SIZE - REACH;
+        int y = cell / BOARD_SIZE - REACH;
+        int animals = 0;
+        for (int ay = Math.max(y - 1, -REACH); ay <= Math.min(y + 1, REACH); ay++) {
+            for (int ax = Math.max(x - 1, -REACH); ax <= Math.min(x + 1, REACH); ax++) {
+                int tileId = cellTiles[cellIndex(ax, ay)];
+                if (tileId == NO_TILE) continue;
+                for (int zoneId : tileZones[tileId]) {
+                    if (zoneTypes[zoneId] == MEADOW && areaRoot(zoneId) == root) {
+                        animals += meadowAnimals[zoneId];
+                        if (cancel) set(MEADOW_ANIMALS, zoneId, 0);
+                    }
+                }
+            }
+        }
+        return animals;
+    }
+
+    /**
+     * Moves to the occupation of the last placed tile, or finishes the turn if it cannot be occupied.
+     */
+    private void finishTurnIfOccupationImpossible() {
+        if (tilePlacers[registers[LAST_TILE]] == -1 || occupiableZones() == 0) {
+            finishTurn();
+        } else {
+            set(REGISTERS, NEXT_ACTION, GameState.Action.OCCUPY_TILE.ordinal());
+        }
+    }
+
+    /**
+     * Ends the turn of the current player : scores the forests and rivers closed by the last placed tile,
+     * removes their gatherers and fishers, then grants a menhir turn or draws the tile of the next player,
+     * or ends the game.
+     */
+    private void finishTurn() {
+        int lastTile = registers[LAST_TILE];
+        int[] closedForests = new int[Direction.COUNT];
+        int[] closedRivers = new int[Direction.COUNT];
+        int closedForestCount = 0;
+        int closedRiverCount = 0;
+        boolean menhirForest = false;
+
+        for (int zoneId : tileZones[lastTile]) {
+            int type = zoneTypes[zoneId];
+            if (type != FOREST && type != RIVER) continue;
+            int root = areaRoot(zoneId);
+            if (areaOpenConnections[root] != 0) continue;
+            if (type == FOREST) {
+                if (contains(closedForests, closedForestCount, root)) continue;
+                closedForests[closedForestCount++] = root;
+                menhirForest |= scoreClosedForest(root);
+            } else {
+                if (contains(closedRivers, closedRiverCount, root)) continue;
+                closedRivers[closedRiverCount++] = root;
+                scoreClosedRiver(root);
+            }
+        }
+
+        //the menhir deck is only drawn if a forest with a menhir was closed by a normal tile
+        int menhirTop = menhirForest && tiles[lastTile].kind() != Tile.Kind.MENHIR
+                ? firstPlaceableIndex(menhirDeck, registers[MENHIR_TOP])
+                : menhirDeck.length;
+
+        for (int i = 0; i < closedForestCount; i++) removePawnsOf(closedForests[i]);
+        for (int i = 0; i < closedRiverCount; i++) removePawnsOf(closedRivers[i]);
+
+        if (menhirTop < menhirDeck.length) {
+            set(REGISTERS, TILE_TO_PLACE, menhirDeck[menhirTop].id());
+            set(REGISTERS, MENHIR_TOP, menhirTop + 1);
+            set(REGISTERS, NEXT_ACTION, GameState.Action.PLACE_TILE.ordinal());
+            return;
+        }
+
+        set(REGISTERS, PLAYER, (registers[PLAYER] + 1) % players.length);
+        int normalTop = registers[NORMAL_TOP] < normalDeck.length
+                ? firstPlaceableIndex(normalDeck, registers[NORMAL_TOP])
+                : normalDeck.length;
+        set(REGISTERS, NORMAL_TOP, normalTop);
+        if (normalTop == normalDeck.length) {
+            set(REGISTERS, TILE_TO_PLACE, NO_TILE);
+            set(REGISTERS, NEXT_ACTION, GameState.Action.END_GAME.ordinal());
+            scoreFinalAreas();
+        } else {
+            set(REGISTERS, TILE_TO_PLACE, normalDeck[normalTop].id());
+            set(REGISTERS, NORMAL_TOP, normalTop + 1);
+            set(REGISTERS, NEXT_ACTION, GameState.Action.PLACE_TILE.ordinal());
+        }
+    }
+
+    /**
+     * Scores the given closed forest area, if it is occupied.
+     *
+     * @param root the root of the forest area
+     * @return true if the forest has a menhir, false otherwise
+     */
+    private boolean scoreClosedForest(int root) {
+        mark++;
+        int tileCount = 0;
+        int mushroomGroupCount = 0;
+        boolean hasMenhir = false;
+        int zoneId = root;
+        do {
+            if (tileMarks[Zone.tileId(zoneId)] != mark) {
+                tileMarks[Zone.tileId(zoneId)] = mark;
+                tileCount++;
+            }
+            if (zoneValues[zoneId] == Zone.Forest.Kind.WITH_MUSHROOMS.ordinal()) mushroomGroupCount++;
+            if (zoneValues[zoneId] == Zone.Forest.Kind.WITH_MENHIR.ordinal()) hasMenhir = true;
+            zoneId = areaNext[zoneId];
+        } while (zoneId != root);
+        if (areaOccupants[root] != 0) addPoints(majority(areaOccupants[root]), Points.forClosedForest(tileCount, mushroomGroupCount));
+        return hasMenhir;
+    }
+
+    /**
+     * Scores the given closed river area, if it is occupied : the fish of a lake count once.
+     *
+     * @param root the root of the river area
+     */
+    private void scoreClosedRiver(int root) {
+        if (areaOccupants[root] == 0) return;
+        mark++;
+        int tileCount = 0;
+        int fishCount = 0;
+        int zoneId = root;
+        do {
+            if (tileMarks[Zone.tileId(zoneId)] != mark) {
+                tileMarks[Zone.tileId(zoneId)] = mark;
+                tileCount++;
+            }
+            fishCount += zoneValues[zoneId];
+            int lake = zoneLakes[zoneId];
+            if (lake != NO_ZONE && zoneMarks[lake] != mark) {
+                zoneMarks[lake] = mark;
+                fishCount += zoneValues[lake];
+            }
+            zoneId = areaNext[zoneId];
+        } while (zoneId != root);
+        addPoints(majority(areaOccupants[root]), Points.forClosedRiver(tileCount, fishCount));
+    }
+
+    /**
+     * Removes the pawns of the given area from the board.
+     *
+     * @param root the root of the area
+     */
+    private void removePawnsOf(int root) {
+        int zoneId = root;
+        do {
+            int tileId = Zone.tileId(zoneId);
+            int occupant = tileOccupants[tileId];
+            if (isPawn(occupant) && tileId * LOCAL_ID_COUNT + (occupant & 0xF) == zoneId) {
+                set(TILE_OCCUPANTS, tileId, NO_OCCUPANT);
+                int countIndex = tilePlacers[tileId] * OCCUPANT_KIND_COUNT + PAWN;
+                set(OCCUPANT_COUNTS, countIndex, occupantCounts[countIndex] - 1);
+            }
+            zoneId = areaNext[zoneId];
+        } while (zoneId != root);
+        set(AREA_OCCUPANTS, root, 0);
+    }
+
+    /**
+     * Scores the meadows then the river systems of the board at the end of the game,
+     * following {@link FinalScoring#breakdown(Board)}.
+     */
+    private void scoreFinalAreas() {
+        for (int tileId = 0; tileId < tiles.length; tileId++) {
+            if (tileCells[tileId] == NO_CELL) continue;
+            for (int zoneId : tileZones[tileId]) {
+                int type = zoneTypes[zoneId];
+                if (type == MEADOW && areaParents[zoneId] == zoneId && areaOccupants[zoneId] != 0) scoreFinalMeadow(zoneId);
+                if ((type == RIVER || type == LAKE) && systemParents[zoneId] == zoneId && systemOccupants[zoneId] != 0)
+                    scoreFinalRiverSystem(zoneId);
+            }
+        }
+    }
+
+    /**
+     * Scores the given occupied meadow area at the end of the game : its pit trap, if any, then the meadow itself.
+     * The smilodons cancel the deer, the ones furthest from the pit trap first, unless the meadow has a wild fire.
+     *
+     * @param root the root of the meadow area
+     */
+    private void scoreFinalMeadow(int root) {
+        int animals = 0;
+        int pitTrap = NO_ZONE;
+        boolean hasWildFire = false;
+        int zoneId = root;
+        do {
+            animals += meadowAnimals[zoneId];
+            if (zonePowers[zoneId] == Zone.SpecialPower.PIT_TRAP.ordinal() && pitTrap == NO_ZONE) pitTrap = zoneId;
+            if (zonePowers[zoneId] == Zone.SpecialPower.WILD_FIRE.ordinal()) hasWildFire = true;
+            zoneId = areaNext[zoneId];
+        } while (zoneId != root);
+
+        int scorers = majority(areaOccupants[root]);
+        int mammoths = animalCount(animals, Animal.Kind.MAMMOTH);
+        int aurochs = animalCount(animals, Animal.Kind.AUROCHS);
+        int deer = animalCount(animals, Animal.Kind.DEER);
+        int tigers = hasWildFire ? 0 : animalCount(animals, Animal.Kind.TIGER);
+        if (pitTrap == NO_ZONE) {
+            addPoints(scorers, Points.forMeadow(mammoths, aurochs, deer - Math.min(tigers, deer)));
+            return;
+        }
+
+        int adjacent = adjacentAnimals(tileCells[Zone.tileId(pitTrap)], root, false);
+        int adjacentDeer = animalCount(adjacent, Animal.Kind.DEER);
+        int farDeer = deer - adjacentDeer;
+        int cancelledAdjacentDeer = Math.min(Math.max(tigers - farDeer, 0), adjacentDeer);
+        int cancelledFarDeer = Math.min(tigers, farDeer);
+        addPoints(scorers, Points.forMeadow(animalCount(adjacent, Animal.Kind.MAMMOTH), animalCount(adjacent, Animal.Kind.AUROCHS), adjacentDeer - cancelledAdjacentDeer));
+        addPoints(scorers, Points.forMeadow(mammoths, aurochs, deer - cancelledFarDeer - cancelledAdjacentDeer));
+    }
+
+    /**
+     * Scores the given occupied river system at the end of the game : its raft, if any, then its fish.
+     *
+     * @param root the root of the river system
+     */
+    private void scoreFinalRiverSystem(int root) {
+        int lakeCount = 0;
+        int fishCount = 0;
+        boolean hasRaft = false;
+        int zoneId = root;
+        do {
+            if (zoneTypes[zoneId] == LAKE) lakeCount++;
+            if (zonePowers[zoneId] == Zone.SpecialPower.RAFT.ordinal()) hasRaft = true;
+            fishCount += zoneValues[zoneId];
+            zoneId = systemNext[zoneId];
+        } while (zoneId != root);
+        int scorers = majority(systemOccupants[root]);
+        if (hasRaft) addPoints(scorers, Points.forRaft(lakeCount));
+        addPoints(scorers, Points.forRiverSystem(fishCount));
+    }
+
+    /**
+     * Returns the number of lakes of the given river system.
+     *
+     * @param root the root of the river system
+     * @return the number of lakes
+     */
+    private int lakeCount(int root) {
+        int lakeCount = 0;
+        int zoneId = root;
+        do {
+            if (zoneTypes[zoneId] == LAKE) lakeCount++;
+            zoneId = systemNext[zoneId];
+        } while (zoneId != root);
+        return lakeCount;
+    }
+
+    /**
+     * Returns the bits of the local ids of the zones of the last placed tile which can be occupied by its placer,
+     * the bits of the pawns in the low half and the ones of the huts in the high half, like {@link MoveGenerator}.
+     *
+     * @return the bits of the zones which can be occupied
+     */
+    private int occupiableZones() {
+        int tileId = registers[LAST_TILE];
+        int player = tilePlacers[tileId];
+        boolean canPlacePawn = occupantCounts[player * OCCUPANT_KIND_COUNT + PAWN] < Occupant.occupantsCount(Occupant.Kind.PAWN);
+        boolean canPlaceHut = occupantCounts[player * OCCUPANT_KIND_COUNT + HUT] < Occupant.occupantsCount(Occupant.Kind.HUT);
+        int base = tileId * LOCAL_ID_COUNT;
+        int zones = 0;
+        for (int side = 0; side < Direction.COUNT; side++) {
+            int code = sideCodes[tileId * Direction.COUNT + side];
+            if ((code & 0b11) != Tile.RIVER_SIDE) {
+                zones |= freeZone(base + (code >>> 4 & 0xF), canPlacePawn);
+                continue;
+            }
+            int river = base + (code >>> 8 & 0xF);
+            zones |= freeZone(base + (code >>> 4 & 0xF), canPlacePawn) | freeZone(base + (code >>> 12 & 0xF), canPlacePawn)
+                    | freeZone(river, canPlacePawn);
+            //the hut of a river flowing into a lake is placed on the lake
+            if (canPlaceHut && systemOccupants[systemRoot(river)] == 0)
+                zones |= 1 << HUT_SHIFT + Zone.localId(zoneLakes[river] != NO_ZONE ? zoneLakes[river] : river);
+        }
+        return zones;
+    }
+
+    /**
+     * Returns the bit of the given forest, meadow or river zone if a pawn can be placed on it.
+     *
+     * @param zoneId       the id of the zone
+     * @param canPlacePawn whether the placer has a pawn left
+     * @return the bit of the zone's local id, or 0
+     */
+    private int freeZone(int zoneId, boolean canPlacePawn) {
+        return canPlacePawn && areaOccupants[areaRoot(zoneId)] == 0 ? 1 << Zone.localId(zoneId) : 0;
+    }
+
+    /**
+     * Writes the occupants of the given kind on the zones of the given local ids.
+     *
+     * @param kind  the ordinal of the kind of the occupants
+     * @param zones the bits of the local ids of the zones
+     * @param moves the array to write the occupants to
+     * @param count the number of moves already written
+     * @return the number of moves written
+     */
+    private static int writeOccupants(int kind, int zones, int[] moves, int count) {
+        for (int localId = 0; localId < LOCAL_ID_COUNT; localId++) {
+            if ((zones & 1 << localId) != 0) moves[count++] = kind << 4 | localId;
+        }
+        return count;
+    }
+
+    /**
+     * Adds the given occupant to the given tile, and to the area or the river system of its zone.
+     *
+     * @param tileId   the id of the tile
+     * @param occupant the occupant, (kind << 4) | local id of its zone
+     */
+    private void addOccupant(int tileId, int occupant) {
+        int player = tilePlacers[tileId];
+        int kind = occupant >>> 4;
+        int zoneId = tileId * LOCAL_ID_COUNT + (occupant & 0xF);
+        set(TILE_OCCUPANTS, tileId, occupant);
+        set(OCCUPANT_COUNTS, player * OCCUPANT_KIND_COUNT + kind, occupantCounts[player * OCCUPANT_KIND_COUNT + kind] + 1);
+        if (kind == PAWN) {
+            int root = areaRoot(zoneId);
+            set(AREA_OCCUPANTS, root, areaOccupants[root] + (1 << player * OCCUPANT_BITS));
+        } else {
+            int root = systemRoot(zoneId);
+            set(SYSTEM_OCCUPANTS, root, systemOccupants[root] + (1 << player * OCCUPANT_BITS));
+        }
+    }
+
+    /**
+     * Removes the pawn of the given tile from the tile and from the area of its zone.
+     *
+     * @param tileId the id of the tile
+     */
+    private void removeOccupant(int tileId) {
+        int player = tilePlacers[tileId];
+        int root = areaRoot(tileId * LOCAL_ID_COUNT + (tileOccupants[tileId] & 0xF));
+        set(TILE_OCCUPANTS, tileId, NO_OCCUPANT);
+        set(OCCUPANT_COUNTS, player * OCCUPANT_KIND_COUNT + PAWN, occupantCounts[player * OCCUPANT_KIND_COUNT + PAWN] - 1);
+        set(AREA_OCCUPANTS, root, areaOccupants[root] - (1 << player * OCCUPANT_BITS));
+    }
+
+    /**
+     * Returns the id of the tile of the pawn of the given index, the pawns being sorted by tile id.
+     *
+     * @param pawnIndex the index of the pawn
+     * @return the id of the tile, or {@code NO_TILE} if there is no such pawn
+     */
+    private int tileWithPawn(int pawnIndex) {
+        int remaining = pawnIndex;
+        for (int tileId = 0; tileId < tiles.length && remaining >= 0; tileId++) {
+            if (isPawn(tileOccupants[tileId]) && remaining-- == 0) return tileId;
+        }
+        return NO_TILE;
+    }
+
+    /**
+     * Writes the legal placements of the tile to place at the beginning of the given array,
+     * sorted by fringe index then rotation.
+     *
+     * @param moves the array to write the placements to
+     * @return the number of placements written
+     */
+    private int generatePlacements(int[] moves) {
+        int sideKinds = tileSideKinds[registers[TILE_TO_PLACE]];
+        int count = 0;
+        int fringeIndex = 0;
+        //the fringe sorted by x then y is enumerated column by column around the placed tiles
+        for (int x = Math.max(registers[MIN_X] - 1, -REACH); x <= Math.min(registers[MAX_X] + 1, REACH); x++) {
+            for (int y = Math.max(registers[MIN_Y] - 1, -REACH); y <= Math.min(registers[MAX_Y] + 1, REACH); y++) {
+                int cell = cellIndex(x, y);
+                int required = requiredSideKinds[cell];
+                if (cellTiles[cell] != NO_TILE || required == 0) continue;
+                for (int rotation = 0; rotation < Rotation.COUNT; rotation++) {
+                    if (fits(Tile.rotatedSideKinds(sideKinds, Rotation.ALL.get(rotation)), required))
+                        moves[count++] = fringeIndex << 2 | rotation;
+                }
+                fringeIndex++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the cell of the given index in the fringe sorted by x then y.
+     *
+     * @param fringeIndex the index in the fringe
+     * @return the index of the cell, or {@code NO_CELL} if the fringe is smaller
+     */
+    private int fringeCell(int fringeIndex) {
+        int remaining = fringeIndex;
+        for (int x = Math.max(registers[MIN_X] - 1, -REACH); x <= Math.min(registers[MAX_X] + 1, REACH); x++) {
+            for (int y = Math.max(registers[MIN_Y] - 1, -REACH); y <= Math.min(registers[MAX_Y] + 1, REACH); y++) {
+                int cell = cellIndex(x, y);
+                if (cellTiles[cell] == NO_TILE && requiredSideKinds[cell] != 0 && remaining-- == 0) return cell;
+            }
+        }
+        return NO_CELL;
+    }
+
+    /**
+     * Returns the index of the first tile of the given deck, from the given index, which can be placed on the board.
+     *
+     * @param deck  the deck
+     * @param start the index of its top tile
+     * @return the index of the first placeable tile, or the size of the deck if there is none
+     */
+    private int firstPlaceableIndex(Tile[] deck, int start) {
+        int index = start;
+        while (index < deck.length && !couldPlace(tileSideKinds[deck[index].id()])) index++;
+        return index;
+    }
+
+    /**
+     * Checks if a tile of the given side kinds can be placed somewhere in the fringe, in any rotation.
+     *
+     * @param sideKinds the packed side kinds of the unrotated tile
+     * @return true if the tile can be placed, false otherwise
+     */
+    private boolean couldPlace(int sideKinds) {
+        for (int x = Math.max(registers[MIN_X] - 1, -REACH); x <= Math.min(registers[MAX_X] + 1, REACH); x++) {
+            for (int y = Math.max(registers[MIN_Y] - 1, -REACH); y <= Math.min(registers[MAX_Y] + 1, REACH); y++) {
+                int cell = cellIndex(x, y);
+                int required = requiredSideKinds[cell];
+                if (cellTiles[cell] != NO_TILE || required == 0) continue;
+                for (Rotation rotation : Rotation.ALL) {
+                    if (fits(Tile.rotatedSideKinds(sideKinds, rotation), required)) return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the code of the side of the given placed tile facing the given direction.
+     *
+     * @param tileId    the id of the tile
+     * @param rotation  the ordinal of its rotation
+     * @param direction the ordinal of the direction
+     * @return the code of the side
+     */
+    private int sideCode(int tileId, int rotation, int direction) {
+        return sideCodes[tileId * Direction.COUNT + (direction + Rotation.COUNT - rotation) % Rotation.COUNT];
+    }
+
+    /**
+     * Makes the given zone a singleton of the union-find whose arrays are given.
+     *
+     * @param parents   the id of the array of the parents
+     * @param sizes     the id of the array of the sizes
+     * @param occupants the id of the array of the occupants
+     * @param next      the id of the array of the cyclic lists
+     * @param zoneId    the id of the zone
+     */
+    private void addSingleton(int parents, int sizes, int occupants, int next, int zoneId) {
+        set(parents, zoneId, zoneId);
+        set(sizes, zoneId, 1);
+        set(occupants, zoneId, 0);
+        set(next, zoneId, zoneId);
+    }
+
+    /**
+     * Connects the forest, meadow or river areas of the given zones, like {@link Area#connectTo(Area)} does.
+     *
+     * @param zoneId1 the id of the first zone
+     * @param zoneId2 the id of the second zone
+     */
+    private void unionAreas(int zoneId1, int zoneId2) {
+        int root1 = areaRoot(zoneId1);
+        int root2 = areaRoot(zoneId2);
+        if (root1 == root2) {
+            set(AREA_OPEN_CONNECTIONS, root1, areaOpenConnections[root1] - 2);
+            return;
+        }
+        int kept = areaSizes[root1] >= areaSizes[root2] ? root1 : root2;
+        int merged = kept == root1 ? root2 : root1;
+        set(AREA_OPEN_CONNECTIONS, kept, areaOpenConnections[kept] + areaOpenConnections[merged] - 2);
+        set(AREA_OCCUPANTS, kept, areaOccupants[kept] + areaOccupants[merged]);
+        link(AREA_PARENTS, AREA_SIZES, AREA_NEXT, kept, merged);
+    }
+
+    /**
+     * Connects the river systems of the given water zones.
+     *
+     * @param zoneId1 the id of the first zone
+     * @param zoneId2 the id of the second zone
+     */
+    private void unionSystems(int zoneId1, int zoneId2) {
+        int root1 = systemRoot(zoneId1);
+        int root2 = systemRoot(zoneId2);
+        if (root1 == root2) return;
+        int kept = systemSizes[root1] >= systemSizes[root2] ? root1 : root2;
+        int merged = kept == root1 ? root2 : root1;
+        set(SYSTEM_OCCUPANTS, kept, systemOccupants[kept] + systemOccupants[merged]);
+        link(SYSTEM_PARENTS, SYSTEM_SIZES, SYSTEM_NEXT, kept, merged);
+    }
+
+    /**
+     * Links the given root under the other one, and splices their cyclic lists of zones.
+     *
+     * @param parents the id of the array of the parents
+     * @param sizes   the id of the array of the sizes
+     * @param next    the id of the array of the cyclic lists
+     * @param kept    the root which stays a root
+     * @param merged  the root linked under the kept one
+     */
+    private void link(int parents, int sizes, int next, int kept, int merged) {
+        int[] nextZones = trackedArrays[next];
+        int keptNext = nextZones[kept];
+        set(parents, merged, kept);
+        set(sizes, kept, trackedArrays[sizes][kept] + trackedArrays[sizes][merged]);
+        set(next, kept, nextZones[merged]);
+        set(next, merged, keptNext);
+    }
+
+    /**
+     * Returns the root of the forest, meadow or river area of the given zone.
+     *
+     * @param zoneId the id of the zone
+     * @return the id of the root zone
+     */
+    private int areaRoot(int zoneId) {
+        int root = zoneId;
+        while (areaParents[root] != root) root = areaParents[root];
+        return root;
+    }
+
+    /**
+     * Returns the root of the river system of the given water zone.
+     *
+     * @param zoneId the id of the zone
+     * @return the id of the root zone
+     */
+    private int systemRoot(int zoneId) {
+        int root = zoneId;
+        while (systemParents[root] != root) root = systemParents[root];
+        return root;
+    }
+
+    /**
+     * Adds the given points to the given players.
+     *
+     * @param scorers the mask of the players, one bit per color ordinal
+     * @param gained  the points
+     */
+    private void addPoints(int scorers, int gained) {
+        if (gained == 0) return;
+        for (int player = 0; player < COLOR_COUNT; player++) {
+            if ((scorers & 1 << player) != 0) set(POINTS, player, points[player] + gained);
+        }
+    }
+
+    /**
+     * Records the given move on the stack of the moves made.
+     *
+     * @param move the move
+     */
+    private void pushPly(int move) {
+        if (depth == plyMoves.length) {
+            plyMoves = Arrays.copyOf(plyMoves, 2 * depth);
+            plyTrailSizes = Arrays.copyOf(plyTrailSizes, 2 * depth);
+        }
+        plyTrailSizes[depth] = trailSize;
+        plyMoves[depth++] = move;
+    }
+
+    /**
+     * Writes the given value in the given tracked array, recording the value it replaces on the trail.
+     *
+     * @param array the id of the array
+     * @param index the index in the array
+     * @param value the value
+     */
+    private void set(int array, int index, int value) {
+        int[] values = trackedArrays[array];
+        if (values[index] == value) return;
+        if (trailSize + 3 > trail.length) trail = Arrays.copyOf(trail, 2 * trail.length);
+        trail[trailSize] = array;
+        trail[trailSize + 1] = index;
+        trail[trailSize + 2] = values[index];
+        trailSize += 3;
+        values[index] = value;
+    }
+
+    /**
+     * Returns the mask of the majority occupants of an area.
+     *
+     * @param occupants the packed occupant counts of the area, 4 bits per color ordinal
+     * @return the mask of the colors with the most occupants, one bit per color ordinal, or 0 if there is none
+     */
+    private static int majority(int occupants) {
+        int max = 0;
+        for (int player = 0; player < COLOR_COUNT; player++) max = Math.max(max, occupants >>> player * OCCUPANT_BITS & OCCUPANT_MASK);
+        int scorers = 0;
+        for (int player = 0; max > 0 && player < COLOR_COUNT; player++) {
+            if ((occupants >>> player * OCCUPANT_BITS & OCCUPANT_MASK) == max) scorers |= 1 << player;
+        }
+        return scorers;
+    }
+
+    private static int animalCount(int animals, Animal.Kind kind) {
+        return animals >>> kind.ordinal() * ANIMAL_BITS & ANIMAL_MASK;
+    }
+
+    private static boolean isPawn(int occupant) {
+        return occupant != NO_OCCUPANT && occupant >>> 4 == PAWN;
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) if (values[i] == value) return true;
+        return false;
+    }
+
+    private static int cellIndex(int x, int y) {
+        return (y + REACH) * BOARD_SIZE + (x + REACH);
+    }
+
+    private static boolean fits(int sideKinds, int requiredSideKinds) {
+        //mask with both bits set for every side that has a neighbor
+        int constrainedSides = (requiredSideKinds | requiredSideKinds >>> 1) & 0b01010101;
+        constrainedSides |= constrainedSides << 1;
+        return (sideKinds & constrainedSides) == requiredSideKinds;
+    }
+}
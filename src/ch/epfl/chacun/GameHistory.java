@@ -0,0 +1,222 @@
+package ch.epfl.chacun;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mutable history of a game, giving undo and redo over all its intermediate states within a memory budget.
+ * <p>
+ * The history keeps the Base32 actions played (see {@link ActionEncoder}) and the state reached after each of them.
+ * Successive states share their board rows, zone partitions and message lists, so that keeping a state only costs
+ * what its action modified. Beyond the budget, the kept states furthest from the current one are evicted,
+ * except the anchors kept every {@code anchorInterval} actions : an evicted state is rebuilt by replaying
+ * at most {@code anchorInterval - 1} actions from the anchor preceding it.
+ * <p>
+ * Playing an action after undoing some replaces the undone actions, like in any editor.
+ *
+ * @author Ilyes Rouibi (372420)
+ * @author Weifeng Ding (379902)
+ */
+public final class GameHistory {
+    /**
+     * The default number of states kept, besides the anchors
+     */
+    public static final int DEFAULT_BUDGET = 64;
+    /**
+     * The default number of actions between two anchors
+     */
+    public static final int DEFAULT_ANCHOR_INTERVAL = 16;
+
+    private final int budget;
+    private final int anchorInterval;
+    private final List<String> actions = new ArrayList<>();
+    //the state after k actions, or null if it was evicted
+    private final List<GameState> states = new ArrayList<>();
+    private int keptStateCount;
+    private int position;
+
+    /**
+     * Constructs the history of a game starting from the given state.
+     *
+     * @param startState     the state before the first action
+     * @param budget         the number of states kept besides the anchors and the last state reached
+     * @param anchorInterval the number of actions between two anchors, which are never evicted
+     * @throws IllegalArgumentException if the budget is negative or the interval is not positive
+     */
+    public GameHistory(GameState startState, int budget, int anchorInterval) {
+        Preconditions.checkArgument(budget >= 0 && anchorInterval > 0);
+        this.budget = budget;
+        this.anchorInterval = anchorInterval;
+        states.add(startState);
+    }
+
+    /**
+     * Constructs the history of a game starting from the given state, with the default budget and anchor interval.
+     *
+     * @param startState the state before the first action
+     */
+    public GameHistory(GameState startState) {
+        this(startState, DEFAULT_BUDGET, DEFAULT_ANCHOR_INTERVAL);
+    }
+
+    /**
+     * Returns the current state.
+     *
+     * @return the current state
+     */
+    public GameState current() {
+        return stateAt(position);
+    }
+
+    /**
+     * Returns the number of actions played to reach the current state.
+     *
+     * @return the position of the current state
+     */
+    public int position() {
+        return position;
+    }
+
+    /**
+     * Returns the number of actions of the history, undone ones included.
+     *
+     * @return the number of actions
+     */
+    public int length() {
+        return actions.size();
+    }
+
+    /**
+     * Returns the actions played to reach the current state.
+     *
+     * @return the actions up to the current state
+     */
+    public List<String> actions() {
+        return List.copyOf(actions.subList(0, position));
+    }
+
+    /**
+     * Returns the number of states currently kept, anchors included.
+     *
+     * @return the number of kept states
+     */
+    public int keptStateCount() {
+        return keptStateCount + (actions.size() / anchorInterval) + 1;
+    }
+
+    /**
+     * Adds the given action, played from the current state, and makes its resulting state the current one.
+     * The actions undone before are forgotten.
+     *
+     * @param stateAction the action and the state it leads to
+     * @return the new current state
+     */
+    public GameState push(ActionEncoder.StateAction stateAction) {
+        while (actions.size() > position) {
+            actions.removeLast();
+            GameState removedState = states.removeLast();
+            if (removedState != null && !isAnchor(states.size())) keptStateCount--;
+        }
+        actions.add(stateAction.actionB32());
+        position++;
+        keep(position, stateAction.gameState());
+        return stateAction.gameState();
+    }
+
+    /**
+     * Checks if an action can be undone.
+     *
+     * @return true if the current state is not the starting one
+     */
+    public boolean canUndo() {
+        return position > 0;
+    }
+
+    /**
+     * Checks if an undone action can be replayed.
+     *
+     * @return true if there is an undone action
+     */
+    public boolean canRedo() {
+        return position < actions.size();
+    }
+
+    /**
+     * Undoes the last action.
+     *
+     * @return the new current state
+     * @throws IllegalArgumentException if there is no action to undo
+     */
+    public GameState undo() {
+        Preconditions.checkArgument(canUndo());
+        position--;
+        return current();
+    }
+
+    /**
+     * Replays the last undone action.
+     *
+     * @return the new current state
+     * @throws IllegalArgumentException if there is no action to redo
+     */
+    public GameState redo() {
+        Preconditions.checkArgument(canRedo());
+        position++;
+        return current();
+    }
+
+    /**
+     * Returns the state after the given number of actions, rebuilding it from the preceding anchor if it was evicted.
+     *
+     * @param k the number of actions, between 0 and {@link #length()}
+     * @return the state after k actions
+     * @throws IllegalArgumentException if k is out of bounds
+     */
+    public GameState stateAt(int k) {
+        Preconditions.checkArgument(k >= 0 && k <= actions.size());
+        GameState gameState = states.get(k);
+        if (gameState != null) return gameState;
+
+        int j = k;
+        while (states.get(j) == null) j--;
+        gameState = states.get(j);
+        for (int i = j; i < k; i++) {
+            gameState = ActionEncoder.decodeAndApply(gameState, actions.get(i)).gameState();
+        }
+        keep(k, gameState);
+        return gameState;
+    }
+
+    /**
+     * Keeps the given state as the one after k actions, then evicts the states beyond the budget.
+     *
+     * @param k         the number of actions
+     * @param gameState the state after k actions
+     */
+    private void keep(int k, GameState gameState) {
+        while (states.size() <= k) states.add(null);
+        if (states.set(k, gameState) == null && !isAnchor(k)) keptStateCount++;
+
+        while (keptStateCount > budget) {
+            //evicts the kept state furthest from the current one, never the one just kept
+            int furthest = -1;
+            for (int i = 0; i < states.size(); i++) {
+                if (i != k && !isAnchor(i) && states.get(i) != null
+                        && (furthest < 0 || Math.abs(i - position) > Math.abs(furthest - position))) furthest = i;
+            }
+            if (furthest < 0) break;
+            states.set(furthest, null);
+            keptStateCount--;
+        }
+    }
+
+    /**
+     * Checks if the state after the given number of actions is an anchor, which is never evicted.
+     *
+     * @param k the number of actions
+     * @return true if the state is an anchor
+     */
+    private boolean isAnchor(int k) {
+        return k % anchorInterval == 0;
+    }
+}
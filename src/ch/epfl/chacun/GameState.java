@@ -81,6 +81,35 @@ public record GameState(List<PlayerColor> players, TileDecks tileDecks, Tile til
         return players.getFirst();
     }
 
+    /**
+     * Returns the 64-bit Zobrist key of the game state, combining the key of the board with the tile to place,
+     * the sizes of the decks, the current player and the next action.
+     * Equal game states have equal keys, which makes it suited to deduplicate game states.
+     *
+     * @return the Zobrist key of the game state.
+     */
+    public long zobristKey() {
+        return Zobrist.gameStateKey(this);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GameState that)) return false;
+        return zobristKey() == that.zobristKey()
+                && nextAction == that.nextAction
+                && players.equals(that.players)
+                && Objects.equals(tileToPlace, that.tileToPlace)
+                && board.equals(that.board)
+                && tileDecks.equals(that.tileDecks)
+                && messageBoard.equals(that.messageBoard);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(zobristKey());
+    }
+
     /**
      * Returns the number of free occupants of the given kind belonging to the given player.
      * Free occupants are those not currently placed on the game board
@@ -293,6 +322,74 @@ public record GameState(List<PlayerColor> players, TileDecks tileDecks, Tile til
                 , messageBoard);
     }
 
+    /**
+     * Returns the outcome of the turn of the current player if the given occupant (or none if null)
+     * is placed on the last placed tile, without changing the game state.
+     *
+     * @param occupant The occupant to be added, or null.
+     * @return The outcome of the turn.
+     * @throws IllegalArgumentException If the next action is not OCCUPY_TILE.
+     */
+    public TurnOutcome turnOutcome(Occupant occupant) {
+        Preconditions.checkArgument(nextAction == Action.OCCUPY_TILE);
+        GameState occupiedGameState = occupant == null
+                ? this
+                : new GameState(players, tileDecks, tileToPlace, board.withOccupant(occupant), nextAction, messageBoard);
+        return occupiedGameState.turnEnd().outcome();
+    }
+
+    /**
+     * The end of the turn of the current player : its outcome, and the tile decks whose menhir deck is drawn until
+     * its top tile is placeable if a menhir turn is granted, so that the menhir deck is only searched once.
+     *
+     * @param outcome     The outcome of the end of the turn.
+     * @param menhirDecks The tile decks drawn until a placeable menhir tile, or null if no menhir turn is granted.
+     */
+    private record TurnEnd(TurnOutcome outcome, TileDecks menhirDecks) {
+    }
+
+    /**
+     * Computes the end of the turn of the current player, the last placed tile being occupied :
+     * the closed areas are computed only once, as well as the draw deciding whether a menhir turn is granted.
+     *
+     * @return The end of the turn.
+     */
+    private TurnEnd turnEnd() {
+        PlacedTile lastPlacedTile = board.lastPlacedTile();
+        Set<Area<Zone.Forest>> closedForests = board.forestsClosedByLastTile();
+        Set<Area<Zone.River>> closedRivers = board.riversClosedByLastTile();
+        MessageBoard scoredMessageBoard = messageBoard;
+        Set<Occupant> returnedOccupants = new HashSet<>();
+
+        Area<Zone.Forest> menhirForest = null;
+        for (Area<Zone.Forest> closedForestArea : closedForests) {
+            scoredMessageBoard = scoredMessageBoard.withScoredForest(closedForestArea);
+            returnedOccupants.addAll(board.pawnsIn(closedForestArea));
+            if (Area.hasMenhir(closedForestArea)) menhirForest = closedForestArea;
+        }
+        //the menhir deck is only drawn if a forest with a menhir was closed by a normal tile
+        TileDecks menhirDecks = null;
+        if (menhirForest != null && lastPlacedTile.kind() != Tile.Kind.MENHIR)
+            menhirDecks = tileDecks.withTopTileDrawnUntilPlaceable(Tile.Kind.MENHIR, board);
+        if (menhirDecks == null || menhirDecks.deckSize(Tile.Kind.MENHIR) == 0) {
+            menhirForest = null;
+            menhirDecks = null;
+        }
+        for (Area<Zone.River> riverArea : closedRivers) {
+            scoredMessageBoard = scoredMessageBoard.withScoredRiver(riverArea);
+            returnedOccupants.addAll(board.pawnsIn(riverArea));
+        }
+        if (menhirForest != null)
+            scoredMessageBoard = scoredMessageBoard.withClosedForestWithMenhir(currentPlayer(), menhirForest);
+
+        return new TurnEnd(new TurnOutcome(currentPlayer(),
+                closedForests,
+                closedRivers,
+                returnedOccupants,
+                scoredMessageBoard.eventsSince(messageBoard.size()),
+                menhirForest), menhirDecks);
+    }
+
     /**
      * Ends the turn of the current player, calculate the points earned in the turn and makes decision of who should be the next player.
      *
@@ -307,36 +404,15 @@ public record GameState(List<PlayerColor> players, TileDecks tileDecks, Tile til
         Action updatedNextAction = Action.PLACE_TILE;
         MessageBoard updatedMessageBoard = messageBoard;
 
-        PlacedTile lastPlacedTile = board.lastPlacedTile();
-
-        boolean canPlayAgain = false;
-        Area<Zone.Forest> closedForestAreaWithMenhir = null;
-        if (!board.forestsClosedByLastTile().isEmpty()) {
-            for (Area<Zone.Forest> closedForestArea : board.forestsClosedByLastTile()) {
-                updatedMessageBoard = updatedMessageBoard.withScoredForest(closedForestArea);
-
-                if (Area.hasMenhir(closedForestArea) && lastPlacedTile.kind() != Tile.Kind.MENHIR && !tileDecks.menhirTiles().isEmpty()) {
-                    if (!updatedTileDecks.withTopTileDrawnUntil(Tile.Kind.MENHIR, board::couldPlaceTile).menhirTiles().isEmpty()) {
-                        canPlayAgain = true;
-                        closedForestAreaWithMenhir = closedForestArea;
-                    }
-                }
-            }
-        }
-
-        if (!board.riversClosedByLastTile().isEmpty()) {
-            for (Area<Zone.River> riverArea : board.riversClosedByLastTile()) {
-                updatedMessageBoard = updatedMessageBoard.withScoredRiver(riverArea);
-            }
-        }
-
-        updatedBoard = updatedBoard.withoutGatherersOrFishersIn(board.forestsClosedByLastTile(), board.riversClosedByLastTile());
-
+        TurnEnd turnEnd = turnEnd();
+        TurnOutcome outcome = turnEnd.outcome();
+        boolean canPlayAgain = outcome.menhirTurnGranted();
+        updatedMessageBoard = updatedMessageBoard.withEvents(outcome.events());
+        updatedBoard = updatedBoard.withoutGatherersOrFishersIn(outcome.closedForests(), outcome.closedRivers());
 
         if (canPlayAgain) {
-            updatedMessageBoard = updatedMessageBoard.withClosedForestWithMenhir(currentPlayer(), closedForestAreaWithMenhir);
-
-            updatedTileDecks = updatedTileDecks.withTopTileDrawnUntil(Tile.Kind.MENHIR, updatedBoard::couldPlaceTile);
+            //removing gatherers and fishers does not change which tiles are placeable
+            updatedTileDecks = turnEnd.menhirDecks();
             updatedTileToPlace = updatedTileDecks.topTile(Tile.Kind.MENHIR);
             updatedTileDecks = updatedTileDecks.withTopTileDrawn(Tile.Kind.MENHIR);
 
@@ -365,7 +441,7 @@ public record GameState(List<PlayerColor> players, TileDecks tileDecks, Tile til
                 return updatedGameState.withFinalPointsCounted();
             }
 
-            updatedTileDecks = updatedTileDecks.withTopTileDrawnUntil(Tile.Kind.NORMAL, updatedBoard::couldPlaceTile);
+            updatedTileDecks = updatedTileDecks.withTopTileDrawnUntilPlaceable(Tile.Kind.NORMAL, updatedBoard);
             updatedTileToPlace = updatedTileDecks.topTile(Tile.Kind.NORMAL);
 
             if (updatedTileDecks.normalTiles().isEmpty()) {
@@ -402,95 +478,22 @@ public record GameState(List<PlayerColor> players, TileDecks tileDecks, Tile til
      * @throws IllegalArgumentException If the next action is not END_GAME.
      */
     private GameState withFinalPointsCounted() {
-
-        MessageBoard updatedMessageBoard = messageBoard;
-        Board updatedBoard = board;
-
-        // Compute the points for the meadows
-        Set<Animal> cancelledAnimals = updatedBoard.cancelledAnimals();
-
-        for (Area<Zone.Meadow> meadowArea : board.meadowAreas()) {
-            // Check if there is a PitTrap in the zone
-            if (meadowArea.zoneWithSpecialPower(Zone.SpecialPower.PIT_TRAP) != null) {
-
-                Zone pitTrapZone = meadowArea.zoneWithSpecialPower(Zone.SpecialPower.PIT_TRAP);
-                Area<Zone.Meadow> adjacentMeadow = updatedBoard.adjacentMeadow(board.tileWithId(pitTrapZone.tileId()).pos(), (Zone.Meadow) pitTrapZone);
-
-                // Check if the zone has the WILD_FIRE special power
-                if (meadowArea.zoneWithSpecialPower(Zone.SpecialPower.WILD_FIRE) != null) {
-
-                    // No cancelled deers, call withScoredPitTrap and withScoredMeadow
-                    updatedMessageBoard = updatedMessageBoard.withScoredPitTrap(adjacentMeadow, cancelledAnimals);
-                    updatedMessageBoard = updatedMessageBoard.withScoredMeadow(meadowArea, cancelledAnimals);
-
-                } else {
-                    Set<Animal> animalsInAdjacentMeadow = Area.animals(meadowArea, cancelledAnimals);
-
-                    Map<Animal.Kind, Integer> animalCountMap = countAnimals(animalsInAdjacentMeadow);
-
-                    int smilodonCount = animalCountMap.getOrDefault(Animal.Kind.TIGER, 0);
-
-                    Set<Animal> adjacentDeers = Area.animals(adjacentMeadow, cancelledAnimals)
-                            .stream()
-                            .filter(animal -> animal.kind() == Animal.Kind.DEER)
-                            .collect(Collectors.toSet());
-
-                    Set<Animal> notAdjacentDeers = Area.animals(meadowArea, cancelledAnimals)
-                            .stream()
-                            .filter(animal -> animal.kind() == Animal.Kind.DEER)
-                            .filter(animal -> !adjacentDeers.contains(animal))
-                            .collect(Collectors.toSet());
-
-                    int adjacentDeerCount = adjacentDeers.size();
-                    int notAdjacentDeerCount = notAdjacentDeers.size();
-
-                    Set<Animal> newlyCancelledAnimals = new HashSet<>(cancelledAnimals);
-                    if (smilodonCount >= notAdjacentDeerCount) {
-                        newlyCancelledAnimals.addAll(notAdjacentDeers);
-
-                        int remainingAdjDeerToCancelCount = smilodonCount - notAdjacentDeerCount;
-
-                        newlyCancelledAnimals.addAll(cancelDeers(remainingAdjDeerToCancelCount, adjacentDeerCount, adjacentDeers.iterator()));
-                    } else {
-                        newlyCancelledAnimals.addAll(cancelDeers(smilodonCount, notAdjacentDeerCount, notAdjacentDeers.iterator()));
-                    }
-                    updatedMessageBoard = updatedMessageBoard.withScoredPitTrap(adjacentMeadow, newlyCancelledAnimals);
-                    updatedMessageBoard = updatedMessageBoard.withScoredMeadow(meadowArea, newlyCancelledAnimals);
-                }
-
-            } else {
-                // No PitTrap
-                if (meadowArea.zoneWithSpecialPower(Zone.SpecialPower.WILD_FIRE) != null) {
-                    updatedMessageBoard = updatedMessageBoard.withScoredMeadow(meadowArea, cancelledAnimals);
-
-                } else {
-
-                    Set<Animal> notCancelledYetAnimals = Area.animals(meadowArea, updatedBoard.cancelledAnimals());
-                    Set<Animal> newlyCancelledAnimals = new HashSet<>(updatedBoard.cancelledAnimals());
-                    Map<Animal.Kind, Integer> animalCountMap = countAnimals(notCancelledYetAnimals);
-
-                    int deerCount = animalCountMap.getOrDefault(Animal.Kind.DEER, 0);
-                    int smilodonCount = animalCountMap.getOrDefault(Animal.Kind.TIGER, 0);
-
-                    newlyCancelledAnimals.addAll(cancelDeers(smilodonCount, deerCount, notCancelledYetAnimals.iterator()));
-
-                    updatedBoard = updatedBoard.withMoreCancelledAnimals(newlyCancelledAnimals);
-                    updatedMessageBoard = updatedMessageBoard.withScoredMeadow(meadowArea, newlyCancelledAnimals);
-                }
-            }
-        }
-        // Compute the points for the river systems
-        for (Area<Zone.Water> riverSystemArea : board.riverSystemAreas()) {
-            if (riverSystemArea.zoneWithSpecialPower(Zone.SpecialPower.RAFT) != null) {
-                updatedMessageBoard = updatedMessageBoard.withScoredRaft(riverSystemArea);
-            }
-            updatedMessageBoard = updatedMessageBoard.withScoredRiverSystem(riverSystemArea);
+        // Score the meadows and the river systems area by area, then fold the scores in order
+        List<FinalScoring.AreaScore> areaScores = FinalScoring.breakdown(board);
+
+        List<MessageBoard.Event> events = new ArrayList<>();
+        Set<Animal> cancelledAnimals = new HashSet<>(board.cancelledAnimals());
+        for (FinalScoring.AreaScore areaScore : areaScores) {
+            events.addAll(areaScore.events());
+            cancelledAnimals.addAll(areaScore.cancelledAnimals());
         }
+        Board updatedBoard = board.withMoreCancelledAnimals(cancelledAnimals);
+        MessageBoard updatedMessageBoard = messageBoard.withEvents(events);
 
-        int maxPoints = updatedMessageBoard.points().values().stream().mapToInt(Integer::intValue).max().orElse(0);
+        Map<PlayerColor, Integer> points = updatedMessageBoard.points();
+        int maxPoints = points.values().stream().mapToInt(Integer::intValue).max().orElse(0);
 
-        Set<PlayerColor> topPlayers = updatedMessageBoard
-                .points()
+        Set<PlayerColor> topPlayers = points
                 .entrySet()
                 .stream()
                 .filter(entry -> entry.getValue() == maxPoints)
@@ -514,7 +517,7 @@ public record GameState(List<PlayerColor> players, TileDecks tileDecks, Tile til
      * @param animals The set of animals to count.
      * @return A map associating each kind of animal to the number of animals of that kind in the given set.
      */
-    private Map<Animal.Kind, Integer> countAnimals(Set<Animal> animals) {
+    static Map<Animal.Kind, Integer> countAnimals(Set<Animal> animals) {
         Map<Animal.Kind, Integer> animalCountMap = new HashMap<>();
         for (Animal animal : animals) {
             animalCountMap.merge(animal.kind(), 1, Integer::sum);
@@ -530,7 +533,7 @@ public record GameState(List<PlayerColor> players, TileDecks tileDecks, Tile til
      * @param notCancelledYetAnimals The set of animals to cancel deers from.
      * @return A set of the newly cancelled deers.
      */
-    private Set<Animal> cancelDeers(int deerToCancelCount, int deerCount, Iterator<Animal> notCancelledYetAnimals) {
+    static Set<Animal> cancelDeers(int deerToCancelCount, int deerCount, Iterator<Animal> notCancelledYetAnimals) {
         Set<Animal> newlyCancelledAnimals = new HashSet<>();
         int cancelledDeerCount = 0;
         while (notCancelledYetAnimals.hasNext() && cancelledDeerCount < deerToCancelCount && deerCount > 0) {
@@ -4,27 +4,160 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 /**
- * Record representing the message board.
+ * Immutable class representing the message board.
+ * <p>
+ * The scorings are stored as structured {@link Event}s, in a persistent list to which a new board adds its event
+ * without copying the previous ones. Their texts are only built by the text maker when the messages are read,
+ * once per event, so that the games played without interface never build any text.
+ * The points of the players are totalled as the events are added, so that they are read in constant time.
  *
  * @author Ilyes Rouibi (372420)
  * @author Weifeng Ding (379902)
  */
-public record MessageBoard(TextMaker textMaker, List<Message> messages) {
-    public MessageBoard {
-        messages = List.copyOf(messages);
+public final class MessageBoard {
+    private final TextMaker textMaker;
+    private final Entry lastEntry;
+    //the points of the players indexed by color ordinal, and the mask of the players who scored (possibly 0 points)
+    private final int[] totals;
+    private final int scorerMask;
+    //built lazily, the messages being immutable it can safely be computed twice by concurrent readers
+    private List<Message> messages;
+
+    /**
+     * Constructs a message board with the given text maker and messages.
+     *
+     * @param textMaker The text maker used to build the texts of the messages.
+     * @param messages  The messages of the board.
+     */
+    public MessageBoard(TextMaker textMaker, List<Message> messages) {
+        this.textMaker = textMaker;
+        Entry entry = null;
+        int[] totals = new int[PlayerColor.ALL.size()];
+        int scorerMask = 0;
+        for (Message message : List.copyOf(messages)) {
+            entry = new Entry(entry, null, message);
+            for (PlayerColor scorer : message.scorers()) {
+                totals[scorer.ordinal()] += message.points();
+                scorerMask |= 1 << scorer.ordinal();
+            }
+        }
+        this.lastEntry = entry;
+        this.totals = totals;
+        this.scorerMask = scorerMask;
+    }
+
+    private MessageBoard(TextMaker textMaker, Entry lastEntry, int[] totals, int scorerMask) {
+        this.textMaker = textMaker;
+        this.lastEntry = lastEntry;
+        this.totals = totals;
+        this.scorerMask = scorerMask;
+    }
+
+    /**
+     * Returns the text maker of the board.
+     *
+     * @return The text maker of the board.
+     */
+    public TextMaker textMaker() {
+        return textMaker;
     }
 
     /**
-     * Computes the points earned by each player based on the messages on the message board.
+     * Returns the messages of the board, in the order they were added.
+     * The texts of the messages added since the last call are built by the text maker.
      *
-     * @return A map associating each player with the total number of points they have earned.
+     * @return The messages of the board.
+     */
+    public List<Message> messages() {
+        List<Message> messages = this.messages;
+        if (messages == null) {
+            Message[] array = new Message[size()];
+            for (Entry entry = lastEntry; entry != null; entry = entry.previous) {
+                array[entry.size - 1] = entry.message(textMaker);
+            }
+            messages = List.of(array);
+            this.messages = messages;
+        }
+        return messages;
+    }
+
+    /**
+     * Returns the scoring events of the board, in the order they were added, without building any text.
+     * The messages given to the public constructor have no event.
+     *
+     * @return The events of the board.
+     */
+    public List<Event> events() {
+        List<Event> events = new ArrayList<>();
+        for (Entry entry = lastEntry; entry != null; entry = entry.previous) {
+            if (entry.event != null) events.add(entry.event);
+        }
+        return List.copyOf(events.reversed());
+    }
+
+    /**
+     * Returns the events added after the first given number of messages, in the order they were added.
+     *
+     * @param size The number of messages before the events.
+     * @return The events added after the given number of messages.
+     */
+    List<Event> eventsSince(int size) {
+        List<Event> events = new ArrayList<>();
+        for (Entry entry = lastEntry; entry != null && entry.size > size; entry = entry.previous) {
+            if (entry.event != null) events.add(entry.event);
+        }
+        return events.reversed();
+    }
+
+    /**
+     * Returns a new message board with the given event added, or this board if the event is null.
+     *
+     * @param event The event to add, or null.
+     * @return A new message board with the event added, or this board.
+     */
+    private MessageBoard withEventIfAny(Event event) {
+        return event == null ? this : withEvent(event);
+    }
+
+    /**
+     * Returns a new message board with the given events added, in order.
+     *
+     * @param events The events to add.
+     * @return A new message board with the events added.
+     */
+    MessageBoard withEvents(List<Event> events) {
+        MessageBoard updatedBoard = this;
+        for (Event event : events) updatedBoard = updatedBoard.withEvent(event);
+        return updatedBoard;
+    }
+
+    /**
+     * Returns the number of messages of the board.
+     *
+     * @return The number of messages.
+     */
+    public int size() {
+        return lastEntry == null ? 0 : lastEntry.size;
+    }
+
+    /**
+     * Returns the points earned by each player based on the messages on the message board,
+     * as an unmodifiable view of the running totals of the board.
+     *
+     * @return A map associating each player who scored with the total number of points they have earned.
      */
     public Map<PlayerColor, Integer> points() {
-        Map<PlayerColor, Integer> playerPoints = new HashMap<>();
-        messages.forEach(message ->
-                message.scorers().forEach(scorer ->
-                        playerPoints.merge(scorer, message.points(), Integer::sum)));
-        return playerPoints;
+        return new PointsView();
+    }
+
+    /**
+     * Returns the points earned by the given player, without allocating.
+     *
+     * @param player The player.
+     * @return The total number of points earned by the player (0 if they never scored).
+     */
+    public int pointsOf(PlayerColor player) {
+        return totals[player.ordinal()];
     }
 
     /**
@@ -41,9 +174,7 @@ public record MessageBoard(TextMaker textMaker, List<Message> messages) {
             Set<PlayerColor> forestMajorityOccupants = forest.majorityOccupants();
             int mushroomGroupCount = Area.mushroomGroupCount(forest);
             int points = Points.forClosedForest(forestTileIds.size(), mushroomGroupCount);
-            String text = textMaker.playersScoredForest(forestMajorityOccupants, points, mushroomGroupCount, forestTileIds.size());
-
-            return addMessageAndReturnNewBoard(text, points, forestMajorityOccupants, forestTileIds);
+            return withEvent(new Event(Event.Kind.FOREST, points, Event.mask(forestMajorityOccupants), forestTileIds, mushroomGroupCount, 0));
         }
         return this;
     }
@@ -58,8 +189,7 @@ public record MessageBoard(TextMaker textMaker, List<Message> messages) {
      * @return A new message board reflecting the changes.
      */
     public MessageBoard withClosedForestWithMenhir(PlayerColor player, Area<Zone.Forest> forest) {
-        String text = textMaker.playerClosedForestWithMenhir(player);
-        return addMessageAndReturnNewBoard(text, 0, Set.of(), forest.tileIds());
+        return withEvent(new Event(Event.Kind.CLOSED_FOREST_WITH_MENHIR, 0, Event.mask(Set.of(player)), forest.tileIds(), 0, 0));
     }
 
     /**
@@ -76,9 +206,7 @@ public record MessageBoard(TextMaker textMaker, List<Message> messages) {
             Set<PlayerColor> riverMajorityOccupants = river.majorityOccupants();
             int fishCount = Area.riverFishCount(river);
             int points = Points.forClosedRiver(riverTileIds.size(), fishCount);
-            String text = textMaker.playersScoredRiver(riverMajorityOccupants, points, fishCount, riverTileIds.size());
-
-            return addMessageAndReturnNewBoard(text, points, riverMajorityOccupants, riverTileIds);
+            return withEvent(new Event(Event.Kind.RIVER, points, Event.mask(riverMajorityOccupants), riverTileIds, fishCount, 0));
         }
         return this;
     }
@@ -90,14 +218,14 @@ public record MessageBoard(TextMaker textMaker, List<Message> messages) {
      * @param scorer         The player who placed the hunting trap.
      * @param adjacentMeadow The meadow area adjacent to the hunting trap.
      * @return A new message board reflecting the changes, if any.
+     * @throws IllegalArgumentException if the meadow has more than 65535 animals of a kind.
      */
     public MessageBoard withScoredHuntingTrap(PlayerColor scorer, Area<Zone.Meadow> adjacentMeadow, Set<Animal> cancelledAnimals) {
         Map<Animal.Kind, Integer> animalCountMap = countAnimals(adjacentMeadow, cancelledAnimals);
         int points = calculatePoints(animalCountMap);
 
         if (points > 0) {
-            String text = textMaker.playerScoredHuntingTrap(scorer, points, animalCountMap);
-            return addMessageAndReturnNewBoard(text, points, Set.of(scorer), adjacentMeadow.tileIds());
+            return withEvent(new Event(Event.Kind.HUNTING_TRAP, points, Event.mask(Set.of(scorer)), adjacentMeadow.tileIds(), 0, Event.packAnimals(animalCountMap)));
         }
         return this;
     }
@@ -113,9 +241,7 @@ public record MessageBoard(TextMaker textMaker, List<Message> messages) {
     public MessageBoard withScoredLogboat(PlayerColor scorer, Area<Zone.Water> riverSystem) {
         int lakeCount = Area.lakeCount(riverSystem);
         int points = Points.forLogboat(lakeCount);
-        String text = textMaker.playerScoredLogboat(scorer, points, lakeCount);
-
-        return addMessageAndReturnNewBoard(text, points, Set.of(scorer), riverSystem.tileIds());
+        return withEvent(new Event(Event.Kind.LOGBOAT, points, Event.mask(Set.of(scorer)), riverSystem.tileIds(), lakeCount, 0));
     }
 
     /**
@@ -125,17 +251,28 @@ public record MessageBoard(TextMaker textMaker, List<Message> messages) {
      * @param meadow           The meadow area to check for occupancy.
      * @param cancelledAnimals The set of animals whose points are canceled.
      * @return A new message board reflecting the changes, if any.
+     * @throws IllegalArgumentException if the meadow has more than 65535 animals of a kind.
      */
     public MessageBoard withScoredMeadow(Area<Zone.Meadow> meadow, Set<Animal> cancelledAnimals) {
+        return withEventIfAny(scoredMeadowEvent(meadow, cancelledAnimals));
+    }
+
+    /**
+     * Returns the event of the scoring of the given meadow area, if it is occupied and worth points.
+     *
+     * @param meadow           The meadow area.
+     * @param cancelledAnimals The set of animals whose points are canceled.
+     * @return The event of the scoring, or null if the meadow scores nothing.
+     */
+    static Event scoredMeadowEvent(Area<Zone.Meadow> meadow, Set<Animal> cancelledAnimals) {
         Map<Animal.Kind, Integer> animalCountMap = countAnimals(meadow, cancelledAnimals);
         int points = calculatePoints(animalCountMap);
 
         if (meadow.isOccupied() && points > 0) {
             Set<PlayerColor> meadowMajorityOccupants = meadow.majorityOccupants();
-            String text = textMaker.playersScoredMeadow(meadowMajorityOccupants, points, animalCountMap);
-            return addMessageAndReturnNewBoard(text, points, meadowMajorityOccupants, meadow.tileIds());
+            return new Event(Event.Kind.MEADOW, points, Event.mask(meadowMajorityOccupants), meadow.tileIds(), 0, Event.packAnimals(animalCountMap));
         }
-        return this;
+        return null;
     }
 
     /**
@@ -146,15 +283,24 @@ public record MessageBoard(TextMaker textMaker, List<Message> messages) {
      * @return A new message board reflecting the changes, if any.
      */
     public MessageBoard withScoredRiverSystem(Area<Zone.Water> riverSystem) {
+        return withEventIfAny(scoredRiverSystemEvent(riverSystem));
+    }
+
+    /**
+     * Returns the event of the scoring of the given river system area, if it is occupied and worth points.
+     *
+     * @param riverSystem The water area representing the river system.
+     * @return The event of the scoring, or null if the river system scores nothing.
+     */
+    static Event scoredRiverSystemEvent(Area<Zone.Water> riverSystem) {
         int fishCount = Area.riverSystemFishCount(riverSystem);
         int points = Points.forRiverSystem(fishCount);
 
         if (riverSystem.isOccupied() && points > 0) {
             Set<PlayerColor> riverSystemMajorityOccupants = riverSystem.majorityOccupants();
-            String text = textMaker.playersScoredRiverSystem(riverSystemMajorityOccupants, points, fishCount);
-            return addMessageAndReturnNewBoard(text, points, riverSystemMajorityOccupants, riverSystem.tileIds());
+            return new Event(Event.Kind.RIVER_SYSTEM, points, Event.mask(riverSystemMajorityOccupants), riverSystem.tileIds(), fishCount, 0);
         }
-        return this;
+        return null;
     }
 
     /**
@@ -165,17 +311,29 @@ public record MessageBoard(TextMaker textMaker, List<Message> messages) {
      * @param adjacentMeadow   The meadow area containing the pit trap.
      * @param cancelledAnimals The set of animals whose points are canceled.
      * @return A new message board reflecting the changes, if any.
+     * @throws IllegalArgumentException if the meadow has more than 65535 animals of a kind.
      */
     public MessageBoard withScoredPitTrap(Area<Zone.Meadow> adjacentMeadow, Set<Animal> cancelledAnimals) {
+        return withEventIfAny(scoredPitTrapEvent(adjacentMeadow, cancelledAnimals));
+    }
+
+    /**
+     * Returns the event of the scoring of the pit trap whose adjacent meadow is given, if it is occupied
+     * and worth points.
+     *
+     * @param adjacentMeadow   The meadow area adjacent to the pit trap.
+     * @param cancelledAnimals The set of animals whose points are canceled.
+     * @return The event of the scoring, or null if the pit trap scores nothing.
+     */
+    static Event scoredPitTrapEvent(Area<Zone.Meadow> adjacentMeadow, Set<Animal> cancelledAnimals) {
         Map<Animal.Kind, Integer> animalCountMap = countAnimals(adjacentMeadow, cancelledAnimals);
         int points = calculatePoints(animalCountMap);
 
         if (adjacentMeadow.isOccupied() && points > 0) {
             Set<PlayerColor> adjacentMeadowMajorityOccupants = adjacentMeadow.majorityOccupants();
-            String text = textMaker.playersScoredPitTrap(adjacentMeadowMajorityOccupants, points, animalCountMap);
-            return addMessageAndReturnNewBoard(text, points, adjacentMeadowMajorityOccupants, adjacentMeadow.tileIds());
+            return new Event(Event.Kind.PIT_TRAP, points, Event.mask(adjacentMeadowMajorityOccupants), adjacentMeadow.tileIds(), 0, Event.packAnimals(animalCountMap));
         }
-        return this;
+        return null;
     }
 
     /**
@@ -186,15 +344,23 @@ public record MessageBoard(TextMaker textMaker, List<Message> messages) {
      * @return A new message board reflecting the changes.
      */
     public MessageBoard withScoredRaft(Area<Zone.Water> riverSystem) {
+        return withEventIfAny(scoredRaftEvent(riverSystem));
+    }
+
+    /**
+     * Returns the event of the scoring of the raft of the given river system, if it is occupied.
+     *
+     * @param riverSystem The water area representing the river system with the raft.
+     * @return The event of the scoring, or null if the river system is not occupied.
+     */
+    static Event scoredRaftEvent(Area<Zone.Water> riverSystem) {
         if (riverSystem.isOccupied()) {
             int lakeCount = Area.lakeCount(riverSystem);
             int points = Points.forRaft(lakeCount);
             Set<PlayerColor> riverSystemMajorityOccupants = riverSystem.majorityOccupants();
-
-            String text = textMaker.playersScoredRaft(riverSystemMajorityOccupants, points, lakeCount);
-            return addMessageAndReturnNewBoard(text, points, riverSystemMajorityOccupants, riverSystem.tileIds());
+            return new Event(Event.Kind.RAFT, points, Event.mask(riverSystemMajorityOccupants), riverSystem.tileIds(), lakeCount, 0);
         }
-        return this;
+        return null;
     }
 
     /**
@@ -206,23 +372,26 @@ public record MessageBoard(TextMaker textMaker, List<Message> messages) {
      * @return A new message board reflecting the changes.
      */
     public MessageBoard withWinners(Set<PlayerColor> winners, int points) {
-        String text = textMaker.playersWon(winners, points);
-        return addMessageAndReturnNewBoard(text, 0, Set.of(), Set.of());
+        return withEvent(new Event(Event.Kind.WINNERS, points, Event.mask(winners), Set.of(), 0, 0));
     }
 
     /**
-     * Adds a new message to the message board and returns a new message board with the updated messages.
+     * Returns a new message board with the given event added, sharing the events of this board.
      *
-     * @param text    The text content of the message.t
-     * @param points  The points associated with the message.
-     * @param scorers The set of players who scored points with this message.
-     * @param tileIds The set of tile IDs related to this message.
-     * @return A new message board with the updated messages.
+     * @param event The event to add.
+     * @return A new message board with the event added.
      */
-    private MessageBoard addMessageAndReturnNewBoard(String text, int points, Set<PlayerColor> scorers, Set<Integer> tileIds) {
-        List<Message> updatedMessages = new ArrayList<>(this.messages);
-        updatedMessages.add(new Message(text, points, scorers, tileIds));
-        return new MessageBoard(textMaker, updatedMessages);
+    private MessageBoard withEvent(Event event) {
+        int[] updatedTotals = totals;
+        int updatedScorerMask = scorerMask;
+        if (event.kind().isScoring()) {
+            updatedTotals = totals.clone();
+            for (PlayerColor scorer : PlayerColor.ALL) {
+                if ((event.scorerMask() & 1 << scorer.ordinal()) != 0) updatedTotals[scorer.ordinal()] += event.points();
+            }
+            updatedScorerMask |= event.scorerMask();
+        }
+        return new MessageBoard(textMaker, new Entry(lastEntry, event, null), updatedTotals, updatedScorerMask);
     }
 
     /**
@@ -233,7 +402,7 @@ public record MessageBoard(TextMaker textMaker, List<Message> messages) {
      * @return A map associating each animal kind with the number of occurrences in the meadow area.
      */
 
-    private Map<Animal.Kind, Integer> countAnimals(Area<Zone.Meadow> area, Set<Animal> cancelledAnimals) {
+    private static Map<Animal.Kind, Integer> countAnimals(Area<Zone.Meadow> area, Set<Animal> cancelledAnimals) {
         return Area.animals(area, cancelledAnimals)
                 .stream()
                 .collect(Collectors.toMap(Animal::kind, animal -> 1, Integer::sum));
@@ -246,7 +415,7 @@ public record MessageBoard(TextMaker textMaker, List<Message> messages) {
      * @return The total number of points scored with the numbers of animal in the meadow area.
      */
 
-    private int calculatePoints(Map<Animal.Kind, Integer> animalCountMap) {
+    private static int calculatePoints(Map<Animal.Kind, Integer> animalCountMap) {
         return Points.forMeadow(
                 animalCountMap.getOrDefault(Animal.Kind.MAMMOTH, 0),
                 animalCountMap.getOrDefault(Animal.Kind.AUROCHS, 0),
@@ -254,6 +423,251 @@ public record MessageBoard(TextMaker textMaker, List<Message> messages) {
         );
     }
 
+    /**
+     * Checks if the given object is a message board with the same text maker and the same entries, i.e. the same
+     * events and the same messages given to the public constructor, in the same order. No text is built.
+     *
+     * @param o The object to compare with.
+     * @return true if the object is an equal message board, false otherwise.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof MessageBoard that) || !Objects.equals(textMaker, that.textMaker) || size() != that.size())
+            return false;
+        //the boards derived from the same one share the entries preceding their differences
+        for (Entry entry = lastEntry, thatEntry = that.lastEntry; entry != thatEntry; entry = entry.previous, thatEntry = thatEntry.previous) {
+            if (!entry.hasSameContent(thatEntry)) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = Objects.hashCode(textMaker);
+        for (Entry entry = lastEntry; entry != null; entry = entry.previous) {
+            hash = 31 * hash + entry.contentHashCode();
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "MessageBoard[textMaker=" + textMaker + ", messages=" + messages() + "]";
+    }
+
+    /**
+     * Unmodifiable map view of the running totals of the board, containing the players who scored.
+     */
+    private final class PointsView extends AbstractMap<PlayerColor, Integer> {
+        @Override
+        public Integer get(Object key) {
+            return containsKey(key) ? totals[((PlayerColor) key).ordinal()] : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof PlayerColor player && (scorerMask & 1 << player.ordinal()) != 0;
+        }
+
+        @Override
+        public int size() {
+            return Integer.bitCount(scorerMask);
+        }
+
+        @Override
+        public Set<Map.Entry<PlayerColor, Integer>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Map.Entry<PlayerColor, Integer>> iterator() {
+                    return PlayerColor.ALL.stream()
+                            .filter(PointsView.this::containsKey)
+                            .<Map.Entry<PlayerColor, Integer>>map(player -> Map.entry(player, totals[player.ordinal()]))
+                            .iterator();
+                }
+
+                @Override
+                public int size() {
+                    return PointsView.this.size();
+                }
+            };
+        }
+    }
+
+    /**
+     * An element of the persistent list of the messages, holding either an event, whose message is built lazily,
+     * or a message given to the public constructor.
+     */
+    private static final class Entry {
+        private final Entry previous;
+        private final int size;
+        private final Event event;
+        //built lazily, see messages()
+        private Message message;
+
+        private Entry(Entry previous, Event event, Message message) {
+            this.previous = previous;
+            this.size = previous == null ? 1 : previous.size + 1;
+            this.event = event;
+            this.message = message;
+        }
+
+        //the content of an entry is its event, or the message given to the public constructor if it has none
+        private boolean hasSameContent(Entry that) {
+            return event != null ? event.equals(that.event) : that.event == null && message.equals(that.message);
+        }
+
+        private int contentHashCode() {
+            return event != null ? event.hashCode() : message.hashCode();
+        }
+
+        private Message message(TextMaker textMaker) {
+            Message message = this.message;
+            if (message == null) {
+                message = event.toMessage(textMaker);
+                this.message = message;
+            }
+            return message;
+        }
+    }
+
+    /**
+     * Represents a scoring event, or another event displayed on the message board, without its text.
+     *
+     * @param kind         The kind of the event.
+     * @param points       The points of the event (the points of the winners for {@code WINNERS}).
+     * @param scorerMask   The players concerned by the event, one bit per color ordinal (the scorers,
+     *                     the player who closed the forest for {@code CLOSED_FOREST_WITH_MENHIR},
+     *                     the winners for {@code WINNERS}).
+     * @param tileIds      The ids of the tiles of the area concerned by the event.
+     * @param count        The number of mushroom groups, fish or lakes of the area, depending on the kind.
+     * @param animalCounts The numbers of animals of each kind of the area, 16 bits per kind ordinal.
+     */
+    public record Event(Kind kind, int points, int scorerMask, Set<Integer> tileIds, int count, long animalCounts) {
+        //enough for the animals of a whole board : 10 animals per zone, 10 zones per tile and 625 tiles
+        private static final int ANIMAL_COUNT_BITS = 16;
+        private static final int ANIMAL_COUNT_MASK = (1 << ANIMAL_COUNT_BITS) - 1;
+
+        /**
+         * The kinds of events
+         */
+        public enum Kind {
+            FOREST, CLOSED_FOREST_WITH_MENHIR, RIVER, HUNTING_TRAP, LOGBOAT, MEADOW, RIVER_SYSTEM, PIT_TRAP, RAFT, WINNERS;
+
+            /**
+             * Checks if the players of an event of this kind score its points.
+             *
+             * @return true if the event gives points to its players, false otherwise
+             */
+            public boolean isScoring() {
+                return this != CLOSED_FOREST_WITH_MENHIR && this != WINNERS;
+            }
+        }
+
+        /**
+         * Compact constructor for an event.
+         *
+         * @throws IllegalArgumentException if the points or the count are negative.
+         */
+        public Event {
+            Preconditions.checkArgument(points >= 0 && count >= 0);
+            Objects.requireNonNull(kind);
+            tileIds = Set.copyOf(tileIds);
+        }
+
+        /**
+         * Returns the players concerned by the event.
+         *
+         * @return The players concerned by the event.
+         */
+        public Set<PlayerColor> players() {
+            Set<PlayerColor> players = EnumSet.noneOf(PlayerColor.class);
+            for (PlayerColor player : PlayerColor.ALL) {
+                if ((scorerMask & 1 << player.ordinal()) != 0) players.add(player);
+            }
+            return players;
+        }
+
+        /**
+         * Returns the numbers of animals of the area of the event, by kind, the absent kinds being omitted.
+         *
+         * @return The numbers of animals of the area.
+         */
+        public Map<Animal.Kind, Integer> animals() {
+            Map<Animal.Kind, Integer> animals = new HashMap<>();
+            for (Animal.Kind animalKind : Animal.Kind.values()) {
+                int animalCount = (int) (animalCounts >>> (animalKind.ordinal() * ANIMAL_COUNT_BITS) & ANIMAL_COUNT_MASK);
+                if (animalCount > 0) animals.put(animalKind, animalCount);
+            }
+            return animals;
+        }
+
+        /**
+         * Returns the text of the event, built by the given text maker.
+         *
+         * @param textMaker The text maker.
+         * @return The text of the event.
+         */
+        public String text(TextMaker textMaker) {
+            return switch (kind) {
+                case FOREST -> textMaker.playersScoredForest(players(), points, count, tileIds.size());
+                case CLOSED_FOREST_WITH_MENHIR -> textMaker.playerClosedForestWithMenhir(players().iterator().next());
+                case RIVER -> textMaker.playersScoredRiver(players(), points, count, tileIds.size());
+                case HUNTING_TRAP -> textMaker.playerScoredHuntingTrap(players().iterator().next(), points, animals());
+                case LOGBOAT -> textMaker.playerScoredLogboat(players().iterator().next(), points, count);
+                case MEADOW -> textMaker.playersScoredMeadow(players(), points, animals());
+                case RIVER_SYSTEM -> textMaker.playersScoredRiverSystem(players(), points, count);
+                case PIT_TRAP -> textMaker.playersScoredPitTrap(players(), points, animals());
+                case RAFT -> textMaker.playersScoredRaft(players(), points, count);
+                case WINNERS -> textMaker.playersWon(players(), points);
+            };
+        }
+
+        /**
+         * Returns the message of the event, whose text is built by the given text maker.
+         *
+         * @param textMaker The text maker.
+         * @return The message of the event.
+         */
+        public Message toMessage(TextMaker textMaker) {
+            return new Message(text(textMaker), messagePoints(), messageScorers(), tileIds);
+        }
+
+        private int messagePoints() {
+            return kind.isScoring() ? points : 0;
+        }
+
+        private Set<PlayerColor> messageScorers() {
+            return kind.isScoring() ? players() : Set.of();
+        }
+
+        /**
+         * Returns the mask of the given players, one bit per color ordinal.
+         *
+         * @param players The players.
+         * @return The mask of the players.
+         */
+        static int mask(Set<PlayerColor> players) {
+            int mask = 0;
+            for (PlayerColor player : players) mask |= 1 << player.ordinal();
+            return mask;
+        }
+
+        /**
+         * Packs the given numbers of animals, 16 bits per kind ordinal.
+         *
+         * @param animals The numbers of animals, by kind.
+         * @return The packed numbers of animals.
+         * @throws IllegalArgumentException if a number of animals does not fit in 16 bits.
+         */
+        static long packAnimals(Map<Animal.Kind, Integer> animals) {
+            long packed = 0;
+            for (Map.Entry<Animal.Kind, Integer> entry : animals.entrySet()) {
+                Preconditions.checkArgument(entry.getValue() >= 0 && entry.getValue() <= ANIMAL_COUNT_MASK);
+                packed |= (long) entry.getValue() << (entry.getKey().ordinal() * ANIMAL_COUNT_BITS);
+            }
+            return packed;
+        }
+    }
 
     /**
      * Represents a message within the message board.
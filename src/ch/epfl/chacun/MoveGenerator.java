@@ -0,0 +1,222 @@
+package ch.epfl.chacun;
+
+/**
+ * The MoveGenerator class provides methods to enumerate the legal moves of a game state without allocating,
+ * and to apply them.
+ * <p>
+ * The moves are packed exactly like the actions of {@link ActionEncoder} before their Base32 encoding :
+ * <ul>
+ *     <li>a placement is {@code (fringeIndex << 2) | rotation}, the fringe being sorted by {@link Board#FRINGE_ORDER},</li>
+ *     <li>an occupant is {@code (kind << 4) | localZoneId},</li>
+ *     <li>a pawn retake is the index of the pawn among the pawns of the board sorted by zone id,</li>
+ *     <li>{@link #NONE} means to place no occupant or to retake no pawn.</li>
+ * </ul>
+ *
+ * @author Ilyes Rouibi (372420)
+ * @author Weifeng Ding (379902)
+ */
+public final class MoveGenerator {
+    /**
+     * The move meaning to place no occupant or to retake no pawn
+     */
+    public static final int NONE = 0b11111;
+
+    /**
+     * The maximum number of moves of a game state (at most 256 fringe positions, each with 4 rotations),
+     * which is a sufficient size for the array given to {@link #generate(GameState, int[])}
+     */
+    public static final int MAX_MOVES = 1 << 10;
+
+    private static final int LOCAL_ID_COUNT = 10;
+    private static final int HUT_SHIFT = 16;
+    private static final int HALF_MASK = (1 << HUT_SHIFT) - 1;
+
+    private MoveGenerator() {}
+
+    /**
+     * Writes the legal moves of the given game state, for its next action, at the beginning of the given array.
+     * There is no move when the next action is START_GAME or END_GAME.
+     *
+     * @param gameState The game state.
+     * @param moves     The array to write the moves to.
+     * @return The number of moves written.
+     * @throws ArrayIndexOutOfBoundsException if the array is too small (see {@link #MAX_MOVES}).
+     */
+    public static int generate(GameState gameState, int[] moves) {
+        return switch (gameState.nextAction()) {
+            case PLACE_TILE -> generatePlacements(gameState.board(), gameState.tileToPlace(), moves);
+            case OCCUPY_TILE -> generateOccupants(gameState, moves);
+            case RETAKE_PAWN -> generatePawnRetakes(gameState.board(), gameState.currentPlayer(), moves);
+            case START_GAME, END_GAME -> 0;
+        };
+    }
+
+    /**
+     * Writes the legal placements of the given tile on the given board at the beginning of the given array,
+     * sorted by fringe index then rotation.
+     *
+     * @param board The board.
+     * @param tile  The tile to place.
+     * @param moves The array to write the placements to.
+     * @return The number of placements written.
+     */
+    public static int generatePlacements(Board board, Tile tile, int[] moves) {
+        int count = 0;
+        var sortedFringe = board.sortedInsertionPositions();
+        for (int fringeIndex = 0; fringeIndex < sortedFringe.size(); fringeIndex++) {
+            Pos pos = sortedFringe.get(fringeIndex);
+            for (int rotation = 0; rotation < Rotation.COUNT; rotation++) {
+                if (board.canAddTileFast(tile, Rotation.ALL.get(rotation), pos)) {
+                    moves[count++] = fringeIndex << 2 | rotation;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Writes the legal occupants of the last placed tile at the beginning of the given array, sorted by kind then
+     * local zone id, followed by {@link #NONE}. They are the codes of {@link GameState#lastTilePotentialOccupants()}.
+     *
+     * @param gameState The game state.
+     * @param moves     The array to write the occupants to.
+     * @return The number of occupants written.
+     */
+    private static int generateOccupants(GameState gameState, int[] moves) {
+        Board board = gameState.board();
+        PlacedTile tile = board.lastPlacedTile();
+        int count = 0;
+        if (tile.placer() != null) {
+            boolean canPlacePawn = gameState.freeOccupantsCount(tile.placer(), Occupant.Kind.PAWN) > 0;
+            boolean canPlaceHut = gameState.freeOccupantsCount(tile.placer(), Occupant.Kind.HUT) > 0;
+
+            //one bit per local id of the zones which can be occupied (pawns in the low half, huts in the high half),
+            //a zone can touch several sides
+            Tile t = tile.tile();
+            int zones = occupiableZones(board, t.n(), canPlacePawn, canPlaceHut)
+                    | occupiableZones(board, t.e(), canPlacePawn, canPlaceHut)
+                    | occupiableZones(board, t.s(), canPlacePawn, canPlaceHut)
+                    | occupiableZones(board, t.w(), canPlacePawn, canPlaceHut);
+            count = writeOccupants(Occupant.Kind.PAWN, zones & HALF_MASK, moves, count);
+            count = writeOccupants(Occupant.Kind.HUT, zones >>> HUT_SHIFT, moves, count);
+        }
+        moves[count++] = NONE;
+        return count;
+    }
+
+    /**
+     * Returns the bits of the local ids of the zones of the given tile side which can be occupied,
+     * the bits of the pawns in the low half and the ones of the huts in the high half.
+     *
+     * @param board        The board.
+     * @param side         The tile side.
+     * @param canPlacePawn Whether the placer has a pawn left.
+     * @param canPlaceHut  Whether the placer has a hut left.
+     * @return The bits of the zones which can be occupied.
+     */
+    private static int occupiableZones(Board board, TileSide side, boolean canPlacePawn, boolean canPlaceHut) {
+        return switch (side) {
+            case TileSide.Forest forestSide ->
+                    canPlacePawn && !board.forestArea(forestSide.forest()).isOccupied() ? 1 << forestSide.forest().localId() : 0;
+            case TileSide.Meadow meadowSide -> freeMeadow(board, meadowSide.meadow(), canPlacePawn);
+            case TileSide.River riverSide -> {
+                Zone.River river = riverSide.river();
+                int zones = freeMeadow(board, riverSide.meadow1(), canPlacePawn) | freeMeadow(board, riverSide.meadow2(), canPlacePawn);
+                if (canPlacePawn && !board.riverArea(river).isOccupied())
+                    zones |= 1 << river.localId();
+                //the hut of a river flowing into a lake is placed on the lake
+                if (canPlaceHut && !board.riverSystemArea(river).isOccupied())
+                    zones |= 1 << (HUT_SHIFT + (river.hasLake() ? river.lake().localId() : river.localId()));
+                yield zones;
+            }
+        };
+    }
+
+    /**
+     * Returns the bit of the given meadow zone if a pawn can be placed on it.
+     *
+     * @param board        The board.
+     * @param meadow       The meadow zone.
+     * @param canPlacePawn Whether the placer has a pawn left.
+     * @return The bit of the zone's local id, or 0.
+     */
+    private static int freeMeadow(Board board, Zone.Meadow meadow, boolean canPlacePawn) {
+        return canPlacePawn && !board.meadowArea(meadow).isOccupied() ? 1 << meadow.localId() : 0;
+    }
+
+    /**
+     * Writes the occupants of the given kind on the zones of the given local ids.
+     *
+     * @param kind    The kind of the occupants.
+     * @param zones   The bits of the local ids of the zones.
+     * @param moves   The array to write the occupants to.
+     * @param count   The number of moves already written.
+     * @return The number of moves written.
+     */
+    private static int writeOccupants(Occupant.Kind kind, int zones, int[] moves, int count) {
+        for (int localId = 0; localId < LOCAL_ID_COUNT; localId++) {
+            if ((zones & 1 << localId) != 0) moves[count++] = kind.ordinal() << 4 | localId;
+        }
+        return count;
+    }
+
+    /**
+     * Writes the legal pawn retakes of the given player at the beginning of the given array,
+     * followed by {@link #NONE}.
+     *
+     * @param board  The board.
+     * @param player The player retaking a pawn.
+     * @param moves  The array to write the retakes to.
+     * @return The number of retakes written.
+     */
+    private static int generatePawnRetakes(Board board, PlayerColor player, int[] moves) {
+        int count = 0;
+        int pawnIndex = 0;
+        //a tile holds at most one occupant, so the pawns sorted by tile id are sorted by zone id
+        for (int tileId = 0; tileId < board.tileIdBound(); tileId++) {
+            PlacedTile tile = board.tileWithIdOrNull(tileId);
+            if (tile != null && tile.occupant() != null && tile.occupant().kind() == Occupant.Kind.PAWN) {
+                if (tile.placer() == player) moves[count++] = pawnIndex;
+                pawnIndex++;
+            }
+        }
+        moves[count++] = NONE;
+        return count;
+    }
+
+    /**
+     * Applies the given packed move to the given game state, for its next action.
+     *
+     * @param gameState The game state.
+     * @param move      The packed move.
+     * @return The game state after the move.
+     * @throws IllegalArgumentException if the move is not legal.
+     */
+    public static GameState apply(GameState gameState, int move) {
+        Board board = gameState.board();
+        return switch (gameState.nextAction()) {
+            case PLACE_TILE -> {
+                var sortedFringe = board.sortedInsertionPositions();
+                Preconditions.checkArgument(move >>> 2 < sortedFringe.size());
+                Rotation rotation = Rotation.ALL.get(move & 0b11);
+                Pos pos = sortedFringe.get(move >>> 2);
+                Preconditions.checkArgument(board.canAddTileFast(gameState.tileToPlace(), rotation, pos));
+                yield gameState.withPlacedTile(new PlacedTile(gameState.tileToPlace(), gameState.currentPlayer(), rotation, pos));
+            }
+            case OCCUPY_TILE -> {
+                if (move == NONE) yield gameState.withNewOccupant(null);
+                Preconditions.checkArgument(move >>> 4 < Occupant.Kind.values().length && (move & 0b1111) < LOCAL_ID_COUNT);
+                Occupant occupant = new Occupant(Occupant.Kind.values()[move >>> 4], board.lastPlacedTile().id() * 10 + (move & 0b1111));
+                Preconditions.checkArgument(gameState.lastTilePotentialOccupants().contains(occupant));
+                yield gameState.withNewOccupant(occupant);
+            }
+            case RETAKE_PAWN -> {
+                if (move == NONE) yield gameState.withOccupantRemoved(null);
+                PlacedTile tile = board.tileWithPawn(move);
+                Preconditions.checkArgument(tile != null && tile.placer() == gameState.currentPlayer());
+                yield gameState.withOccupantRemoved(tile.occupant());
+            }
+            case START_GAME, END_GAME -> throw new IllegalArgumentException();
+        };
+    }
+}
@@ -0,0 +1,94 @@
+package ch.epfl.chacun;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Text maker building only empty texts, for the games played without interface (simulations, searches),
+ * in which the texts of the messages are never displayed.
+ *
+ * @author Ilyes Rouibi (372420)
+ * @author Weifeng Ding (379902)
+ */
+public final class NoTextMaker implements TextMaker {
+    /**
+     * The only instance of the text maker
+     */
+    public static final NoTextMaker INSTANCE = new NoTextMaker();
+
+    /**
+     * Private constructor, the only instance being {@link #INSTANCE}.
+     */
+    private NoTextMaker() {
+    }
+
+    @Override
+    public String playerName(PlayerColor playerColor) {
+        return "";
+    }
+
+    @Override
+    public String points(int points) {
+        return "";
+    }
+
+    @Override
+    public String playerClosedForestWithMenhir(PlayerColor player) {
+        return "";
+    }
+
+    @Override
+    public String playersScoredForest(Set<PlayerColor> scorers, int points, int mushroomGroupCount, int tileCount) {
+        return "";
+    }
+
+    @Override
+    public String playersScoredRiver(Set<PlayerColor> scorers, int points, int fishCount, int tileCount) {
+        return "";
+    }
+
+    @Override
+    public String playerScoredHuntingTrap(PlayerColor scorer, int points, Map<Animal.Kind, Integer> animals) {
+        return "";
+    }
+
+    @Override
+    public String playerScoredLogboat(PlayerColor scorer, int points, int lakeCount) {
+        return "";
+    }
+
+    @Override
+    public String playersScoredMeadow(Set<PlayerColor> scorers, int points, Map<Animal.Kind, Integer> animals) {
+        return "";
+    }
+
+    @Override
+    public String playersScoredRiverSystem(Set<PlayerColor> scorers, int points, int fishCount) {
+        return "";
+    }
+
+    @Override
+    public String playersScoredPitTrap(Set<PlayerColor> scorers, int points, Map<Animal.Kind, Integer> animals) {
+        return "";
+    }
+
+    @Override
+    public String playersScoredRaft(Set<PlayerColor> scorers, int points, int lakeCount) {
+        return "";
+    }
+
+    @Override
+    public String playersWon(Set<PlayerColor> winners, int points) {
+        return "";
+    }
+
+    @Override
+    public String clickToOccupy() {
+        return "";
+    }
+
+    @Override
+    public String clickToUnoccupy() {
+        return "";
+    }
+}
@@ -73,6 +73,15 @@ public record PlacedTile(Tile tile, PlayerColor placer, Rotation rotation, Pos p
         return tile.sides().get(direction.rotated(rotation.negated()).ordinal());
     }
 
+    /**
+     * Gives the packed kinds of the sides of the placed tile, as defined by {@link Tile#sideKinds(Rotation)}.
+     *
+     * @return the packed kinds of the sides of the placed tile
+     */
+    public int sideKinds() {
+        return tile.sideKinds(rotation);
+    }
+
     /**
      * Gives the zone with the given ID.
      *
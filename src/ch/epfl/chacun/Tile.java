@@ -19,6 +19,26 @@ import java.util.stream.Stream;
  */
 public record Tile(int id, Kind kind, TileSide n, TileSide e, TileSide s, TileSide w) {
 
+    /**
+     * Code of a forest side in the packed side kinds.
+     */
+    public static final int FOREST_SIDE = 0b01;
+
+    /**
+     * Code of a meadow side in the packed side kinds.
+     */
+    public static final int MEADOW_SIDE = 0b10;
+
+    /**
+     * Code of a river side in the packed side kinds.
+     */
+    public static final int RIVER_SIDE = 0b11;
+
+    /**
+     * Number of bits used by the code of one side in the packed side kinds.
+     */
+    public static final int SIDE_KIND_BITS = 2;
+
     /**
      * Enum representing the three kinds of tiles.
      */
@@ -49,6 +69,50 @@ public record Tile(int id, Kind kind, TileSide n, TileSide e, TileSide s, TileSi
         return List.of(n, e, s, w);
     }
 
+    /**
+     * Gives the kinds of the sides of the tile once rotated by the given rotation, packed in an int :
+     * the code ({@link #FOREST_SIDE}, {@link #MEADOW_SIDE} or {@link #RIVER_SIDE}) of the side facing
+     * the direction d is stored in the {@link #SIDE_KIND_BITS} bits starting at bit {@code SIDE_KIND_BITS * d.ordinal()}.
+     * Two sides are of the same kind iff their codes are equal.
+     *
+     * @param rotation the rotation of the tile
+     * @return the packed kinds of the sides of the rotated tile (int)
+     */
+    public int sideKinds(Rotation rotation) {
+        int sideKinds = sideKind(n)
+                | sideKind(e) << SIDE_KIND_BITS
+                | sideKind(s) << 2 * SIDE_KIND_BITS
+                | sideKind(w) << 3 * SIDE_KIND_BITS;
+        return rotatedSideKinds(sideKinds, rotation);
+    }
+
+    /**
+     * Rotates the given packed side kinds (see {@link #sideKinds(Rotation)}) by the given rotation.
+     *
+     * @param sideKinds the packed kinds of the sides of a tile
+     * @param rotation  the rotation
+     * @return the packed kinds of the sides of the rotated tile
+     */
+    static int rotatedSideKinds(int sideKinds, Rotation rotation) {
+        //rotating the tile clockwise moves each side to the next direction, i.e. two bits to the left
+        int shift = SIDE_KIND_BITS * rotation.quarterTurnsCW();
+        return (sideKinds << shift | sideKinds >>> (SIDE_KIND_BITS * Direction.COUNT - shift)) & 0xFF;
+    }
+
+    /**
+     * Gives the code of the kind of the given tile side.
+     *
+     * @param side the tile side
+     * @return the code of the kind of the side
+     */
+    private static int sideKind(TileSide side) {
+        return switch (side) {
+            case TileSide.Forest ignored -> FOREST_SIDE;
+            case TileSide.Meadow ignored -> MEADOW_SIDE;
+            case TileSide.River ignored -> RIVER_SIDE;
+        };
+    }
+
     /**
      * Gives the zones that are in contact with at least one side of the tile (excluding lakes).
      *
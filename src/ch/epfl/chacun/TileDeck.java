@@ -0,0 +1,155 @@
+package ch.epfl.chacun;
+
+import java.util.*;
+
+/**
+ * Immutable list of tiles used by {@link TileDecks}, indexed by the kinds of the sides of its tiles.
+ * <p>
+ * The tiles of a deck are grouped by their packed unrotated side kinds (see {@link Tile#sideKinds(Rotation)}),
+ * which are the only thing deciding whether a tile can be placed on a board. For every such signature,
+ * the index keeps the sorted positions of its tiles in the deck, so that the first placeable tile,
+ * or the number of placeable tiles, is found by testing each distinct signature once instead of every tile.
+ * Drawing tiles from the top shares the tiles and the index, only the position of the top changes.
+ *
+ * @author Ilyes Rouibi (372420)
+ * @author Weifeng Ding (379902)
+ */
+final class TileDeck extends AbstractList<Tile> implements RandomAccess {
+    private final Tile[] tiles;
+    private final Index index;
+    private final int top;
+
+    /**
+     * The index of a deck : its distinct signatures, and for each of them the sorted positions of its tiles.
+     *
+     * @param signatures the distinct signatures of the tiles
+     * @param positions  the positions of the tiles of each signature, in the same order as the signatures
+     */
+    private record Index(int[] signatures, int[][] positions) {
+    }
+
+    private TileDeck(Tile[] tiles, Index index, int top) {
+        this.tiles = tiles;
+        this.index = index;
+        this.top = top;
+    }
+
+    /**
+     * Returns an indexed deck containing the given tiles, or the given list itself if it is already one.
+     *
+     * @param tiles the tiles of the deck
+     * @return the indexed deck
+     * @throws NullPointerException if the list or one of its tiles is null
+     */
+    static TileDeck copyOf(List<Tile> tiles) {
+        if (tiles instanceof TileDeck deck) {
+            return deck;
+        }
+        Tile[] array = tiles.toArray(new Tile[0]);
+        Map<Integer, List<Integer>> positionsBySignature = new LinkedHashMap<>();
+        for (int position = 0; position < array.length; position++) {
+            Objects.requireNonNull(array[position]);
+            positionsBySignature.computeIfAbsent(array[position].sideKinds(Rotation.NONE), s -> new ArrayList<>())
+                    .add(position);
+        }
+
+        int[] signatures = new int[positionsBySignature.size()];
+        int[][] positions = new int[positionsBySignature.size()][];
+        int i = 0;
+        for (Map.Entry<Integer, List<Integer>> entry : positionsBySignature.entrySet()) {
+            signatures[i] = entry.getKey();
+            positions[i] = entry.getValue().stream().mapToInt(Integer::intValue).toArray();
+            i++;
+        }
+        return new TileDeck(array, new Index(signatures, positions), 0);
+    }
+
+    @Override
+    public Tile get(int index) {
+        Objects.checkIndex(index, size());
+        return tiles[top + index];
+    }
+
+    @Override
+    public int size() {
+        return tiles.length - top;
+    }
+
+    /**
+     * Returns the tiles between the given indexes, sharing the tiles and the index of this deck
+     * when the sublist goes up to the bottom of the deck.
+     *
+     * @param fromIndex the first index (inclusive)
+     * @param toIndex   the last index (exclusive)
+     * @return the tiles between the given indexes
+     */
+    @Override
+    public List<Tile> subList(int fromIndex, int toIndex) {
+        Objects.checkFromToIndex(fromIndex, toIndex, size());
+        return toIndex == size() ? new TileDeck(tiles, index, top + fromIndex) : super.subList(fromIndex, toIndex);
+    }
+
+    /**
+     * Returns the deck without its given number of top tiles.
+     *
+     * @param count the number of tiles to draw
+     * @return the deck without its top tiles
+     */
+    TileDeck withoutTop(int count) {
+        Objects.checkFromToIndex(0, count, size());
+        return count == 0 ? this : new TileDeck(tiles, index, top + count);
+    }
+
+    /**
+     * Returns the index in the deck of the first tile that could be placed on the given board.
+     *
+     * @param board the board
+     * @return the index of the first placeable tile, or the size of the deck if no tile can be placed
+     */
+    int firstPlaceableIndex(Board board) {
+        int first = tiles.length;
+        for (int i = 0; i < index.signatures().length; i++) {
+            int next = firstPositionFromTop(index.positions()[i]);
+            if (next < first && board.couldPlaceSideKinds(index.signatures()[i])) first = next;
+        }
+        return first - top;
+    }
+
+    /**
+     * Returns the number of tiles of the deck that could be placed on the given board.
+     *
+     * @param board the board
+     * @return the number of placeable tiles
+     */
+    int placeableCount(Board board) {
+        int count = 0;
+        for (int i = 0; i < index.signatures().length; i++) {
+            int[] positions = index.positions()[i];
+            int remaining = positions.length - firstIndexFromTop(positions);
+            if (remaining > 0 && board.couldPlaceSideKinds(index.signatures()[i])) count += remaining;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the first of the given sorted positions which is still in the deck.
+     *
+     * @param positions the sorted positions
+     * @return the first position still in the deck, or the number of tiles of the full deck if there is none
+     */
+    private int firstPositionFromTop(int[] positions) {
+        int i = firstIndexFromTop(positions);
+        return i < positions.length ? positions[i] : tiles.length;
+    }
+
+    /**
+     * Returns the index of the first of the given sorted positions which is still in the deck.
+     *
+     * @param positions the sorted positions
+     * @return the index of the first position still in the deck, or the number of positions if there is none
+     */
+    private int firstIndexFromTop(int[] positions) {
+        int i = Arrays.binarySearch(positions, top);
+        return i >= 0 ? i : -i - 1;
+    }
+}
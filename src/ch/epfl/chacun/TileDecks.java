@@ -6,7 +6,8 @@ import java.util.function.Predicate;
 /**
  * Record representing a deck of tiles.
  * This record encapsulates the start tiles, normal tiles, and menhir tiles used in the game.
- * Each deck is represented as a list of tiles.
+ * Each deck is represented as a list of tiles, indexed by the side kinds of its tiles (see {@link TileDeck}),
+ * so that the tiles which cannot be placed on a board are found without testing them one by one.
  *
  * @author Ilyes Rouibi (372420)
  * @author Weifeng Ding (379902)
@@ -14,16 +15,16 @@ import java.util.function.Predicate;
 public record TileDecks(List<Tile> startTiles, List<Tile> normalTiles, List<Tile> menhirTiles) {
 
     /**
-     * Compact constructor that makes TileDecks immutable
+     * Compact constructor that makes TileDecks immutable, and indexes its decks
      *
      * @param startTiles  The list of start tiles.
      * @param normalTiles The list of normal tiles.
      * @param menhirTiles The list of menhir tiles.
      */
     public TileDecks {
-        startTiles = List.copyOf(startTiles);
-        normalTiles = List.copyOf(normalTiles);
-        menhirTiles = List.copyOf(menhirTiles);
+        startTiles = TileDeck.copyOf(startTiles);
+        normalTiles = TileDeck.copyOf(normalTiles);
+        menhirTiles = TileDeck.copyOf(menhirTiles);
     }
 
     /**
@@ -103,4 +104,64 @@ public record TileDecks(List<Tile> startTiles, List<Tile> normalTiles, List<Tile
         return updatedDecks;
     }
 
+    /**
+     * Returns a new TileDecks record with the tiles that cannot be placed on the given board removed from the top
+     * of the specified tile deck, like {@code withTopTileDrawnUntil(kind, board::couldPlaceTile)}, but using
+     * the index of the deck.
+     *
+     * @param kind  The type of tile deck (START, NORMAL, or MENHIR).
+     * @param board The board on which the top tile must be placeable.
+     * @return A new TileDecks record whose specified deck is empty or starts with a placeable tile.
+     */
+    public TileDecks withTopTileDrawnUntilPlaceable(Tile.Kind kind, Board board) {
+        TileDeck deck = deck(kind);
+        TileDeck updatedDeck = deck.withoutTop(deck.firstPlaceableIndex(board));
+        if (updatedDeck == deck) {
+            return this;
+        }
+        return switch (kind) {
+            case START -> new TileDecks(updatedDeck, normalTiles, menhirTiles);
+            case NORMAL -> new TileDecks(startTiles, updatedDeck, menhirTiles);
+            case MENHIR -> new TileDecks(startTiles, normalTiles, updatedDeck);
+        };
+    }
+
+    /**
+     * Checks if the specified tile deck contains a tile that can be placed on the given board.
+     *
+     * @param kind  The type of tile deck (START, NORMAL, or MENHIR).
+     * @param board The board.
+     * @return True if a tile of the deck can be placed on the board, false otherwise.
+     */
+    public boolean hasPlaceableTile(Tile.Kind kind, Board board) {
+        TileDeck deck = deck(kind);
+        return deck.firstPlaceableIndex(board) < deck.size();
+    }
+
+    /**
+     * Returns the number of tiles of the specified tile deck that can be placed on the given board,
+     * the other ones being dead tiles as long as the fringe does not change.
+     *
+     * @param kind  The type of tile deck (START, NORMAL, or MENHIR).
+     * @param board The board.
+     * @return The number of placeable tiles of the deck.
+     */
+    public int placeableTileCount(Tile.Kind kind, Board board) {
+        return deck(kind).placeableCount(board);
+    }
+
+    /**
+     * Returns the indexed deck of the specified kind.
+     *
+     * @param kind The type of tile deck (START, NORMAL, or MENHIR).
+     * @return The indexed deck.
+     */
+    private TileDeck deck(Tile.Kind kind) {
+        //the compact constructor only stores indexed decks
+        return (TileDeck) switch (kind) {
+            case START -> startTiles;
+            case NORMAL -> normalTiles;
+            case MENHIR -> menhirTiles;
+        };
+    }
 }
@@ -0,0 +1,62 @@
+package ch.epfl.chacun;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Record representing what the end of a turn did, computed once when the turn ends : the areas closed by the
+ * last placed tile, the pawns returned to their owners, the events added to the message board,
+ * and whether the player is granted a second turn with a menhir tile.
+ *
+ * @param player            the player whose turn ended.
+ * @param closedForests     the forest areas closed by the last placed tile.
+ * @param closedRivers      the river areas closed by the last placed tile.
+ * @param returnedOccupants the gatherers and fishers returned to their owners, from the closed areas.
+ * @param events            the events added to the message board, in order.
+ * @param menhirForest      the closed forest containing a menhir which grants a second turn, or null.
+ * @author Ilyes Rouibi (372420)
+ * @author Weifeng Ding (379902)
+ */
+public record TurnOutcome(PlayerColor player,
+                          Set<Area<Zone.Forest>> closedForests,
+                          Set<Area<Zone.River>> closedRivers,
+                          Set<Occupant> returnedOccupants,
+                          List<MessageBoard.Event> events,
+                          Area<Zone.Forest> menhirForest) {
+
+    /**
+     * Compact constructor that makes TurnOutcome immutable.
+     *
+     * @throws IllegalArgumentException if the menhir forest is not one of the closed forests.
+     */
+    public TurnOutcome {
+        closedForests = Set.copyOf(closedForests);
+        closedRivers = Set.copyOf(closedRivers);
+        returnedOccupants = Set.copyOf(returnedOccupants);
+        events = List.copyOf(events);
+        Preconditions.checkArgument(menhirForest == null || closedForests.contains(menhirForest));
+    }
+
+    /**
+     * Checks if the player is granted a second turn, to place a menhir tile.
+     *
+     * @return true if the player plays again, false otherwise.
+     */
+    public boolean menhirTurnGranted() {
+        return menhirForest != null;
+    }
+
+    /**
+     * Returns the points scored by the given player during the end of the turn.
+     *
+     * @param player the player.
+     * @return the points scored by the player.
+     */
+    public int pointsOf(PlayerColor player) {
+        int points = 0;
+        for (MessageBoard.Event event : events) {
+            if (event.kind().isScoring() && (event.scorerMask() & 1 << player.ordinal()) != 0) points += event.points();
+        }
+        return points;
+    }
+}
@@ -0,0 +1,96 @@
+package ch.epfl.chacun;
+
+/**
+ * This class provides static methods computing the 64-bit Zobrist keys of the elements of a game.
+ * The key of a board or a game state is the XOR of the keys of its elements, so that it can be updated
+ * incrementally by XOR-ing the keys of the elements that are added or removed.
+ * <p>
+ * Instead of a table of random numbers, every element is packed into a long with a distinct tag
+ * and scrambled by the SplitMix64 finalizer, which works for any tile or zone id.
+ *
+ * @author Ilyes Rouibi (372420)
+ * @author Weifeng Ding (379902)
+ */
+final class Zobrist {
+    private static final long PLACED_TILE_TAG = 1L << 60;
+    private static final long OCCUPANT_TAG = 2L << 60;
+    private static final long ANIMAL_TAG = 3L << 60;
+    private static final long GAME_STATE_TAG = 4L << 60;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private Zobrist() {
+    }
+
+    /**
+     * Returns the key of the given placed tile (including its occupant) standing on the cell of the given index,
+     * or 0 if there is no tile.
+     *
+     * @param tile      the placed tile (can be null)
+     * @param cellIndex the index of the cell of the tile
+     * @return the key of the placed tile on the cell
+     */
+    static long placedTileKey(PlacedTile tile, int cellIndex) {
+        if (tile == null) {
+            return 0;
+        }
+        int placer = tile.placer() == null ? 0 : tile.placer().ordinal() + 1;
+        long key = mix(PLACED_TILE_TAG
+                | (long) tile.id() << 24
+                | (long) cellIndex << 8
+                | (long) tile.rotation().ordinal() << 4
+                | placer);
+        return tile.occupant() == null ? key : key ^ occupantKey(tile.occupant());
+    }
+
+    /**
+     * Returns the key of the given occupant.
+     *
+     * @param occupant the occupant
+     * @return the key of the occupant
+     */
+    static long occupantKey(Occupant occupant) {
+        return mix(OCCUPANT_TAG | (long) occupant.zoneId() << 4 | occupant.kind().ordinal());
+    }
+
+    /**
+     * Returns the key of the given cancelled animal.
+     *
+     * @param animal the cancelled animal
+     * @return the key of the cancelled animal
+     */
+    static long cancelledAnimalKey(Animal animal) {
+        return mix(ANIMAL_TAG | animal.id());
+    }
+
+    /**
+     * Returns the key of the given game state, combining the key of its board with its turn information.
+     *
+     * @param gameState the game state
+     * @return the key of the game state
+     */
+    static long gameStateKey(GameState gameState) {
+        TileDecks decks = gameState.tileDecks();
+        int tileToPlace = gameState.tileToPlace() == null ? 0 : gameState.tileToPlace().id() + 1;
+        long turn = (long) tileToPlace << 40
+                | (long) decks.menhirTiles().size() << 32
+                | (long) decks.normalTiles().size() << 24
+                | (long) decks.startTiles().size() << 16
+                | (long) gameState.players().getFirst().ordinal() << 8
+                | gameState.nextAction().ordinal();
+        return gameState.board().zobristKey() ^ mix(GAME_STATE_TAG | turn);
+    }
+
+    /**
+     * Scrambles the bits of the given value (SplitMix64 finalizer).
+     *
+     * @param value the value to scramble
+     * @return the scrambled value
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+}
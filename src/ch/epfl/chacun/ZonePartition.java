@@ -1,32 +1,106 @@
 package ch.epfl.chacun;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.*;
 
 /**
- * Record representing a zone partition of a specific type of Zone
+ * Class representing a zone partition of a specific type of Zone
  * (Set of Areas forming a partition).
+ * <p>
+ * The areas are indexed by a disjoint-set forest keyed by zone id : every zone id points directly to the id
+ * of the root zone of its area, and the area itself is stored at the index of its root.
+ * Finding the area containing a zone is therefore done in constant time. The tables of the forest are split
+ * into pages of {@value #PAGE_SIZE} zone ids, which are shared between a partition and the ones built from it
+ * as long as they are not modified, so that placing a tile only copies the few pages it touches.
  *
  * @author Ilyes Rouibi (372420)
  * @author Weifeng Ding(379902)
  */
-public record ZonePartition<Z extends Zone>(Set<Area<Z>> areas) {
+public final class ZonePartition<Z extends Zone> {
+    private static final int NO_ZONE = -1;
+    private static final int PAGE_BITS = 5;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+    //the pages where no zone is present, shared by all partitions and never modified
+    private static final int[] NO_ROOTS_PAGE = newRootsPage();
+    private static final byte[] NO_RANKS_PAGE = new byte[PAGE_SIZE];
+    private static final Object[] NO_AREAS_PAGE = new Object[PAGE_SIZE];
+
+    private final int[][] rootPages;
+    private final byte[][] rankPages;
+    private final Object[][] areaPages;
+    private final int areaCount;
+    private final Set<Area<Z>> areas;
 
     /**
-     * Compact constructor that makes ZonePartition immutable.
+     * Constructor that makes ZonePartition immutable.
      *
      * @param areas the set of areas in the partition
      */
-    public ZonePartition {
-        areas = Set.copyOf(areas);
+    public ZonePartition(Set<Area<Z>> areas) {
+        int capacity = areas.stream()
+                .flatMap(area -> area.zones().stream())
+                .mapToInt(zone -> zone.id() + 1)
+                .max()
+                .orElse(0);
+
+        int pageCount = (capacity + PAGE_MASK) >>> PAGE_BITS;
+        int[][] rootPages = new int[pageCount][];
+        byte[][] rankPages = new byte[pageCount][];
+        Object[][] areaPages = new Object[pageCount][];
+        for (int page = 0; page < pageCount; page++) {
+            rootPages[page] = newRootsPage();
+            rankPages[page] = new byte[PAGE_SIZE];
+            areaPages[page] = new Object[PAGE_SIZE];
+        }
+        int areaCount = 0;
+
+        for (Area<Z> area : Set.copyOf(areas)) {
+            Preconditions.checkArgument(!area.zones().isEmpty());
+            int root = area.zones().iterator().next().id();
+            for (Z zone : area.zones()) {
+                rootPages[zone.id() >>> PAGE_BITS][zone.id() & PAGE_MASK] = root;
+            }
+            rankPages[root >>> PAGE_BITS][root & PAGE_MASK] = (byte) (area.zones().size() > 1 ? 1 : 0);
+            areaPages[root >>> PAGE_BITS][root & PAGE_MASK] = area;
+            areaCount++;
+        }
+
+        this.rootPages = rootPages;
+        this.rankPages = rankPages;
+        this.areaPages = areaPages;
+        this.areaCount = areaCount;
+        this.areas = new AreasView();
     }
 
     public ZonePartition() {
         this(Set.of());
     }
 
+    /**
+     * Private constructor used by the builder, the given pages must be flattened and never modified afterward.
+     *
+     * @param rootPages the pages of the root zone id of every zone id
+     * @param rankPages the pages of the rank of every root
+     * @param areaPages the pages of the area of every root
+     * @param areaCount the number of areas in the partition
+     */
+    private ZonePartition(int[][] rootPages, byte[][] rankPages, Object[][] areaPages, int areaCount) {
+        this.rootPages = rootPages;
+        this.rankPages = rankPages;
+        this.areaPages = areaPages;
+        this.areaCount = areaCount;
+        this.areas = new AreasView();
+    }
+
+    /**
+     * Gets the set of areas in the partition.
+     *
+     * @return the (immutable) set of areas in the partition
+     */
+    public Set<Area<Z>> areas() {
+        return areas;
+    }
+
     /**
      * Gets the area containing the given zone.
      *
@@ -35,20 +109,140 @@ public record ZonePartition<Z extends Zone>(Set<Area<Z>> areas) {
      * @throws IllegalArgumentException if the zone does not belong to any area in the partition
      */
     public Area<Z> areaContaining(Z zone) {
-        return areas.stream()
-                .filter(area -> area.zones().contains(zone))
-                .findFirst()
-                .orElseThrow(() -> new IllegalArgumentException("Zone does not belong to any area in the partition"));
+        int root = rootIn(rootPages, zone.id());
+        if (root != NO_ZONE) {
+            Area<Z> area = areaIn(areaPages, root);
+            if (area.zones().contains(zone)) return area;
+        }
+        throw new IllegalArgumentException("Zone does not belong to any area in the partition");
+    }
+
+    /**
+     * Checks if the two given zones belong to the same area of the partition, by comparing the roots of their areas.
+     *
+     * @param zone      a zone
+     * @param otherZone another zone
+     * @return true if both zones belong to the same area, false otherwise (or if one of them is not in the partition)
+     */
+    boolean inSameArea(Z zone, Z otherZone) {
+        int root = rootIn(rootPages, zone.id());
+        return root != NO_ZONE && root == rootIn(rootPages, otherZone.id());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ZonePartition<?> that)) return false;
+        return areas.equals(that.areas);
+    }
+
+    @Override
+    public int hashCode() {
+        return areas.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "ZonePartition[areas=" + areas + "]";
+    }
+
+    /**
+     * Creates a page of roots where no zone is present.
+     *
+     * @return the new page of roots
+     */
+    private static int[] newRootsPage() {
+        int[] rootsPage = new int[PAGE_SIZE];
+        Arrays.fill(rootsPage, NO_ZONE);
+        return rootsPage;
+    }
+
+    /**
+     * Gets the root of the given zone id in the given pages.
+     *
+     * @param rootPages the pages of roots
+     * @param id        the zone id
+     * @return the root zone id, or NO_ZONE if the zone is not present
+     */
+    private static int rootIn(int[][] rootPages, int id) {
+        int page = id >>> PAGE_BITS;
+        return id >= 0 && page < rootPages.length ? rootPages[page][id & PAGE_MASK] : NO_ZONE;
+    }
+
+    /**
+     * Gets the area stored at the given root in the given pages.
+     *
+     * @param areaPages the pages of areas indexed by root
+     * @param root      the root zone id
+     * @return the area stored at the given root
+     */
+    @SuppressWarnings("unchecked")
+    private static <Z extends Zone> Area<Z> areaIn(Object[][] areaPages, int root) {
+        return (Area<Z>) areaPages[root >>> PAGE_BITS][root & PAGE_MASK];
+    }
+
+    /**
+     * Immutable set view over the areas stored at the roots of the partition.
+     */
+    private final class AreasView extends AbstractSet<Area<Z>> {
+        @Override
+        public Iterator<Area<Z>> iterator() {
+            return new Iterator<>() {
+                private final int end = areaPages.length << PAGE_BITS;
+                private int next = advance(0);
+
+                private int advance(int from) {
+                    while (from < end && areaPages[from >>> PAGE_BITS][from & PAGE_MASK] == null) from++;
+                    return from;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return next < end;
+                }
+
+                @Override
+                public Area<Z> next() {
+                    if (!hasNext()) throw new NoSuchElementException();
+                    Area<Z> area = areaIn(areaPages, next);
+                    next = advance(next + 1);
+                    return area;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return areaCount;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Area<?> area) || area.zones().isEmpty()) return false;
+            int root = rootIn(rootPages, area.zones().iterator().next().id());
+            return root != NO_ZONE && areaIn(areaPages, root).equals(area);
+        }
     }
 
     /**
      * A builder class for constructing instances of the {@code ZonePartition} class.
      * This builder allows for the modification and creation of a {@code ZonePartition} by manipulating its internal areas.
+     * <p>
+     * The builder works on a disjoint-set forest (union by rank, path compression) whose pages are shared with
+     * the partition it was created from, a page being copied the first time it is modified. The areas whose roots
+     * are modified are kept as mutable aggregates and are only turned back into {@link Area} when the partition is built.
      *
      * @param <Z> the type of zones in the ZonePartition
      */
     public static final class Builder<Z extends Zone> {
-        private Set<Area<Z>> areas;
+        private int[][] rootPages;
+        private byte[][] rankPages;
+        private Object[][] areaPages;
+        private boolean[] ownedPages;
+        private int areaCount;
+        private boolean shared;
+        private ZonePartition<Z> lastBuilt;
+        private final Map<Integer, Aggregate<Z>> aggregates = new HashMap<>();
 
         /**
          * Constructor to instantiate a ZonePartition's Builder from an existing ZonePartition.
@@ -56,7 +250,12 @@ public record ZonePartition<Z extends Zone>(Set<Area<Z>> areas) {
          * @param zonePartition the existing ZonePartition
          */
         public Builder(ZonePartition<Z> zonePartition) {
-            this.areas = new HashSet<>(zonePartition.areas);
+            this.rootPages = zonePartition.rootPages;
+            this.rankPages = zonePartition.rankPages;
+            this.areaPages = zonePartition.areaPages;
+            this.areaCount = zonePartition.areaCount;
+            this.shared = true;
+            this.lastBuilt = zonePartition;
         }
 
         /**
@@ -65,9 +264,17 @@ public record ZonePartition<Z extends Zone>(Set<Area<Z>> areas) {
          *
          * @param zone            the zone to be added to the partition
          * @param openConnections the number of open connections for the new area
+         * @throws IllegalArgumentException if the zone already belongs to the partition or if openConnections is negative
          */
         public void addSingleton(Z zone, int openConnections) {
-            areas.add(new Area<>(new HashSet<>(Collections.singleton(zone)), new ArrayList<>(), openConnections));
+            int id = zone.id();
+            Preconditions.checkArgument(id >= 0 && openConnections >= 0);
+            Preconditions.checkArgument(rootIn(rootPages, id) == NO_ZONE);
+
+            setRoot(id, id);
+            setRank(id, 0);
+            areaCount++;
+            aggregates.put(id, new Aggregate<>(zone, openConnections));
         }
 
         /**
@@ -78,9 +285,9 @@ public record ZonePartition<Z extends Zone>(Set<Area<Z>> areas) {
          * @throws IllegalArgumentException if the zone does not belong to any area in the partition or if the area is already occupied
          */
         public void addInitialOccupant(Z zone, PlayerColor color) {
-            Area<Z> areaWithZone = areaContaining(zone);
-            areas.remove(areaWithZone);
-            areas.add(areaWithZone.withInitialOccupant(color));
+            Aggregate<Z> aggregate = aggregateOf(rootOf(zone));
+            Preconditions.checkArgument(aggregate.occupants.isEmpty());
+            aggregate.occupants.add(color);
         }
 
         /**
@@ -91,9 +298,8 @@ public record ZonePartition<Z extends Zone>(Set<Area<Z>> areas) {
          * @throws IllegalArgumentException if the zone does not belong to any area in the partition or if the area is not occupied by an occupant of the specified color
          */
         public void removeOccupant(Z zone, PlayerColor color) {
-            Area<Z> areaWithZone = areaContaining(zone);
-            areas.remove(areaWithZone);
-            areas.add(areaWithZone.withoutOccupant(color));
+            Aggregate<Z> aggregate = aggregateOf(rootOf(zone));
+            Preconditions.checkArgument(aggregate.occupants.remove(color));
         }
 
         /**
@@ -103,9 +309,10 @@ public record ZonePartition<Z extends Zone>(Set<Area<Z>> areas) {
          * @throws IllegalArgumentException if the area is not in the partition
          */
         public void removeAllOccupantsOf(Area<Z> area) {
-            Preconditions.checkArgument(areas.contains(area));
-            areas.remove(area);
-            areas.add(area.withoutOccupants());
+            Preconditions.checkArgument(!area.zones().isEmpty());
+            int root = rootOf(area.zones().iterator().next());
+            Preconditions.checkArgument(currentArea(root).equals(area));
+            aggregateOf(root).occupants.clear();
         }
 
         /**
@@ -117,19 +324,33 @@ public record ZonePartition<Z extends Zone>(Set<Area<Z>> areas) {
          * @throws IllegalArgumentException if either zone does not belong to an area in the partition
          */
         public void union(Z zone1, Z zone2) {
-            Area<Z> areaWithZone1 = areaContaining(zone1);
-            Area<Z> areaWithZone2 = areaContaining(zone2);
-            Area<Z> connectedArea = areaWithZone1.connectTo(areaWithZone2);
-            areas.remove(areaWithZone1);
-            areas.remove(areaWithZone2);
-            areas.add(connectedArea);
-        }
+            int root1 = rootOf(zone1);
+            int root2 = rootOf(zone2);
+
+            if (root1 == root2) {
+                Aggregate<Z> aggregate = aggregateOf(root1);
+                Preconditions.checkArgument(aggregate.openConnections >= 2);
+                aggregate.openConnections -= 2;
+                return;
+            }
 
-        private Area<Z> areaContaining(Z zone) {
-            return areas.stream()
-                    .filter(area -> area.zones().contains(zone))
-                    .findFirst()
-                    .orElseThrow(() -> new IllegalArgumentException("Zone does not belong to any area in the partition"));
+            //union by rank, the root of the lowest tree is attached to the other one
+            if (rankOf(root1) < rankOf(root2)) {
+                int tmp = root1;
+                root1 = root2;
+                root2 = tmp;
+            }
+            Aggregate<Z> kept = aggregateOf(root1);
+            Aggregate<Z> merged = aggregateOf(root2);
+            Preconditions.checkArgument(kept.openConnections + merged.openConnections >= 2);
+
+            setRoot(root2, root1);
+            if (rankOf(root1) == rankOf(root2)) setRank(root1, rankOf(root1) + 1);
+            setArea(root2, null);
+            aggregates.remove(root2);
+            areaCount--;
+
+            kept.absorb(merged);
         }
 
         /**
@@ -138,7 +359,214 @@ public record ZonePartition<Z extends Zone>(Set<Area<Z>> areas) {
          * @return the new zone partition
          */
         public ZonePartition<Z> build() {
-            return new ZonePartition<>(areas);
+            if (shared) return lastBuilt;
+
+            for (Map.Entry<Integer, Aggregate<Z>> entry : aggregates.entrySet()) {
+                setArea(entry.getKey(), entry.getValue().toArea());
+            }
+            aggregates.clear();
+
+            //flattening the forest so that the built partition finds every root in one step,
+            //only the pages holding a zone whose root changed are copied
+            int end = rootPages.length << PAGE_BITS;
+            for (int id = 0; id < end; id++) {
+                if (rootIn(rootPages, id) != NO_ZONE) find(id);
+            }
+
+            shared = true;
+            lastBuilt = new ZonePartition<>(rootPages, rankPages, areaPages, areaCount);
+            return lastBuilt;
+        }
+
+        /**
+         * Finds the root of the given zone id, compressing the path on the way.
+         *
+         * @param id the zone id, which must be present
+         * @return the root zone id of the area containing the zone
+         */
+        private int find(int id) {
+            int root = id;
+            while (rootIn(rootPages, root) != root) root = rootIn(rootPages, root);
+            while (rootIn(rootPages, id) != root) {
+                int next = rootIn(rootPages, id);
+                setRoot(id, root);
+                id = next;
+            }
+            return root;
+        }
+
+        /**
+         * Gives the root of the area containing the given zone.
+         *
+         * @param zone the zone
+         * @return the root zone id of the area containing the zone
+         * @throws IllegalArgumentException if the zone does not belong to any area in the partition
+         */
+        private int rootOf(Z zone) {
+            //the pages shared with a built partition are already flattened
+            int root = rootIn(rootPages, zone.id());
+            if (root != NO_ZONE && !shared) root = find(zone.id());
+            if (root != NO_ZONE) {
+                Aggregate<Z> aggregate = aggregates.get(root);
+                Set<Z> zones = aggregate != null ? aggregate.zones : ZonePartition.<Z>areaIn(areaPages, root).zones();
+                if (zones.contains(zone)) return root;
+            }
+            throw new IllegalArgumentException("Zone does not belong to any area in the partition");
+        }
+
+        /**
+         * Gives the current state of the area stored at the given root.
+         *
+         * @param root the root zone id
+         * @return the area stored at the given root
+         */
+        private Area<Z> currentArea(int root) {
+            Aggregate<Z> aggregate = aggregates.get(root);
+            return aggregate != null ? aggregate.toArea() : areaIn(areaPages, root);
+        }
+
+        /**
+         * Gives the mutable aggregate of the given root, creating it from the stored area if needed.
+         *
+         * @param root the root zone id
+         * @return the aggregate of the given root
+         */
+        private Aggregate<Z> aggregateOf(int root) {
+            ensureWritable(0);
+            return aggregates.computeIfAbsent(root, r -> new Aggregate<>(ZonePartition.<Z>areaIn(areaPages, r)));
+        }
+
+        /**
+         * Sets the root of the given zone id, copying its page if it is shared.
+         *
+         * @param id   the zone id
+         * @param root the root zone id
+         */
+        private void setRoot(int id, int root) {
+            int page = writablePage(id);
+            rootPages[page][id & PAGE_MASK] = root;
+        }
+
+        /**
+         * Gives the rank of the given root.
+         *
+         * @param root the root zone id
+         * @return the rank of the root
+         */
+        private int rankOf(int root) {
+            return rankPages[root >>> PAGE_BITS][root & PAGE_MASK];
+        }
+
+        /**
+         * Sets the rank of the given root, copying its page if it is shared.
+         *
+         * @param root the root zone id
+         * @param rank the rank
+         */
+        private void setRank(int root, int rank) {
+            int page = writablePage(root);
+            rankPages[page][root & PAGE_MASK] = (byte) rank;
+        }
+
+        /**
+         * Sets the area stored at the given root, copying its page if it is shared.
+         *
+         * @param root the root zone id
+         * @param area the area, or null if the zone is no longer a root
+         */
+        private void setArea(int root, Area<Z> area) {
+            int page = writablePage(root);
+            areaPages[page][root & PAGE_MASK] = area;
+        }
+
+        /**
+         * Gives the page of the given zone id, after making sure that it is owned by this builder.
+         *
+         * @param id the zone id
+         * @return the index of the page of the zone id
+         */
+        private int writablePage(int id) {
+            ensureWritable(id + 1);
+            int page = id >>> PAGE_BITS;
+            if (!ownedPages[page]) {
+                rootPages[page] = rootPages[page].clone();
+                rankPages[page] = rankPages[page].clone();
+                areaPages[page] = areaPages[page].clone();
+                ownedPages[page] = true;
+            }
+            return page;
+        }
+
+        /**
+         * Makes sure that the page tables are owned by this builder and can hold at least the given number of zone ids.
+         * The pages themselves stay shared until they are modified.
+         *
+         * @param capacity the minimal number of zone ids
+         */
+        private void ensureWritable(int capacity) {
+            int pageCount = (capacity + PAGE_MASK) >>> PAGE_BITS;
+            if (!shared && pageCount <= rootPages.length) return;
+
+            int newPageCount = pageCount <= rootPages.length ? rootPages.length : Math.max(pageCount, 2 * rootPages.length);
+            int oldPageCount = rootPages.length;
+            rootPages = Arrays.copyOf(rootPages, newPageCount);
+            rankPages = Arrays.copyOf(rankPages, newPageCount);
+            areaPages = Arrays.copyOf(areaPages, newPageCount);
+            Arrays.fill(rootPages, oldPageCount, newPageCount, NO_ROOTS_PAGE);
+            Arrays.fill(rankPages, oldPageCount, newPageCount, NO_RANKS_PAGE);
+            Arrays.fill(areaPages, oldPageCount, newPageCount, NO_AREAS_PAGE);
+            ownedPages = shared ? new boolean[newPageCount] : Arrays.copyOf(ownedPages, newPageCount);
+            shared = false;
+        }
+    }
+
+    /**
+     * Mutable aggregate of an area being modified by a builder : its zones, occupants and open connections.
+     * The zones are shared with the area it was created from until it is merged with another aggregate.
+     *
+     * @param <Z> the type of zones in the area
+     */
+    private static final class Aggregate<Z extends Zone> {
+        private Set<Z> zones;
+        private boolean zonesShared;
+        private final List<PlayerColor> occupants;
+        private int openConnections;
+
+        private Aggregate(Z zone, int openConnections) {
+            this.zones = new HashSet<>();
+            this.zones.add(zone);
+            this.occupants = new ArrayList<>();
+            this.openConnections = openConnections;
+        }
+
+        private Aggregate(Area<Z> area) {
+            this.zones = area.zones();
+            this.zonesShared = true;
+            this.occupants = new ArrayList<>(area.occupants());
+            this.openConnections = area.openConnections();
+        }
+
+        /**
+         * Merges the given aggregate into this one, consuming the two open connections that were joined.
+         *
+         * @param that the aggregate to merge into this one
+         */
+        private void absorb(Aggregate<Z> that) {
+            //the zones of the smallest aggregate are added to the ones of the biggest
+            Aggregate<Z> biggest = zones.size() >= that.zones.size() ? this : that;
+            Aggregate<Z> smallest = biggest == this ? that : this;
+
+            Set<Z> mergedZones = biggest.zonesShared ? new HashSet<>(biggest.zones) : biggest.zones;
+            mergedZones.addAll(smallest.zones);
+
+            zones = mergedZones;
+            zonesShared = false;
+            occupants.addAll(that.occupants);
+            openConnections += that.openConnections - 2;
+        }
+
+        private Area<Z> toArea() {
+            return new Area<>(zones, occupants, openConnections);
         }
     }
 }
@@ -0,0 +1,24 @@
+package ch.epfl.chacun.bot;
+
+import ch.epfl.chacun.GameState;
+import ch.epfl.chacun.MoveGenerator;
+
+/**
+ * Interface representing an automatic player, choosing its moves among the legal ones.
+ * A bot may keep a state (e.g. a random generator), so each game should use its own instance.
+ *
+ * @author Ilyes Rouibi (372420)
+ * @author Weifeng Ding (379902)
+ */
+@FunctionalInterface
+public interface Bot {
+    /**
+     * Chooses a move among the given legal moves of the given game state.
+     *
+     * @param gameState the game state, whose next action is PLACE_TILE, OCCUPY_TILE or RETAKE_PAWN
+     * @param moves     the legal moves, packed as described in {@link MoveGenerator}
+     * @param moveCount the number of legal moves (at least 1)
+     * @return the chosen move, one of the first {@code moveCount} moves
+     */
+    int chooseMove(GameState gameState, int[] moves, int moveCount);
+}
@@ -0,0 +1,93 @@
+package ch.epfl.chacun.bot;
+
+import ch.epfl.chacun.GameState;
+import ch.epfl.chacun.MoveGenerator;
+import ch.epfl.chacun.Preconditions;
+
+import java.util.List;
+
+/**
+ * This class provides the bots available by name, for the command-line tools.
+ *
+ * @author Ilyes Rouibi (372420)
+ * @author Weifeng Ding (379902)
+ */
+public final class Bots {
+    /**
+     * The names of the available bot policies
+     */
+    public static final List<String> POLICIES = List.of("random", "first", "mcts");
+
+    /**
+     * The default thinking time per move of the "mcts" policy, in milliseconds
+     */
+    public static final long DEFAULT_MCTS_MILLIS = 100;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private Bots() {
+    }
+
+    /**
+     * Creates a new bot following the given policy :
+     * "random" chooses a legal move at random, "first" always chooses the first legal move,
+     * "mcts" searches the best move with a {@link MctsBot} using all the processors.
+     * The budget of the "mcts" policy can be given after a colon, either as a time ("mcts:500ms")
+     * or as a number of iterations ("mcts:2000it"), the default being {@value #DEFAULT_MCTS_MILLIS} ms.
+     *
+     * @param policy the name of the policy
+     * @param seed   the seed of the bot, if it uses randomness
+     * @return a new bot following the policy
+     * @throws IllegalArgumentException if the policy or its budget is unknown
+     */
+    public static Bot create(String policy, long seed) {
+        int colon = policy.indexOf(':');
+        String name = colon < 0 ? policy : policy.substring(0, colon);
+        Preconditions.checkArgument(colon < 0 || name.equals("mcts"));
+        return switch (name) {
+            case "random" -> new RandomBot(seed);
+            case "first" -> (gameState, moves, moveCount) -> moves[0];
+            case "mcts" -> createMcts(colon < 0 ? null : policy.substring(colon + 1), seed);
+            default -> throw new IllegalArgumentException("Unknown bot policy: " + policy);
+        };
+    }
+
+    /**
+     * Creates a MCTS bot with the given budget.
+     *
+     * @param budget the budget ("500ms" or "2000it"), or null for the default one
+     * @param seed   the seed of the bot
+     * @return a new MCTS bot
+     * @throws IllegalArgumentException if the budget is invalid
+     */
+    private static MctsBot createMcts(String budget, long seed) {
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        if (budget == null) {
+            return new MctsBot(seed, 0, DEFAULT_MCTS_MILLIS, parallelism);
+        }
+        try {
+            if (budget.endsWith("ms")) {
+                return new MctsBot(seed, 0, Long.parseLong(budget.substring(0, budget.length() - 2)), parallelism);
+            } else if (budget.endsWith("it")) {
+                return new MctsBot(seed, Integer.parseInt(budget.substring(0, budget.length() - 2)), 0, parallelism);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid bot budget: " + budget);
+        }
+        throw new IllegalArgumentException("Invalid bot budget: " + budget);
+    }
+
+    /**
+     * Lets the given bot choose a move for the given game state, and applies it.
+     *
+     * @param bot       the bot
+     * @param gameState the game state, whose next action is PLACE_TILE, OCCUPY_TILE or RETAKE_PAWN
+     * @param moves     the array to generate the legal moves in (see {@link MoveGenerator#MAX_MOVES})
+     * @return the game state after the move
+     */
+    public static GameState play(Bot bot, GameState gameState, int[] moves) {
+        int moveCount = MoveGenerator.generate(gameState, moves);
+        return MoveGenerator.apply(gameState, bot.chooseMove(gameState, moves, moveCount));
+    }
+}
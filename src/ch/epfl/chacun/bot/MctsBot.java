@@ -0,0 +1,399 @@
+package ch.epfl.chacun.bot;
+
+import ch.epfl.chacun.*;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Bot choosing its tile placements, occupants and pawn retakes by Monte Carlo Tree Search (UCT)
+ * over the {@link GameState} transitions, the edges of the tree being the packed moves of {@link MoveGenerator}.
+ * <p>
+ * The order of the tiles remaining in the decks is hidden to the players, so every search works on a
+ * determinization of the game state, whose normal and menhir decks are shuffled. The searches run in parallel
+ * (root parallelism) : each worker grows its own tree on its own determinization, without sharing any node,
+ * and the visits of the moves of the root are summed once the budget is spent.
+ * <p>
+ * The budget of a move is a number of iterations (shared out between the workers) and/or a thinking time.
+ * With an iteration budget only, the moves chosen depend only on the seed and the parallelism.
+ * The thinking time starts once the searches are set up, and is measured for every move,
+ * to check that the bot keeps to its time budget.
+ *
+ * @author Ilyes Rouibi (372420)
+ * @author Weifeng Ding (379902)
+ */
+public final class MctsBot implements Bot {
+    /**
+     * The exploration constant of the UCT formula
+     */
+    public static final double EXPLORATION = Math.sqrt(2);
+
+    /**
+     * The maximum number of random moves played by a rollout before the game state is evaluated
+     */
+    public static final int ROLLOUT_PLIES = 48;
+
+    /**
+     * The time by which a move may exceed its time budget without being an overrun, in nanoseconds : the deadline
+     * is checked before every ply, so a move ends at most one ply and the gathering of the statistics after it
+     */
+    public static final long OVERRUN_ALLOWANCE_NANOS = 10_000_000;
+
+    /**
+     * The time before the end of the time budget at which the searches stop, in nanoseconds, so that the ply
+     * being played when the deadline is checked for the last time usually ends within the budget
+     */
+    public static final long STOP_MARGIN_NANOS = 2_000_000;
+
+    //difference of points for which the reward of a player is about 0.88 (tanh(1) / 2 + 0.5)
+    private static final double POINTS_SCALE = 10;
+
+    private final SplittableRandom random;
+    private final int iterations;
+    private final long timeBudgetNanos;
+    private final int parallelism;
+    //the executor of the searches, reused for every move (its virtual threads end with the searches of a move)
+    private final ExecutorService executor;
+
+    private final LongSummaryStatistics moveNanos = new LongSummaryStatistics();
+    private int overruns;
+    private long lastMoveNanos;
+    private int lastMoveIterations;
+
+    /**
+     * Constructs a MCTS bot.
+     *
+     * @param seed             the seed of the random generator
+     * @param iterations       the maximum number of iterations per move, or 0 for no limit
+     * @param timeBudgetMillis the maximum thinking time per move in milliseconds, or 0 for no limit
+     * @param parallelism      the number of searches running in parallel
+     * @throws IllegalArgumentException if a budget is negative, if there is no budget at all,
+     *                                  or if the parallelism is not positive
+     */
+    public MctsBot(long seed, int iterations, long timeBudgetMillis, int parallelism) {
+        Preconditions.checkArgument(iterations >= 0 && timeBudgetMillis >= 0 && (iterations > 0 || timeBudgetMillis > 0));
+        Preconditions.checkArgument(parallelism > 0);
+        this.random = new SplittableRandom(seed);
+        this.iterations = iterations;
+        this.timeBudgetNanos = timeBudgetMillis * 1_000_000;
+        this.parallelism = parallelism;
+        this.executor = parallelism > 1 ? Executors.newVirtualThreadPerTaskExecutor() : null;
+    }
+
+    @Override
+    public int chooseMove(GameState gameState, int[] moves, int moveCount) {
+        if (moveCount == 1) {
+            recordMove(0, 0);
+            return moves[0];
+        }
+
+        int[] rootMoves = Arrays.copyOf(moves, moveCount);
+        List<Search> searches = new ArrayList<>();
+        for (int i = 0; i < parallelism; i++) {
+            //the iterations are shared out beforehand, so that the result does not depend on the scheduling
+            int workerIterations = iterations == 0
+                    ? Integer.MAX_VALUE
+                    : iterations / parallelism + (i < iterations % parallelism ? 1 : 0);
+            searches.add(new Search(gameState, rootMoves, random.split(), workerIterations));
+        }
+
+        long start = System.nanoTime();
+        long deadline = timeBudgetNanos > 0 ? start + Math.max(timeBudgetNanos - STOP_MARGIN_NANOS, 0) : Long.MAX_VALUE;
+        runAll(searches, deadline);
+
+        //the most visited move is the most robust one, ties are broken by the mean reward
+        int iterationsDone = 0;
+        int[] visits = new int[moveCount];
+        double[] rewards = new double[moveCount];
+        for (Search search : searches) {
+            iterationsDone += search.root.visits;
+            search.root.addRootStatistics(rootMoves, visits, rewards);
+        }
+        int best = 0;
+        for (int i = 1; i < moveCount; i++) {
+            if (visits[i] > visits[best]
+                    || visits[i] == visits[best] && rewards[i] * visits[best] > rewards[best] * visits[i])
+                best = i;
+        }
+        recordMove(System.nanoTime() - start, iterationsDone);
+        return rootMoves[best];
+    }
+
+    /**
+     * Runs the given searches until the given deadline, in the current thread if there is only one,
+     * in virtual threads of the executor of the bot otherwise.
+     *
+     * @param searches the searches to run
+     * @param deadline the time at which the searches stop, in the time of {@link System#nanoTime()}
+     */
+    private void runAll(List<Search> searches, long deadline) {
+        for (Search search : searches) search.deadline = deadline;
+        if (searches.size() == 1) {
+            searches.getFirst().run();
+            return;
+        }
+        try {
+            List<Future<?>> futures = searches.stream().<Future<?>>map(executor::submit).toList();
+            for (Future<?> future : futures) future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Records the time taken and the iterations done by a move.
+     *
+     * @param nanos      the time taken by the move, in nanoseconds
+     * @param iterations the number of iterations done
+     */
+    private synchronized void recordMove(long nanos, int iterations) {
+        moveNanos.accept(nanos);
+        lastMoveNanos = nanos;
+        lastMoveIterations = iterations;
+        if (timeBudgetNanos > 0 && nanos > timeBudgetNanos + OVERRUN_ALLOWANCE_NANOS) overruns++;
+    }
+
+    /**
+     * Returns the statistics of the times taken by the moves chosen so far, in nanoseconds : the thinking time,
+     * from the end of the setup of the searches to the choice of the move (0 for a move without alternative).
+     *
+     * @return the statistics of the times taken by the moves
+     */
+    public synchronized LongSummaryStatistics moveNanos() {
+        LongSummaryStatistics copy = new LongSummaryStatistics();
+        copy.combine(moveNanos);
+        return copy;
+    }
+
+    /**
+     * Returns the number of moves which took longer than the time budget and its allowance
+     * (see {@link #OVERRUN_ALLOWANCE_NANOS}).
+     *
+     * @return the number of moves over the time budget (always 0 if there is no time budget)
+     */
+    public synchronized int overruns() {
+        return overruns;
+    }
+
+    /**
+     * Returns the time taken by the last move, in nanoseconds.
+     *
+     * @return the time taken by the last move
+     */
+    public synchronized long lastMoveNanos() {
+        return lastMoveNanos;
+    }
+
+    /**
+     * Returns the number of iterations done by all the workers for the last move.
+     *
+     * @return the number of iterations of the last move
+     */
+    public synchronized int lastMoveIterations() {
+        return lastMoveIterations;
+    }
+
+    /**
+     * Returns a copy of the given game state whose normal and menhir decks are shuffled,
+     * the tile to place being kept.
+     *
+     * @param gameState the game state
+     * @param random    the random generator
+     * @return the determinized game state
+     */
+    private static GameState determinized(GameState gameState, SplittableRandom random) {
+        TileDecks decks = gameState.tileDecks();
+        List<Tile> normalTiles = new ArrayList<>(decks.normalTiles());
+        List<Tile> menhirTiles = new ArrayList<>(decks.menhirTiles());
+        Collections.shuffle(normalTiles, random);
+        Collections.shuffle(menhirTiles, random);
+        return new GameState(gameState.players(),
+                new TileDecks(decks.startTiles(), normalTiles, menhirTiles),
+                gameState.tileToPlace(),
+                gameState.board(),
+                gameState.nextAction(),
+                gameState.messageBoard());
+    }
+
+    /**
+     * Returns the reward of every player in the given state, indexed by color, between 0 and 1 :
+     * it grows with the difference between the points of the player and the best points of the other players.
+     *
+     * @param gameState the game state
+     * @return the rewards of the players
+     */
+    private static double[] rewards(GameState gameState) {
+        Map<PlayerColor, Integer> points = gameState.messageBoard().points();
+        double[] rewards = new double[PlayerColor.ALL.size()];
+        for (PlayerColor player : gameState.players()) {
+            int bestOther = 0;
+            for (PlayerColor other : gameState.players()) {
+                if (other != player) bestOther = Math.max(bestOther, points.getOrDefault(other, 0));
+            }
+            double difference = points.getOrDefault(player, 0) - bestOther;
+            rewards[player.ordinal()] = 0.5 + 0.5 * Math.tanh(difference / POINTS_SCALE);
+        }
+        return rewards;
+    }
+
+    /**
+     * A search tree grown by one worker, on its own determinization of the game state.
+     */
+    private static final class Search implements Runnable {
+        private final Node root;
+        private final SplittableRandom random;
+        private int remainingIterations;
+        private long deadline;
+        private final int[] scratch = new int[MoveGenerator.MAX_MOVES];
+        private final List<Node> path = new ArrayList<>();
+
+        private Search(GameState gameState, int[] rootMoves, SplittableRandom random, int iterations) {
+            this.random = random;
+            this.root = new Node(determinized(gameState, random), rootMoves.clone(), null);
+            this.remainingIterations = iterations;
+        }
+
+        @Override
+        public void run() {
+            while (System.nanoTime() < deadline && remainingIterations-- > 0) {
+                iterate();
+            }
+        }
+
+        /**
+         * Does one iteration : selects a leaf with UCT, expands it, plays a random rollout from the new node
+         * and backs its rewards up to the root.
+         */
+        private void iterate() {
+            path.clear();
+            Node node = root;
+            path.add(node);
+            while (!node.isTerminal() && node.isFullyExpanded()) {
+                node = node.selectChild();
+                path.add(node);
+            }
+            if (!node.isTerminal()) {
+                node = node.expand(random, scratch);
+                path.add(node);
+            }
+            GameState reached = rollout(node.state);
+            double[] rewards = rewards(reached);
+            for (Node visited : path) {
+                visited.visits++;
+                if (visited.mover != null) visited.reward += rewards[visited.mover.ordinal()];
+            }
+        }
+
+        /**
+         * Plays random moves from the given state, until the end of the game or {@link #ROLLOUT_PLIES} moves.
+         * The rollout is also cut short when the deadline is reached, so that a move does not overrun its time budget
+         * by the duration of a whole rollout, the state reached being evaluated like after {@link #ROLLOUT_PLIES} moves.
+         *
+         * @param gameState the state to start from
+         * @return the state reached
+         */
+        private GameState rollout(GameState gameState) {
+            for (int ply = 0; ply < ROLLOUT_PLIES && gameState.nextAction() != GameState.Action.END_GAME; ply++) {
+                if (System.nanoTime() >= deadline) break;
+                int moveCount = MoveGenerator.generate(gameState, scratch);
+                gameState = MoveGenerator.apply(gameState, scratch[random.nextInt(moveCount)]);
+            }
+            return gameState;
+        }
+    }
+
+    /**
+     * A node of a search tree. Its reward is the sum of the rewards, for the player who chose the move leading
+     * to it, of the rollouts that went through it.
+     */
+    private static final class Node {
+        private final GameState state;
+        private final int[] moves;
+        private final Node[] children;
+        private final PlayerColor mover;
+        private int expandedCount;
+        private int visits;
+        private double reward;
+
+        private Node(GameState state, int[] moves, PlayerColor mover) {
+            this.state = state;
+            this.moves = moves;
+            this.children = new Node[moves.length];
+            this.mover = mover;
+        }
+
+        private boolean isTerminal() {
+            return moves.length == 0;
+        }
+
+        private boolean isFullyExpanded() {
+            return expandedCount == moves.length;
+        }
+
+        /**
+         * Returns the child maximizing the UCT value.
+         *
+         * @return the selected child
+         */
+        private Node selectChild() {
+            double logVisits = Math.log(visits);
+            Node best = null;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (Node child : children) {
+                //a child whose rollout was abandoned at a deadline has not been visited yet
+                if (child.visits == 0) return child;
+                double value = child.reward / child.visits + EXPLORATION * Math.sqrt(logVisits / child.visits);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Adds the child of a move not tried yet, chosen at random.
+         * The untried moves are kept after the tried ones, so the index of a child stays the one of its move.
+         *
+         * @param random  the random generator
+         * @param scratch an array to generate the moves of the child in
+         * @return the new child
+         */
+        private Node expand(SplittableRandom random, int[] scratch) {
+            int index = expandedCount + random.nextInt(moves.length - expandedCount);
+            int move = moves[index];
+            moves[index] = moves[expandedCount];
+            moves[expandedCount] = move;
+
+            GameState childState = MoveGenerator.apply(state, move);
+            int moveCount = MoveGenerator.generate(childState, scratch);
+            Node child = new Node(childState, Arrays.copyOf(scratch, moveCount), state.currentPlayer());
+            children[expandedCount++] = child;
+            return child;
+        }
+
+        /**
+         * Adds the visits and the rewards of the children of this root to the given arrays,
+         * indexed like the given moves.
+         *
+         * @param rootMoves the moves of the root, in their original order
+         * @param visits    the visits of the moves
+         * @param rewards   the rewards of the moves
+         */
+        private void addRootStatistics(int[] rootMoves, int[] visits, double[] rewards) {
+            //the moves of the root are reordered by the expansions, so they are looked up by value
+            for (int i = 0; i < expandedCount; i++) {
+                int index = 0;
+                while (rootMoves[index] != moves[i]) index++;
+                visits[index] += children[i].visits;
+                rewards[index] += children[i].reward;
+            }
+        }
+    }
+}
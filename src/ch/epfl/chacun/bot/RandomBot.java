@@ -0,0 +1,29 @@
+package ch.epfl.chacun.bot;
+
+import ch.epfl.chacun.GameState;
+
+import java.util.SplittableRandom;
+
+/**
+ * Bot choosing uniformly one of the legal moves, with a seeded random generator.
+ *
+ * @author Ilyes Rouibi (372420)
+ * @author Weifeng Ding (379902)
+ */
+public final class RandomBot implements Bot {
+    private final SplittableRandom random;
+
+    /**
+     * Constructs a random bot.
+     *
+     * @param seed the seed of the random generator
+     */
+    public RandomBot(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public int chooseMove(GameState gameState, int[] moves, int moveCount) {
+        return moves[random.nextInt(moveCount)];
+    }
+}
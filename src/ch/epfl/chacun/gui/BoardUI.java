@@ -129,11 +129,10 @@ public final class BoardUI {
                                 // we set the background image to the tileToPlace's image
                                 if (mouseHovering.getValue() && tileToPlace != null) {
                                     backgroundImage = CellData.IMAGE_CACHE.computeIfAbsent(tileToPlace.id(), ImageLoader::normalImageForTile);
-                                    PlacedTile placedTileToPlace = new PlacedTile(tileToPlace, currentPlayer, rotation, currentPos);
 
                                     // If the mouse is hovering the cell and the player cannot place the tileToPlace on the cell,
                                     // the color of the veil should be white
-                                    if (!gameStateOV.getValue().board().canAddTile(placedTileToPlace)) {
+                                    if (!gameStateOV.getValue().board().canAddTileFast(tileToPlace, rotation, currentPos)) {
                                         veilColor = Color.WHITE;
                                     }
 
@@ -1,16 +1,25 @@
 package ch.epfl.chacun.gui;
 
 import ch.epfl.chacun.*;
+import ch.epfl.chacun.bot.Bot;
+import ch.epfl.chacun.bot.Bots;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.value.ObservableValue;
 import javafx.scene.Scene;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCodeCombination;
+import javafx.scene.input.KeyCombination;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.random.RandomGeneratorFactory;
 import java.util.stream.Collectors;
@@ -20,11 +29,19 @@ import java.util.stream.Stream;
 /**
  * The main class for the ChaCuN game application.
  * This class extends the {@link Application} class from JavaFX, providing the entry point for the JavaFX application.
+ * The players whose name is "bot:" followed by a policy of {@link Bots} (e.g. "bot:mcts") are played by a bot.
+ * The actions can be undone with Ctrl+Z and redone with Ctrl+Y, the turns of the bots being skipped.
+ * The move of a bot only depends on the seed of the game and on the number of actions played before it,
+ * so that undoing and redoing it gives the same move.
  *
  * @author Ilyes Rouibi (372420)
  * @author Weifeng Ding (379902)
  */
 public final class Main extends Application {
+    private static final String BOT_PREFIX = "bot:";
+
+    //bumped every time the history changes, a search started before being obsolete
+    private final AtomicLong historyGeneration = new AtomicLong();
 
     /**
      * The main method for launching the application.
@@ -64,6 +81,7 @@ public final class Main extends Application {
                 throw new IllegalArgumentException("Invalid seed format.");
             }
         } else {
+            seed = System.nanoTime();
             Collections.shuffle(tiles, RandomGeneratorFactory.getDefault().create());
         }
 
@@ -80,6 +98,18 @@ public final class Main extends Application {
         //instantiating playerColor list
         List<PlayerColor> playerColors = new ArrayList<>(colorAndNameMap.keySet());
 
+        //the players named "bot:<policy>" (e.g. "bot:mcts" or "bot:mcts:500ms") are played by a bot
+        Map<PlayerColor, String> bots = new EnumMap<>(PlayerColor.class);
+        for (PlayerColor playerColor : playerColors) {
+            String playerName = colorAndNameMap.get(playerColor);
+            if (playerName.startsWith(BOT_PREFIX)) {
+                String policy = playerName.substring(BOT_PREFIX.length());
+                //checks the policy before the game starts
+                Bots.create(policy, seed);
+                bots.put(playerColor, policy);
+            }
+        }
+
         //instantiating tileDecks
         Map<Tile.Kind, List<Tile>> tileDeckMap = tiles.stream().collect(Collectors.groupingBy(Tile::kind));
         TileDecks tileDecks = new TileDecks(tileDeckMap.get(Tile.Kind.START), tileDeckMap.get(Tile.Kind.NORMAL), tileDeckMap.getOrDefault(Tile.Kind.MENHIR, List.of()));
@@ -89,6 +119,9 @@ public final class Main extends Application {
 
         //instantiating the initial GameState
         GameState gameState = GameState.initial(playerColors, tileDecks, textMakerFr);
+
+        //instantiating the history of the game, starting once the starting tile is placed
+        GameHistory history = new GameHistory(gameState.withStartingTilePlaced());
         //-----END OF GAMESTATE'S INITIALIZATION-----//
 
 
@@ -112,25 +145,27 @@ public final class Main extends Application {
 
         Consumer<Pos> placeTileHandler = pos -> {
             GameState currentGameState = gameStateOV.getValue();
+            if (bots.containsKey(currentGameState.currentPlayer())) return;
             PlacedTile placedTileToPlace = new PlacedTile(currentGameState.tileToPlace(), currentGameState.currentPlayer(), rotationOV.getValue(), pos);
             if (currentGameState.board().canAddTile(placedTileToPlace)) {
                 ActionEncoder.StateAction stateAction = ActionEncoder.withPlacedTile(currentGameState, placedTileToPlace);
 
-                updateState(actionListOV, stateAction, gameStateOV);
+                updateState(history, actionListOV, stateAction, gameStateOV);
                 rotationOV.setValue(Rotation.NONE);
             }
         };
 
         Consumer<Occupant> occupantSelectionHandler = occupant -> {
             GameState currentGameState = gameStateOV.getValue();
+            if (bots.containsKey(currentGameState.currentPlayer())) return;
             if (currentGameState.nextAction() == GameState.Action.OCCUPY_TILE) {
                 ActionEncoder.StateAction stateActionAddedOccupant = ActionEncoder.withNewOccupant(currentGameState, occupant);
-                updateState(actionListOV, stateActionAddedOccupant, gameStateOV);
+                updateState(history, actionListOV, stateActionAddedOccupant, gameStateOV);
             } else if (currentGameState.nextAction() == GameState.Action.RETAKE_PAWN
                     &&
                     currentGameState.currentPlayer() == currentGameState.board().tileWithId(Zone.tileId(occupant.zoneId())).placer()) {
                 ActionEncoder.StateAction stateActionRemovedPawn = ActionEncoder.withOccupantRemoved(currentGameState, occupant);
-                updateState(actionListOV, stateActionRemovedPawn, gameStateOV);
+                updateState(history, actionListOV, stateActionRemovedPawn, gameStateOV);
             }
         };
 
@@ -151,24 +186,64 @@ public final class Main extends Application {
 
         Consumer<Occupant> clickableText = occupant -> {
             GameState currentGameState = gameStateOV.getValue();
+            if (bots.containsKey(currentGameState.currentPlayer())) return;
             if (gameStateOV.getValue().nextAction() == GameState.Action.OCCUPY_TILE) {
-                ActionEncoder.StateAction stateActionAddedNoOccupant = ActionEncoder.withNewOccupant(currentGameState, null);
-                actionListOV.setValue(Stream.concat(actionListOV.getValue().stream(), Stream.of(stateActionAddedNoOccupant.actionB32())).toList());
-
-                gameStateOV.setValue(gameStateOV.getValue().withNewOccupant(occupant));
+                ActionEncoder.StateAction stateActionAddedNoOccupant = ActionEncoder.withNewOccupant(currentGameState, occupant);
+                updateState(history, actionListOV, stateActionAddedNoOccupant, gameStateOV);
             } else if (gameStateOV.getValue().nextAction() == GameState.Action.RETAKE_PAWN) {
-                ActionEncoder.StateAction stateActionRemovedNoPawn = ActionEncoder.withOccupantRemoved(currentGameState, null);
-                actionListOV.setValue(Stream.concat(actionListOV.getValue().stream(), Stream.of(stateActionRemovedNoPawn.actionB32())).toList());
-                gameStateOV.setValue(gameStateOV.getValue().withOccupantRemoved(occupant));
+                ActionEncoder.StateAction stateActionRemovedNoPawn = ActionEncoder.withOccupantRemoved(currentGameState, occupant);
+                updateState(history, actionListOV, stateActionRemovedNoPawn, gameStateOV);
             }
         };
 
         Consumer<String> eventHandler = s -> {
+            if (bots.containsKey(gameStateOV.getValue().currentPlayer())) return;
             ActionEncoder.StateAction decodedStateAction = ActionEncoder.decodeAndApply(gameStateOV.getValue(), s);
             if (decodedStateAction != null) {
-                updateState(actionListOV, decodedStateAction, gameStateOV);
+                updateState(history, actionListOV, decodedStateAction, gameStateOV);
             }
         };
+        //when it is the turn of a bot, its move is searched in the background and then played like a typed action;
+        //the searches run one at a time, and those made obsolete by a change of the history are skipped or ignored
+        ExecutorService botExecutor = Executors.newSingleThreadExecutor(Thread.ofVirtual().factory());
+        gameStateOV.addListener((o, oldGameState, newGameState) -> {
+            String policy = bots.get(newGameState.currentPlayer());
+            if (policy == null || newGameState.nextAction() == GameState.Action.END_GAME) return;
+            long generation = historyGeneration.get();
+            long botSeed = (seed * PlayerColor.ALL.size() + newGameState.currentPlayer().ordinal()) * 31 + history.position();
+            botExecutor.execute(() -> {
+                if (historyGeneration.get() != generation) return;
+                Bot bot = Bots.create(policy, botSeed);
+                int[] moves = new int[MoveGenerator.MAX_MOVES];
+                int move = bot.chooseMove(newGameState, moves, MoveGenerator.generate(newGameState, moves));
+                ActionEncoder.StateAction stateAction = ActionEncoder.withMove(newGameState, move);
+                Platform.runLater(() -> {
+                    if (historyGeneration.get() == generation) {
+                        updateState(history, actionListOV, stateAction, gameStateOV);
+                    }
+                });
+            });
+        });
+
+        //undoing goes back to the last decision of a human player, and does nothing if there is none
+        Runnable undoHandler = () -> {
+            int position = history.position() - 1;
+            while (position >= 0 && bots.containsKey(history.stateAt(position).currentPlayer())) position--;
+            if (position < 0) return;
+            while (history.position() > position) history.undo();
+            showHistory(history, actionListOV, gameStateOV);
+            rotationOV.setValue(Rotation.NONE);
+        };
+
+        //redoing goes forward to the next decision of a human player, or to the last action
+        Runnable redoHandler = () -> {
+            if (!history.canRedo()) return;
+            GameState redoneGameState = history.redo();
+            while (history.canRedo() && bots.containsKey(redoneGameState.currentPlayer()))
+                redoneGameState = history.redo();
+            showHistory(history, actionListOV, gameStateOV);
+            rotationOV.setValue(Rotation.NONE);
+        };
         //---End of UI arguments instantiations---//
 
         //-----STAGE CREATION-----//
@@ -199,9 +274,11 @@ public final class Main extends Application {
                 clickableText));
 
         Scene scene = new Scene(rootBP);
+        scene.getAccelerators().put(new KeyCodeCombination(KeyCode.Z, KeyCombination.SHORTCUT_DOWN), undoHandler);
+        scene.getAccelerators().put(new KeyCodeCombination(KeyCode.Y, KeyCombination.SHORTCUT_DOWN), redoHandler);
 
         //placing the starting tile
-        gameStateOV.setValue(gameStateOV.getValue().withStartingTilePlaced());
+        gameStateOV.setValue(history.current());
 
         primaryStage.setScene(scene);
         primaryStage.setTitle("ChaCuN");
@@ -210,9 +287,15 @@ public final class Main extends Application {
         primaryStage.show();
     }
 
-    private static void updateState(ObjectProperty<List<String>> actionListOV, ActionEncoder.StateAction stateAction, ObjectProperty<GameState> gameStateOV) {
-        actionListOV.setValue(Stream.concat(actionListOV.getValue().stream(), Stream.of(stateAction.actionB32())).toList());
-        gameStateOV.setValue(stateAction.gameState());
+    private void updateState(GameHistory history, ObjectProperty<List<String>> actionListOV, ActionEncoder.StateAction stateAction, ObjectProperty<GameState> gameStateOV) {
+        history.push(stateAction);
+        showHistory(history, actionListOV, gameStateOV);
+    }
+
+    private void showHistory(GameHistory history, ObjectProperty<List<String>> actionListOV, ObjectProperty<GameState> gameStateOV) {
+        historyGeneration.incrementAndGet();
+        actionListOV.setValue(history.actions());
+        gameStateOV.setValue(history.current());
     }
 
 }
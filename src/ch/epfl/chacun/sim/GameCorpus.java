@@ -0,0 +1,636 @@
+package ch.epfl.chacun.sim;
+
+import ch.epfl.chacun.*;
+import ch.epfl.chacun.bot.Bot;
+import ch.epfl.chacun.bot.Bots;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+
+/**
+ * Immutable corpus of game records, stored in two files which are only ever appended to :
+ * <ul>
+ *     <li>the data segment, the records of the games one after the other, in the {@code .chacun} format
+ *     (see {@link GameRecordWriter}),</li>
+ *     <li>the index, whose name is the one of the data segment followed by {@code .idx}, giving the offset
+ *     of the end of every record in the data segment, as a big-endian long.</li>
+ * </ul>
+ * An {@link Appender} writes a record to the data segment before indexing it, so that a record which is not
+ * completely written is not in the corpus, and is overwritten by the next appender.
+ * <p>
+ * Both files are mapped into memory once the corpus is opened, so that the record of any game is found in
+ * constant time through the index, and read in place, without being copied. Its actions are read as the packed
+ * codes of {@link ActionEncoder}, which are only played (see {@link #replay(int, TextMaker)}) if needed.
+ * The records are scanned in order by {@link #scan}, or in parallel by {@link #scanParallel}, which splits
+ * the games into ranges scanned by the threads of a fork/join pool.
+ * <p>
+ * Usage : {@code java -cp target/classes ch.epfl.chacun.sim.GameCorpus --corpus=FILE [--seeds=FIRST..LAST]
+ * [--players=N] [--bot=POLICY] [--parallelism=THREADS]}, which appends to the corpus the games of the given seeds
+ * played like {@link Simulator} does, if any, then replays all the games of the corpus and prints the throughput
+ * and the statistics of the scores.
+ *
+ * @author Ilyes Rouibi (372420)
+ * @author Weifeng Ding (379902)
+ */
+public final class GameCorpus {
+    /**
+     * The extension added to the name of the data segment to get the name of the index
+     */
+    public static final String INDEX_EXTENSION = ".idx";
+
+    //a mapped buffer cannot be larger than 2 GiB, the data segment is thus mapped in chunks of whole records
+    static final int MAX_CHUNK_SIZE = Integer.MAX_VALUE;
+    private static final int SCAN_THRESHOLD = 1 << 10;
+
+    private final LongBuffer ends;
+    private final ByteBuffer[] chunks;
+    private final long[] chunkStarts;
+    private final int[] chunkFirstGames;
+
+    /**
+     * Constructs the corpus of the given mapped index and chunks.
+     *
+     * @param ends            the offsets of the ends of the records
+     * @param chunks          the mapped chunks of the data segment
+     * @param chunkStarts     the offsets of the chunks in the data segment
+     * @param chunkFirstGames the indexes of the first game of every chunk
+     */
+    private GameCorpus(LongBuffer ends, ByteBuffer[] chunks, long[] chunkStarts, int[] chunkFirstGames) {
+        this.ends = ends;
+        this.chunks = chunks;
+        this.chunkStarts = chunkStarts;
+        this.chunkFirstGames = chunkFirstGames;
+    }
+
+    /**
+     * Opens the corpus whose data segment is the given file, by mapping it and its index into memory.
+     *
+     * @param data the path of the data segment
+     * @return the corpus
+     * @throws IOException if an I/O error occurs, or if the index refers to records which are not in the data segment
+     */
+    public static GameCorpus open(Path data) throws IOException {
+        return open(data, MAX_CHUNK_SIZE);
+    }
+
+    /**
+     * Opens the corpus whose data segment is the given file, mapped in chunks of at most the given size,
+     * unless a single record is larger.
+     *
+     * @param data         the path of the data segment
+     * @param maxChunkSize the maximal size of a chunk
+     * @return the corpus
+     * @throws IOException if an I/O error occurs, or if the index refers to records which are not in the data segment
+     */
+    static GameCorpus open(Path data, int maxChunkSize) throws IOException {
+        try (FileChannel dataChannel = FileChannel.open(data, StandardOpenOption.READ);
+             FileChannel indexChannel = FileChannel.open(indexOf(data), StandardOpenOption.READ)) {
+            //the last entry of the index may be incomplete
+            long indexSize = indexChannel.size() / Long.BYTES * Long.BYTES;
+            if (indexSize > Integer.MAX_VALUE) throw new IOException("too many games");
+            LongBuffer ends = indexChannel.map(FileChannel.MapMode.READ_ONLY, 0, indexSize).asLongBuffer();
+            int size = ends.capacity();
+            if (size > 0 && ends.get(size - 1) > dataChannel.size()) throw new IOException("truncated data segment");
+
+            List<ByteBuffer> chunks = new ArrayList<>();
+            List<Long> chunkStarts = new ArrayList<>();
+            List<Integer> chunkFirstGames = new ArrayList<>();
+            for (int first = 0; first < size; ) {
+                long start = startOf(ends, first);
+                int last = lastGameBefore(ends, first, start + maxChunkSize);
+                chunks.add(dataChannel.map(FileChannel.MapMode.READ_ONLY, start, ends.get(last) - start));
+                chunkStarts.add(start);
+                chunkFirstGames.add(first);
+                first = last + 1;
+            }
+            return new GameCorpus(ends,
+                    chunks.toArray(ByteBuffer[]::new),
+                    chunkStarts.stream().mapToLong(s -> s).toArray(),
+                    chunkFirstGames.stream().mapToInt(f -> f).toArray());
+        }
+    }
+
+    /**
+     * Opens an appender to the corpus whose data segment is the given file, creating both files if they do not
+     * exist yet. The bytes of a record which was not completely appended are dropped.
+     *
+     * @param data the path of the data segment
+     * @return the appender
+     * @throws IOException if an I/O error occurs, or if the index refers to records which are not in the data segment
+     */
+    public static Appender appender(Path data) throws IOException {
+        return new Appender(data);
+    }
+
+    /**
+     * Returns the number of games of the corpus.
+     *
+     * @return the number of games
+     */
+    public int size() {
+        return ends.capacity();
+    }
+
+    /**
+     * Returns the record of the given game, read in place in the mapped data segment.
+     *
+     * @param game the index of the game
+     * @return a read-only buffer of the record of the game
+     * @throws IndexOutOfBoundsException if there is no game of the given index
+     */
+    public ByteBuffer record(int game) {
+        Objects.checkIndex(game, size());
+        int chunk = chunkOf(game);
+        long start = startOf(ends, game);
+        return chunks[chunk].slice((int) (start - chunkStarts[chunk]), (int) (ends.get(game) - start));
+    }
+
+    /**
+     * Returns a reader of the record of the given game.
+     *
+     * @param game the index of the game
+     * @return the reader of the record, before its header
+     * @throws IndexOutOfBoundsException if there is no game of the given index
+     */
+    public GameRecordReader reader(int game) {
+        return new GameRecordReader(record(game));
+    }
+
+    /**
+     * Returns the header of the given game.
+     *
+     * @param game the index of the game
+     * @return the header of the game
+     * @throws IndexOutOfBoundsException if there is no game of the given index
+     * @throws IOException               if the record is invalid
+     */
+    public GameRecordHeader header(int game) throws IOException {
+        return reader(game).readHeader();
+    }
+
+    /**
+     * Reads the packed codes of the actions of the given game into the given array.
+     *
+     * @param game  the index of the game
+     * @param codes the array receiving the packed codes of the actions (see {@link MoveGenerator})
+     * @return the number of actions of the game
+     * @throws IndexOutOfBoundsException if there is no game of the given index
+     * @throws IllegalArgumentException  if the array is too small
+     * @throws IOException               if the record is invalid
+     */
+    public int actions(int game, int[] codes) throws IOException {
+        GameRecordReader reader = reader(game);
+        reader.readHeader();
+        return reader.readActions(codes);
+    }
+
+    /**
+     * Replays the given game.
+     *
+     * @param game      the index of the game
+     * @param textMaker the text maker of the messages
+     * @return the state of the game once all its actions are played
+     * @throws IndexOutOfBoundsException if there is no game of the given index
+     * @throws IllegalArgumentException  if the seed of the game does not give the tiles it was played with
+     * @throws IOException               if the record is invalid
+     */
+    public GameState replay(int game, TextMaker textMaker) throws IOException {
+        GameRecordReader reader = reader(game);
+        return replay(reader.readHeader(), reader, textMaker);
+    }
+
+    /**
+     * Replays the game of the given header, whose remaining actions are read by the given reader.
+     *
+     * @param header    the header of the game
+     * @param actions   the reader of the actions of the game
+     * @param textMaker the text maker of the messages
+     * @return the state of the game once all its actions are played
+     * @throws IllegalArgumentException if the seed of the game does not give the tiles it was played with
+     * @throws IOException              if the record is invalid
+     */
+    public static GameState replay(GameRecordHeader header, GameRecordReader actions, TextMaker textMaker) throws IOException {
+        GameState gameState = header.initialState(textMaker).withStartingTilePlaced();
+        for (int code = actions.readAction(); code != GameRecordReader.END_OF_RECORD; code = actions.readAction()) {
+            gameState = MoveGenerator.apply(gameState, code);
+        }
+        return gameState;
+    }
+
+    /**
+     * Visitor of the records of a scan.
+     *
+     * @param <R> the type of the result of a visit
+     */
+    @FunctionalInterface
+    public interface RecordVisitor<R> {
+        /**
+         * Visits the record of the given game, whose actions are read by the given reader if needed.
+         *
+         * @param game    the index of the game
+         * @param header  the header of the game
+         * @param actions the reader of the actions of the game, only valid during the visit
+         * @return the result of the visit
+         * @throws IOException if the record is invalid
+         */
+        R visit(int game, GameRecordHeader header, GameRecordReader actions) throws IOException;
+    }
+
+    /**
+     * Visits in order the records of the games of the given range, read in place, and combines the results
+     * of the visits.
+     *
+     * @param from     the index of the first game (inclusive)
+     * @param to       the index of the last game (exclusive)
+     * @param visitor  the visitor of the records
+     * @param identity the result of a scan of no game
+     * @param combiner the associative function combining the results
+     * @param <R>      the type of the results
+     * @return the combination of the identity and of the results of the visits, in order
+     * @throws IndexOutOfBoundsException if the range is not a range of games of the corpus
+     * @throws IOException               if a record is invalid
+     */
+    public <R> R scan(int from, int to, RecordVisitor<R> visitor, R identity, BinaryOperator<R> combiner) throws IOException {
+        Objects.checkFromToIndex(from, to, size());
+        R result = identity;
+        int game = from;
+        while (game < to) {
+            //one reader per chunk, which reads the records one after the other
+            int chunk = chunkOf(game);
+            int chunkEnd = Math.min(to, chunk + 1 < chunks.length ? chunkFirstGames[chunk + 1] : size());
+            long start = startOf(ends, game);
+            ByteBuffer records = chunks[chunk].slice((int) (start - chunkStarts[chunk]), (int) (ends.get(chunkEnd - 1) - start));
+            GameRecordReader reader = new GameRecordReader(records);
+            for (; game < chunkEnd; game++) {
+                result = combiner.apply(result, visitor.visit(game, reader.readHeader(), reader));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Visits the records of all the games in parallel, by splitting them into ranges scanned by the given number
+     * of threads, and combines the results of the visits. The visitor must be thread-safe.
+     *
+     * @param visitor     the visitor of the records
+     * @param identity    the result of a scan of no game
+     * @param combiner    the associative function combining the results
+     * @param parallelism the number of threads
+     * @param <R>         the type of the results
+     * @return the combination of the identity and of the results of the visits, in order
+     * @throws IllegalArgumentException if the parallelism is not positive
+     * @throws IOException              if a record is invalid
+     */
+    public <R> R scanParallel(RecordVisitor<R> visitor, R identity, BinaryOperator<R> combiner, int parallelism) throws IOException {
+        return scanParallel(visitor, identity, combiner, parallelism, SCAN_THRESHOLD);
+    }
+
+    /**
+     * Visits the records of all the games in parallel, ranges of at most the given number of games being scanned
+     * sequentially.
+     *
+     * @param visitor     the visitor of the records
+     * @param identity    the result of a scan of no game
+     * @param combiner    the associative function combining the results
+     * @param parallelism the number of threads
+     * @param threshold   the maximal number of games of the ranges scanned sequentially
+     * @param <R>         the type of the results
+     * @return the combination of the identity and of the results of the visits, in order
+     * @throws IllegalArgumentException if the parallelism or the threshold is not positive
+     * @throws IOException              if a record is invalid
+     */
+    <R> R scanParallel(RecordVisitor<R> visitor, R identity, BinaryOperator<R> combiner, int parallelism, int threshold) throws IOException {
+        Preconditions.checkArgument(parallelism > 0 && threshold > 0);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.submit(new ScanTask<>(this, 0, size(), visitor, identity, combiner, threshold)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException uncheckedIOException) throw uncheckedIOException.getCause();
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Task scanning a range of games, split in two halves scanned in parallel if it is larger than the threshold.
+     *
+     * @param <R> the type of the results
+     */
+    //the tasks are never serialized, their fields thus need not be serializable
+    @SuppressWarnings("serial")
+    private static final class ScanTask<R> extends RecursiveTask<R> {
+        private static final long serialVersionUID = 1L;
+
+        private final GameCorpus corpus;
+        private final int from;
+        private final int to;
+        private final RecordVisitor<R> visitor;
+        private final R identity;
+        private final BinaryOperator<R> combiner;
+        private final int threshold;
+
+        private ScanTask(GameCorpus corpus, int from, int to, RecordVisitor<R> visitor, R identity,
+                         BinaryOperator<R> combiner, int threshold) {
+            this.corpus = corpus;
+            this.from = from;
+            this.to = to;
+            this.visitor = visitor;
+            this.identity = identity;
+            this.combiner = combiner;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected R compute() {
+            if (to - from <= threshold) {
+                try {
+                    return corpus.scan(from, to, visitor, identity, combiner);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            int middle = (from + to) >>> 1;
+            ScanTask<R> left = new ScanTask<>(corpus, from, middle, visitor, identity, combiner, threshold);
+            left.fork();
+            R right = new ScanTask<>(corpus, middle, to, visitor, identity, combiner, threshold).compute();
+            return combiner.apply(left.join(), right);
+        }
+    }
+
+    /**
+     * Returns the index of the chunk holding the record of the given game.
+     *
+     * @param game the index of the game
+     * @return the index of the chunk
+     */
+    private int chunkOf(int game) {
+        int chunk = Arrays.binarySearch(chunkFirstGames, game);
+        return chunk >= 0 ? chunk : -chunk - 2;
+    }
+
+    /**
+     * Returns the offset of the start of the record of the given game.
+     *
+     * @param ends the offsets of the ends of the records
+     * @param game the index of the game
+     * @return the offset of the start of the record
+     */
+    private static long startOf(LongBuffer ends, int game) {
+        return game == 0 ? 0 : ends.get(game - 1);
+    }
+
+    /**
+     * Returns the index of the last game, from the given one, whose record ends before the given offset,
+     * or the given game if its record ends after.
+     *
+     * @param ends  the offsets of the ends of the records
+     * @param first the index of the first game
+     * @param limit the offset
+     * @return the index of the last game whose record ends before the offset
+     */
+    private static int lastGameBefore(LongBuffer ends, int first, long limit) {
+        int low = first;
+        int high = ends.capacity() - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (ends.get(middle) <= limit) low = middle;
+            else high = middle - 1;
+        }
+        return low;
+    }
+
+    /**
+     * Returns the path of the index of the given data segment.
+     *
+     * @param data the path of the data segment
+     * @return the path of its index
+     */
+    private static Path indexOf(Path data) {
+        return data.resolveSibling(data.getFileName() + INDEX_EXTENSION);
+    }
+
+    /**
+     * Appender of game records to a corpus, which indexes every record once it is ended.
+     */
+    public static final class Appender implements Closeable {
+        private final FileChannel dataChannel;
+        private final FileChannel indexChannel;
+        private final GameRecordWriter writer;
+        private final ByteBuffer index = ByteBuffer.allocate(GameRecordWriter.BUFFER_SIZE);
+        private final long dataStart;
+
+        /**
+         * Constructs an appender to the corpus whose data segment is the given file.
+         *
+         * @param data the path of the data segment
+         * @throws IOException if an I/O error occurs, or if the index refers to records which are not
+         *                     in the data segment
+         */
+        private Appender(Path data) throws IOException {
+            dataChannel = FileChannel.open(data, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            try {
+                indexChannel = FileChannel.open(indexOf(data), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            } catch (IOException e) {
+                dataChannel.close();
+                throw e;
+            }
+            try {
+                long indexSize = indexChannel.size() / Long.BYTES * Long.BYTES;
+                ByteBuffer lastEnd = ByteBuffer.allocate(Long.BYTES);
+                if (indexSize > 0) indexChannel.read(lastEnd, indexSize - Long.BYTES);
+                dataStart = indexSize > 0 ? lastEnd.getLong(0) : 0;
+                if (dataStart > dataChannel.size()) throw new IOException("truncated data segment");
+
+                //drops the bytes of the records which were not completely appended
+                indexChannel.truncate(indexSize).position(indexSize);
+                dataChannel.truncate(dataStart).position(dataStart);
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+            writer = new GameRecordWriter(dataChannel);
+        }
+
+        /**
+         * Starts a new record by writing the given header (see {@link GameRecordWriter#writeHeader}).
+         *
+         * @param header the header of the record
+         * @throws IllegalArgumentException if the previous record is not ended, or if a name is too long
+         * @throws IOException              if an I/O error occurs
+         */
+        public void writeHeader(GameRecordHeader header) throws IOException {
+            writer.writeHeader(header);
+        }
+
+        /**
+         * Writes the tile placement of the given packed code (see {@link GameRecordWriter#writePlacement}).
+         *
+         * @param code the packed code of the placement
+         * @throws IllegalArgumentException if no record is started, or if the code does not fit in 10 bits
+         * @throws IOException              if an I/O error occurs
+         */
+        public void writePlacement(int code) throws IOException {
+            writer.writePlacement(code);
+        }
+
+        /**
+         * Writes the occupation or the pawn retake of the given packed code
+         * (see {@link GameRecordWriter#writeOccupation}).
+         *
+         * @param code the packed code of the occupation or of the retake
+         * @throws IllegalArgumentException if no record is started, or if the code does not fit in 5 bits
+         * @throws IOException              if an I/O error occurs
+         */
+        public void writeOccupation(int code) throws IOException {
+            writer.writeOccupation(code);
+        }
+
+        /**
+         * Ends the current record and indexes it.
+         *
+         * @throws IllegalArgumentException if no record is started
+         * @throws IOException              if an I/O error occurs
+         */
+        public void endRecord() throws IOException {
+            writer.endRecord();
+            if (!index.hasRemaining()) {
+                //the indexed records must be written before their index
+                writer.flush();
+                flushIndex();
+            }
+            index.putLong(dataStart + writer.bytesWritten());
+        }
+
+        /**
+         * Writes the ended records and their index to the files, then closes them. A record which is not
+         * ended is dropped by the next appender.
+         *
+         * @throws IOException if an I/O error occurs
+         */
+        @Override
+        public void close() throws IOException {
+            try (dataChannel; indexChannel) {
+                if (writer != null) {
+                    writer.flush();
+                    flushIndex();
+                }
+            }
+        }
+
+        /**
+         * Writes the buffered index to its file.
+         *
+         * @throws IOException if an I/O error occurs
+         */
+        private void flushIndex() throws IOException {
+            index.flip();
+            while (index.hasRemaining()) indexChannel.write(index);
+            index.clear();
+        }
+    }
+
+    /**
+     * Parses the arguments, appends the games of the given seeds, if any, then replays all the games of the corpus
+     * and prints the statistics.
+     *
+     * @param args the command-line arguments
+     * @throws IOException if an I/O error occurs, or if the corpus is invalid
+     */
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            Preconditions.checkArgument(arg.startsWith("--") && arg.contains("="));
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        Preconditions.checkArgument(options.containsKey("corpus"));
+        Path data = Path.of(options.get("corpus"));
+        int parallelism = Integer.parseInt(options.getOrDefault("parallelism", "" + Runtime.getRuntime().availableProcessors()));
+
+        if (options.containsKey("seeds")) {
+            String[] seeds = options.get("seeds").split("\\.\\.");
+            long firstSeed = Long.parseLong(seeds[0]);
+            long lastSeed = seeds.length > 1 ? Long.parseLong(seeds[1]) : firstSeed;
+            int playerCount = Integer.parseInt(options.getOrDefault("players", "2"));
+            String policy = options.getOrDefault("bot", "random");
+            Preconditions.checkArgument(firstSeed <= lastSeed);
+
+            long start = System.nanoTime();
+            try (Appender appender = appender(data)) {
+                for (long seed = firstSeed; seed <= lastSeed; seed++) {
+                    append(appender, seed, playerCount, policy);
+                }
+            }
+            System.out.printf(Locale.ROOT, "%d games appended in %.3f s%n",
+                    lastSeed - firstSeed + 1, (System.nanoTime() - start) / 1e9);
+        }
+
+        long start = System.nanoTime();
+        GameCorpus corpus = open(data);
+        IntSummaryStatistics winningPoints = corpus.scanParallel((game, header, actions) -> {
+            IntSummaryStatistics points = new IntSummaryStatistics();
+            GameState gameState = replay(header, actions, NoTextMaker.INSTANCE);
+            //the players who did not score are not in the points of the message board
+            Map<PlayerColor, Integer> playerPoints = gameState.messageBoard().points();
+            points.accept(header.players().stream().mapToInt(p -> playerPoints.getOrDefault(p, 0)).max().orElse(0));
+            return points;
+        }, new IntSummaryStatistics(), (left, right) -> {
+            //the identity is shared by the threads, and must not be modified
+            IntSummaryStatistics points = new IntSummaryStatistics();
+            points.combine(left);
+            points.combine(right);
+            return points;
+        }, parallelism);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf(Locale.ROOT, "%d games replayed in %.3f s : %.1f games/s%n",
+                corpus.size(), seconds, corpus.size() / seconds);
+        System.out.printf(Locale.ROOT, "winning points : mean %.2f, min %d, max %d%n",
+                winningPoints.getAverage(), winningPoints.getMin(), winningPoints.getMax());
+    }
+
+    /**
+     * Plays the game of the given seed like {@link Simulator#play(long, int, String)} does, and appends its record.
+     *
+     * @param appender    the appender of the corpus
+     * @param seed        the seed of the game
+     * @param playerCount the number of players
+     * @param policy      the policy of the bots
+     * @throws IOException if an I/O error occurs
+     */
+    private static void append(Appender appender, long seed, int playerCount, String policy) throws IOException {
+        GameState initialState = Simulator.initialState(seed, playerCount, NoTextMaker.INSTANCE);
+        Map<PlayerColor, String> names = new EnumMap<>(PlayerColor.class);
+        Map<PlayerColor, Bot> bots = new EnumMap<>(PlayerColor.class);
+        for (PlayerColor player : initialState.players()) {
+            names.put(player, player.name());
+            bots.put(player, Bots.create(policy, seed * PlayerColor.ALL.size() + player.ordinal()));
+        }
+
+        appender.writeHeader(GameRecordHeader.of(seed, initialState, names));
+        GameState gameState = initialState.withStartingTilePlaced();
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        while (gameState.nextAction() != GameState.Action.END_GAME) {
+            int moveCount = MoveGenerator.generate(gameState, moves);
+            int move = bots.get(gameState.currentPlayer()).chooseMove(gameState, moves, moveCount);
+            if (gameState.nextAction() == GameState.Action.PLACE_TILE) appender.writePlacement(move);
+            else appender.writeOccupation(move);
+            gameState = MoveGenerator.apply(gameState, move);
+        }
+        appender.endRecord();
+    }
+}
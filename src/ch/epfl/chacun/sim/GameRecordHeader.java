@@ -0,0 +1,95 @@
+package ch.epfl.chacun.sim;
+
+import ch.epfl.chacun.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Header of a game record of the binary {@code .chacun} format (see {@link GameRecordWriter}).
+ *
+ * @param version       the version of the format.
+ * @param seed          the seed which shuffled the tiles of the game (see {@link Simulator#initialState(long, int)}).
+ * @param players       the colors of the players, in playing order.
+ * @param names         the names of the players, in the same order as their colors.
+ * @param tileOrderHash the hash of the order of the tiles in the decks of the game (see {@link #tileOrderHash(TileDecks)}),
+ *                      to check that the tiles shuffled from the seed are the ones the game was played with.
+ * @author Ilyes Rouibi (372420)
+ * @author Weifeng Ding (379902)
+ */
+public record GameRecordHeader(int version, long seed, List<PlayerColor> players, List<String> names, long tileOrderHash) {
+    /**
+     * The current version of the format
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * The extension of the files of game records
+     */
+    public static final String FILE_EXTENSION = ".chacun";
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * Compact constructor that makes GameRecordHeader immutable.
+     *
+     * @throws IllegalArgumentException if the version is not between 0 and 255, if there are not between 2 and 5
+     *                                  players, or if there is not one name per player
+     */
+    public GameRecordHeader {
+        Preconditions.checkArgument(version >= 0 && version <= 0xFF);
+        Preconditions.checkArgument(players.size() >= 2 && players.size() <= PlayerColor.ALL.size());
+        Preconditions.checkArgument(names.size() == players.size());
+        players = List.copyOf(players);
+        names = List.copyOf(names);
+    }
+
+    /**
+     * Returns the header of the current version for the game of the given seed, whose initial state is given.
+     *
+     * @param seed         the seed of the game.
+     * @param initialState the initial state of the game, before the starting tile is placed.
+     * @param names        the names of the players.
+     * @return the header of the game.
+     * @throws IllegalArgumentException if a player has no name
+     */
+    public static GameRecordHeader of(long seed, GameState initialState, Map<PlayerColor, String> names) {
+        List<String> playerNames = initialState.players().stream().map(names::get).toList();
+        Preconditions.checkArgument(!playerNames.contains(null));
+        return new GameRecordHeader(VERSION, seed, initialState.players(), playerNames, tileOrderHash(initialState.tileDecks()));
+    }
+
+    /**
+     * Returns the initial state of the recorded game, whose tiles are shuffled from the seed like
+     * {@link Simulator#initialState(long, int, TextMaker)} does.
+     *
+     * @param textMaker the text maker of the messages
+     * @return the initial state of the game, before the starting tile is placed
+     * @throws IllegalArgumentException if the players or the order of the tiles are not the ones of the record
+     */
+    public GameState initialState(TextMaker textMaker) {
+        GameState initialState = Simulator.initialState(seed, players.size(), textMaker);
+        Preconditions.checkArgument(initialState.players().equals(players)
+                && tileOrderHash(initialState.tileDecks()) == tileOrderHash);
+        return initialState;
+    }
+
+    /**
+     * Returns the 64-bit FNV-1a hash of the ids of the tiles of the given decks, in order.
+     *
+     * @param tileDecks the decks.
+     * @return the hash of the order of the tiles.
+     */
+    public static long tileOrderHash(TileDecks tileDecks) {
+        long hash = FNV_OFFSET_BASIS;
+        for (List<Tile> deck : List.of(tileDecks.startTiles(), tileDecks.normalTiles(), tileDecks.menhirTiles())) {
+            for (Tile tile : deck) {
+                hash = (hash ^ tile.id()) * FNV_PRIME;
+            }
+            //the end of a deck, which is not a tile id
+            hash = (hash ^ 0xFF) * FNV_PRIME;
+        }
+        return hash;
+    }
+}
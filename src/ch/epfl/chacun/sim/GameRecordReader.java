@@ -0,0 +1,231 @@
+package ch.epfl.chacun.sim;
+
+import ch.epfl.chacun.*;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static ch.epfl.chacun.sim.GameRecordWriter.*;
+
+/**
+ * Streaming reader of the game records of the binary {@code .chacun} format, described by {@link GameRecordWriter}.
+ * <p>
+ * The records are read one after the other : {@link #readHeader()} starts the next one, whose actions are then
+ * read by {@link #readAction()} as the packed codes of {@link ActionEncoder}, which {@link MoveGenerator#apply}
+ * plays directly, without building any string.
+ *
+ * @author Ilyes Rouibi (372420)
+ * @author Weifeng Ding (379902)
+ */
+public final class GameRecordReader implements Closeable {
+    /**
+     * The value returned by {@link #readAction()} once all the actions of the record are read
+     */
+    public static final int END_OF_RECORD = -1;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer;
+    private long bits;
+    private int bitCount;
+    private boolean inRecord;
+    private boolean placement;
+
+    /**
+     * Constructs a reader of the records of the given channel, e.g. a {@link java.nio.channels.FileChannel}.
+     *
+     * @param channel the channel from which the records are read
+     */
+    public GameRecordReader(ReadableByteChannel channel) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE).flip();
+    }
+
+    /**
+     * Constructs a reader of the records of the given input stream.
+     *
+     * @param inputStream the stream from which the records are read
+     */
+    public GameRecordReader(InputStream inputStream) {
+        this(Channels.newChannel(inputStream));
+    }
+
+    /**
+     * Constructs a reader of the records between the position and the limit of the given buffer,
+     * e.g. a mapped file, which are read without being copied. The position of the buffer is left unchanged.
+     *
+     * @param records the buffer of the records
+     */
+    public GameRecordReader(ByteBuffer records) {
+        this.channel = null;
+        this.buffer = records.slice();
+    }
+
+    /**
+     * Starts the next record by reading its header. The actions of the current record which are not read yet
+     * are skipped.
+     *
+     * @return the header of the next record, or null if there is no more record
+     * @throws IOException if an I/O error occurs, or if the record is truncated or is not a record of a version
+     *                     this reader knows
+     */
+    public GameRecordHeader readHeader() throws IOException {
+        if (inRecord) skipActions();
+        if (!fill(1)) return null;
+
+        require(Integer.BYTES + 1 + 2 * Long.BYTES + 1);
+        if (buffer.getInt() != MAGIC) throw new IOException("not a game record");
+        int version = Byte.toUnsignedInt(buffer.get());
+        if (version > GameRecordHeader.VERSION) throw new IOException("unknown version " + version);
+        long seed = buffer.getLong();
+        long tileOrderHash = buffer.getLong();
+        int playerCount = Byte.toUnsignedInt(buffer.get());
+        if (playerCount < 2 || playerCount > PlayerColor.ALL.size()) throw new IOException("invalid player count");
+
+        List<PlayerColor> players = new ArrayList<>(playerCount);
+        List<String> names = new ArrayList<>(playerCount);
+        for (int i = 0; i < playerCount; i++) {
+            require(2);
+            int color = Byte.toUnsignedInt(buffer.get());
+            if (color >= PlayerColor.ALL.size()) throw new IOException("invalid player color");
+            players.add(PlayerColor.ALL.get(color));
+            int nameLength = Byte.toUnsignedInt(buffer.get());
+            require(nameLength);
+            names.add(StandardCharsets.UTF_8.decode(buffer.slice(buffer.position(), nameLength)).toString());
+            buffer.position(buffer.position() + nameLength);
+        }
+        inRecord = true;
+        return new GameRecordHeader(version, seed, players, names, tileOrderHash);
+    }
+
+    /**
+     * Reads the next action of the current record.
+     *
+     * @return the packed code of the action (see {@link MoveGenerator}), on 10 bits for a tile placement
+     * and on 5 bits otherwise, or {@link #END_OF_RECORD} if all the actions of the record are read
+     * @throws IllegalArgumentException if no record is started
+     * @throws IOException              if an I/O error occurs, or if the record is truncated
+     */
+    public int readAction() throws IOException {
+        Preconditions.checkArgument(inRecord);
+        if (readBits(PLACEMENT_TAG_BITS) == PLACEMENT_TAG) {
+            placement = true;
+            return readBits(PLACEMENT_BITS);
+        }
+        placement = false;
+        if (readBits(1) == OCCUPATION_TAG >>> 1) return readBits(OCCUPATION_BITS);
+
+        //the padding of the last byte of the record
+        bits = 0;
+        bitCount = 0;
+        inRecord = false;
+        return END_OF_RECORD;
+    }
+
+    /**
+     * Returns true if and only if the last action read is a tile placement.
+     *
+     * @return true if and only if the last action read is a tile placement
+     */
+    public boolean isPlacement() {
+        return placement;
+    }
+
+    /**
+     * Reads the remaining actions of the current record into the given array.
+     *
+     * @param codes the array receiving the packed codes of the actions
+     * @return the number of actions read
+     * @throws IllegalArgumentException if no record is started, or if the array is too small
+     * @throws IOException              if an I/O error occurs, or if the record is truncated
+     */
+    public int readActions(int[] codes) throws IOException {
+        int count = 0;
+        for (int code = readAction(); code != END_OF_RECORD; code = readAction()) {
+            Preconditions.checkArgument(count < codes.length);
+            codes[count++] = code;
+        }
+        return count;
+    }
+
+    /**
+     * Skips the remaining actions of the current record.
+     *
+     * @return the number of actions skipped
+     * @throws IllegalArgumentException if no record is started
+     * @throws IOException              if an I/O error occurs, or if the record is truncated
+     */
+    public int skipActions() throws IOException {
+        int count = 0;
+        while (readAction() != END_OF_RECORD) count++;
+        return count;
+    }
+
+    /**
+     * Closes the channel of the reader, if any.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel != null) channel.close();
+    }
+
+    /**
+     * Reads the given number of bits of the action stream, filled from the least significant bit of every byte.
+     *
+     * @param count the number of bits, at most 24
+     * @return the bits
+     * @throws IOException if an I/O error occurs, or if the stream ends before
+     */
+    private int readBits(int count) throws IOException {
+        while (bitCount < count) {
+            require(1);
+            bits |= (long) Byte.toUnsignedInt(buffer.get()) << bitCount;
+            bitCount += Byte.SIZE;
+        }
+        int value = (int) (bits & ((1L << count) - 1));
+        bits >>>= count;
+        bitCount -= count;
+        return value;
+    }
+
+    /**
+     * Makes sure that the given number of bytes can be read from the buffer.
+     *
+     * @param byteCount the number of bytes
+     * @throws IOException if an I/O error occurs, or if the stream ends before
+     */
+    private void require(int byteCount) throws IOException {
+        if (!fill(byteCount)) throw new EOFException("truncated game record");
+    }
+
+    /**
+     * Reads bytes from the channel until the buffer holds at least the given number of bytes, or the channel ends.
+     *
+     * @param byteCount the number of bytes
+     * @return true if and only if the buffer holds the given number of bytes
+     * @throws IOException if an I/O error occurs
+     */
+    private boolean fill(int byteCount) throws IOException {
+        if (buffer.remaining() >= byteCount) return true;
+        if (channel == null) return false;
+
+        buffer.compact();
+        try {
+            while (buffer.position() < byteCount) {
+                if (channel.read(buffer) < 0) return false;
+            }
+            return true;
+        } finally {
+            buffer.flip();
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package ch.epfl.chacun.sim;
+
+import ch.epfl.chacun.*;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streaming writer of game records in the binary {@code .chacun} format, which follow each other in the stream.
+ * <p>
+ * A record is made of a header, whose integers are big-endian :
+ * <ul>
+ *     <li>the magic number {@code CHCN} (4 bytes),</li>
+ *     <li>the version of the format (1 byte),</li>
+ *     <li>the seed of the game (8 bytes),</li>
+ *     <li>the hash of the order of the tiles (8 bytes),</li>
+ *     <li>the number of players (1 byte), then for every player its color (1 byte, the index of the color in
+ *     {@link PlayerColor#ALL}), the length of its name (1 byte) and its name, encoded in UTF-8,</li>
+ * </ul>
+ * followed by the bit-packed stream of the actions of the game, the bits of every byte being filled from the least
+ * significant one. Every action is the packed code of {@link ActionEncoder}, preceded by a tag :
+ * <ul>
+ *     <li>{@code 0} then the 10 bits of the code of a tile placement,</li>
+ *     <li>{@code 1}, {@code 0} then the 5 bits of the code of an occupation or of a pawn retake,</li>
+ *     <li>{@code 1}, {@code 1} at the end of the record, whose last byte is then padded with zeros.</li>
+ * </ul>
+ * An action thus takes 11 or 7 bits, against 16 or 8 bits for its Base32 text.
+ *
+ * @author Ilyes Rouibi (372420)
+ * @author Weifeng Ding (379902)
+ */
+public final class GameRecordWriter implements Closeable {
+    /**
+     * The magic number which starts every record, {@code CHCN} in ASCII
+     */
+    static final int MAGIC = 0x4348434E;
+
+    //the tags of the actions, with the bits in the order they are written
+    static final int PLACEMENT_TAG = 0b0;
+    static final int PLACEMENT_TAG_BITS = 1;
+    static final int OCCUPATION_TAG = 0b01;
+    static final int END_TAG = 0b11;
+    static final int TAG_BITS = 2;
+
+    static final int PLACEMENT_BITS = 10;
+    static final int OCCUPATION_BITS = 5;
+    static final int MAX_NAME_LENGTH = 0xFF;
+    static final int BUFFER_SIZE = 1 << 16;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private long flushedBytes;
+    private long bits;
+    private int bitCount;
+    private boolean inRecord;
+
+    /**
+     * Constructs a writer of records to the given channel, e.g. a {@link java.nio.channels.FileChannel}.
+     *
+     * @param channel the channel to which the records are written
+     */
+    public GameRecordWriter(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Constructs a writer of records to the given output stream.
+     *
+     * @param outputStream the stream to which the records are written
+     */
+    public GameRecordWriter(OutputStream outputStream) {
+        this(Channels.newChannel(outputStream));
+    }
+
+    /**
+     * Starts a new record by writing the given header.
+     *
+     * @param header the header of the record
+     * @throws IllegalArgumentException if the previous record is not ended, or if a name is longer than 255 bytes
+     *                                  once encoded in UTF-8
+     * @throws IOException              if an I/O error occurs
+     */
+    public void writeHeader(GameRecordHeader header) throws IOException {
+        Preconditions.checkArgument(!inRecord);
+        byte[][] names = new byte[header.names().size()][];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = header.names().get(i).getBytes(StandardCharsets.UTF_8);
+            Preconditions.checkArgument(names[i].length <= MAX_NAME_LENGTH);
+        }
+
+        ensureSpace(Integer.BYTES + 1 + 2 * Long.BYTES + 1);
+        buffer.putInt(MAGIC)
+                .put((byte) header.version())
+                .putLong(header.seed())
+                .putLong(header.tileOrderHash())
+                .put((byte) header.players().size());
+        for (int i = 0; i < names.length; i++) {
+            ensureSpace(2 + names[i].length);
+            buffer.put((byte) header.players().get(i).ordinal())
+                    .put((byte) names[i].length)
+                    .put(names[i]);
+        }
+        inRecord = true;
+    }
+
+    /**
+     * Writes the tile placement of the given packed code (see {@link MoveGenerator}).
+     *
+     * @param code the packed code of the placement, on 10 bits
+     * @throws IllegalArgumentException if no record is started, or if the code does not fit in 10 bits
+     * @throws IOException              if an I/O error occurs
+     */
+    public void writePlacement(int code) throws IOException {
+        Preconditions.checkArgument(inRecord && code >>> PLACEMENT_BITS == 0);
+        writeBits(code << PLACEMENT_TAG_BITS | PLACEMENT_TAG, PLACEMENT_TAG_BITS + PLACEMENT_BITS);
+    }
+
+    /**
+     * Writes the occupation or the pawn retake of the given packed code (see {@link MoveGenerator}).
+     *
+     * @param code the packed code of the occupation or of the retake, on 5 bits
+     * @throws IllegalArgumentException if no record is started, or if the code does not fit in 5 bits
+     * @throws IOException              if an I/O error occurs
+     */
+    public void writeOccupation(int code) throws IOException {
+        Preconditions.checkArgument(inRecord && code >>> OCCUPATION_BITS == 0);
+        writeBits(code << TAG_BITS | OCCUPATION_TAG, TAG_BITS + OCCUPATION_BITS);
+    }
+
+    /**
+     * Writes the action of the given Base32 code (see {@link ActionEncoder}), which is a tile placement
+     * if it is made of two characters, and an occupation or a pawn retake otherwise.
+     *
+     * @param actionB32 the Base32 code of the action
+     * @throws IllegalArgumentException if no record is started, or if the code is invalid
+     * @throws IOException              if an I/O error occurs
+     */
+    public void writeAction(String actionB32) throws IOException {
+        Preconditions.checkArgument(Base32.isValid(actionB32) && !actionB32.isEmpty() && actionB32.length() <= 2);
+        if (actionB32.length() == 2) writePlacement(Base32.decode(actionB32));
+        else writeOccupation(Base32.decode(actionB32));
+    }
+
+    /**
+     * Ends the current record.
+     *
+     * @throws IllegalArgumentException if no record is started
+     * @throws IOException              if an I/O error occurs
+     */
+    public void endRecord() throws IOException {
+        Preconditions.checkArgument(inRecord);
+        writeBits(END_TAG, TAG_BITS);
+        if (bitCount > 0) writeBits(0, Byte.SIZE - bitCount);
+        inRecord = false;
+    }
+
+    /**
+     * Returns the number of bytes written by the writer, the buffered ones included.
+     *
+     * @return the number of bytes written
+     */
+    public long bytesWritten() {
+        return flushedBytes + buffer.position();
+    }
+
+    /**
+     * Writes the buffered bytes to the channel. The bits of an action which do not fill a byte yet
+     * are only written with the following actions.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+        flushedBytes += buffer.remaining();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    /**
+     * Flushes the writer and closes its channel. A record which is not ended is left incomplete.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Appends the given number of low bits of the given value to the stream, writing every filled byte.
+     *
+     * @param value the bits
+     * @param count the number of bits, at most 24
+     * @throws IOException if an I/O error occurs
+     */
+    private void writeBits(int value, int count) throws IOException {
+        bits |= (long) value << bitCount;
+        bitCount += count;
+        while (bitCount >= Byte.SIZE) {
+            ensureSpace(1);
+            buffer.put((byte) bits);
+            bits >>>= Byte.SIZE;
+            bitCount -= Byte.SIZE;
+        }
+    }
+
+    /**
+     * Flushes the buffer if it has not the given number of free bytes.
+     *
+     * @param byteCount the number of bytes
+     * @throws IOException if an I/O error occurs
+     */
+    private void ensureSpace(int byteCount) throws IOException {
+        if (buffer.remaining() < byteCount) flush();
+    }
+}
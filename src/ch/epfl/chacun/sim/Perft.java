@@ -0,0 +1,238 @@
+package ch.epfl.chacun.sim;
+
+import ch.epfl.chacun.*;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Counter of the game tree, like the perft of chess engines, used as a correctness and throughput benchmark.
+ * <p>
+ * Usage : {@code java -cp target/classes ch.epfl.chacun.sim.Perft [--deck=DECK | --seed=SEED] [--players=N]
+ * [--depth=D] [--parallelism=THREADS] [--reference=true]}, where DECK is one of {@code shaman}, {@code hunting_trap},
+ * {@code fire} and {@code logboat_raft} (the fixture decks of {@link Tiles}).
+ * <p>
+ * The order of the tiles is fixed by the decks, so that the tree only branches on the actions of the players :
+ * tile placements, occupations and pawn retakes. {@link #perft(GameState, int)} counts the sequences of exactly
+ * {@code depth} actions, a finished game counting as one sequence even if it is shorter, using
+ * {@link MoveGenerator}. {@link #referencePerft(GameState, int)} counts the same sequences using only the public
+ * methods of {@link GameState} and {@link Board}, which define the rules : both counts must be equal, which
+ * cross-checks any faster implementation of the move generation, the board or the zone partitions.
+ *
+ * @author Ilyes Rouibi (372420)
+ * @author Weifeng Ding (379902)
+ */
+public final class Perft {
+    /**
+     * The fixture decks, by name
+     */
+    public static final Map<String, List<Tile>> FIXTURE_DECKS = fixtureDecks();
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private Perft() {
+    }
+
+    /**
+     * Creates the state of a game played with the given tiles in the given order, once its starting tile is placed.
+     *
+     * @param tiles       the tiles of the game, the starting one included
+     * @param playerCount the number of players
+     * @return the game state after the starting tile is placed
+     * @throws IllegalArgumentException if there is not exactly one starting tile, or if the number of players is invalid
+     */
+    public static GameState fixtureState(List<Tile> tiles, int playerCount) {
+        Preconditions.checkArgument(playerCount >= 2 && playerCount <= PlayerColor.ALL.size());
+        Map<Tile.Kind, List<Tile>> decks = tiles.stream().collect(Collectors.groupingBy(Tile::kind));
+        Preconditions.checkArgument(decks.getOrDefault(Tile.Kind.START, List.of()).size() == 1);
+        TileDecks tileDecks = new TileDecks(decks.get(Tile.Kind.START), decks.getOrDefault(Tile.Kind.NORMAL, List.of()), decks.getOrDefault(Tile.Kind.MENHIR, List.of()));
+        return GameState.initial(PlayerColor.ALL.subList(0, playerCount), tileDecks, NoTextMaker.INSTANCE).withStartingTilePlaced();
+    }
+
+    /**
+     * Counts the action sequences of the given depth from the given state, using {@link MoveGenerator}.
+     *
+     * @param gameState the state, whose starting tile is placed
+     * @param depth     the number of actions
+     * @return the number of action sequences
+     * @throws IllegalArgumentException if the depth is negative, or if the starting tile is not placed
+     */
+    public static long perft(GameState gameState, int depth) {
+        Preconditions.checkArgument(depth >= 0 && gameState.nextAction() != GameState.Action.START_GAME);
+        return perft(gameState, depth, new int[depth][MoveGenerator.MAX_MOVES]);
+    }
+
+    /**
+     * Counts the action sequences of the given depth from the given state, the actions following each of its moves
+     * being counted in parallel by the given number of threads.
+     *
+     * @param gameState   the state, whose starting tile is placed
+     * @param depth       the number of actions
+     * @param parallelism the number of threads
+     * @return the number of action sequences
+     * @throws IllegalArgumentException if the depth is negative, if the starting tile is not placed,
+     *                                  or if the parallelism is not positive
+     */
+    public static long perftParallel(GameState gameState, int depth, int parallelism) {
+        Preconditions.checkArgument(depth >= 0 && gameState.nextAction() != GameState.Action.START_GAME && parallelism > 0);
+        if (depth <= 1 || gameState.nextAction() == GameState.Action.END_GAME) return perft(gameState, depth);
+
+        int[] rootMoves = new int[MoveGenerator.MAX_MOVES];
+        int rootMoveCount = MoveGenerator.generate(gameState, rootMoves);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.submit(() -> IntStream.range(0, rootMoveCount)
+                            .parallel()
+                            .mapToLong(i -> perft(MoveGenerator.apply(gameState, rootMoves[i]), depth - 1))
+                            .sum())
+                    .get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Counts the action sequences of the given depth from the given state, using only the public methods
+     * of {@link GameState} and {@link Board}. This is much slower than {@link #perft(GameState, int)},
+     * but gives the same count.
+     *
+     * @param gameState the state, whose starting tile is placed
+     * @param depth     the number of actions
+     * @return the number of action sequences
+     * @throws IllegalArgumentException if the depth is negative, or if the starting tile is not placed
+     */
+    public static long referencePerft(GameState gameState, int depth) {
+        Preconditions.checkArgument(depth >= 0 && gameState.nextAction() != GameState.Action.START_GAME);
+        if (depth == 0 || gameState.nextAction() == GameState.Action.END_GAME) return 1;
+
+        long nodes = 0;
+        for (GameState nextState : referenceSuccessors(gameState)) {
+            nodes += referencePerft(nextState, depth - 1);
+        }
+        return nodes;
+    }
+
+    /**
+     * Counts the action sequences of the given depth, using the given arrays of moves, one per remaining depth.
+     * The moves of the last action are counted without being applied.
+     *
+     * @param gameState the state
+     * @param depth     the number of actions
+     * @param moves     the arrays of moves, one per remaining depth
+     * @return the number of action sequences
+     */
+    private static long perft(GameState gameState, int depth, int[][] moves) {
+        if (depth == 0 || gameState.nextAction() == GameState.Action.END_GAME) return 1;
+
+        int[] depthMoves = moves[depth - 1];
+        int moveCount = MoveGenerator.generate(gameState, depthMoves);
+        if (depth == 1) return moveCount;
+
+        long nodes = 0;
+        for (int i = 0; i < moveCount; i++) {
+            nodes += perft(MoveGenerator.apply(gameState, depthMoves[i]), depth - 1, moves);
+        }
+        return nodes;
+    }
+
+    /**
+     * Returns the states following every legal action of the given state, following the rules of {@link GameState}.
+     *
+     * @param gameState the state
+     * @return the states following the legal actions
+     */
+    private static List<GameState> referenceSuccessors(GameState gameState) {
+        Board board = gameState.board();
+        PlayerColor player = gameState.currentPlayer();
+        List<GameState> successors = new ArrayList<>();
+        switch (gameState.nextAction()) {
+            case PLACE_TILE -> {
+                for (Pos pos : board.insertionPositions()) {
+                    for (Rotation rotation : Rotation.ALL) {
+                        PlacedTile placedTile = new PlacedTile(gameState.tileToPlace(), player, rotation, pos);
+                        if (board.canAddTile(placedTile)) successors.add(gameState.withPlacedTile(placedTile));
+                    }
+                }
+            }
+            case OCCUPY_TILE -> {
+                for (Occupant occupant : gameState.lastTilePotentialOccupants()) {
+                    successors.add(gameState.withNewOccupant(occupant));
+                }
+                successors.add(gameState.withNewOccupant(null));
+            }
+            case RETAKE_PAWN -> {
+                for (Occupant occupant : board.occupants()) {
+                    if (occupant.kind() == Occupant.Kind.PAWN && board.tileWithId(Zone.tileId(occupant.zoneId())).placer() == player)
+                        successors.add(gameState.withOccupantRemoved(occupant));
+                }
+                successors.add(gameState.withOccupantRemoved(null));
+            }
+            case START_GAME, END_GAME -> {
+            }
+        }
+        return successors;
+    }
+
+    /**
+     * Parses the arguments, then counts and prints the action sequences of every depth up to the given one.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            Preconditions.checkArgument(arg.startsWith("--") && arg.contains("="));
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+
+        int playerCount = Integer.parseInt(options.getOrDefault("players", "2"));
+        int maxDepth = Integer.parseInt(options.getOrDefault("depth", "4"));
+        int parallelism = Integer.parseInt(options.getOrDefault("parallelism", "1"));
+        boolean reference = Boolean.parseBoolean(options.getOrDefault("reference", "false"));
+        GameState gameState;
+        if (options.containsKey("seed")) {
+            gameState = Simulator.initialState(Long.parseLong(options.get("seed")), playerCount, NoTextMaker.INSTANCE).withStartingTilePlaced();
+        } else {
+            List<Tile> deck = FIXTURE_DECKS.get(options.getOrDefault("deck", "shaman"));
+            Preconditions.checkArgument(deck != null);
+            gameState = fixtureState(deck, playerCount);
+        }
+        Preconditions.checkArgument(maxDepth >= 0 && parallelism > 0);
+
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            long start = System.nanoTime();
+            long nodes = parallelism > 1 ? perftParallel(gameState, depth, parallelism) : perft(gameState, depth);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf(Locale.ROOT, "depth %2d : %,15d nodes in %8.3f s : %,.0f nodes/s%n",
+                    depth, nodes, seconds, nodes / seconds);
+            if (reference) {
+                long referenceNodes = referencePerft(gameState, depth);
+                if (referenceNodes != nodes)
+                    System.out.printf(Locale.ROOT, "depth %2d : MISMATCH, %d nodes with the reference rules%n", depth, referenceNodes);
+            }
+        }
+    }
+
+    /**
+     * Gives the fixture decks of {@link Tiles}, by name.
+     *
+     * @return the fixture decks
+     */
+    private static Map<String, List<Tile>> fixtureDecks() {
+        Map<String, List<Tile>> decks = new LinkedHashMap<>();
+        decks.put("shaman", Tiles.TILES_SHAMAN);
+        decks.put("hunting_trap", Tiles.TILES_HUNTING_TRAP);
+        decks.put("fire", Tiles.TILES_FIRE);
+        decks.put("logboat_raft", Tiles.TILES_LOGBOAT_RAFT);
+        return Collections.unmodifiableMap(decks);
+    }
+}
@@ -0,0 +1,127 @@
+package ch.epfl.chacun.sim;
+
+import ch.epfl.chacun.ActionEncoder;
+import ch.epfl.chacun.GameState;
+import ch.epfl.chacun.Preconditions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable replay of a game given by its Base32 actions (see {@link ActionEncoder}), giving random access
+ * to the state of the game after any number of actions.
+ * <p>
+ * The actions are replayed once when the replay is constructed, and the state reached every
+ * {@code checkpointInterval} actions is kept as a checkpoint. The state after k actions is then obtained by
+ * replaying at most {@code checkpointInterval - 1} actions from the checkpoint preceding k, whatever k is.
+ * The successive states share most of their board, so the checkpoints are cheap to keep.
+ *
+ * @author Ilyes Rouibi (372420)
+ * @author Weifeng Ding (379902)
+ */
+public final class Replay {
+    /**
+     * The default number of actions between two checkpoints
+     */
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 16;
+
+    private final List<String> actions;
+    private final int checkpointInterval;
+    private final List<GameState> checkpoints;
+
+    /**
+     * Constructs the replay of the given actions played from the given state.
+     *
+     * @param startState         the state before the first action, whose starting tile is already placed
+     * @param actions            the Base32 actions, as listed by the graphical interface
+     * @param checkpointInterval the number of actions between two checkpoints
+     * @throws IllegalArgumentException if the interval is not positive, or if an action is invalid
+     */
+    public Replay(GameState startState, List<String> actions, int checkpointInterval) {
+        Preconditions.checkArgument(checkpointInterval > 0);
+        this.actions = List.copyOf(actions);
+        this.checkpointInterval = checkpointInterval;
+
+        List<GameState> checkpoints = new ArrayList<>();
+        checkpoints.add(startState);
+        GameState gameState = startState;
+        for (int k = 0; k < this.actions.size(); k++) {
+            gameState = applied(gameState, this.actions.get(k));
+            if ((k + 1) % checkpointInterval == 0) checkpoints.add(gameState);
+        }
+        this.checkpoints = List.copyOf(checkpoints);
+    }
+
+    /**
+     * Constructs the replay of the given actions, played in the game of the given seed
+     * (see {@link Simulator#initialState(long, int)}), with the default checkpoint interval.
+     *
+     * @param seed        the seed of the game
+     * @param playerCount the number of players
+     * @param actions     the Base32 actions
+     * @return the replay of the game
+     * @throws IllegalArgumentException if the number of players is invalid, or if an action is invalid
+     */
+    public static Replay of(long seed, int playerCount, List<String> actions) {
+        return new Replay(Simulator.initialState(seed, playerCount).withStartingTilePlaced(), actions, DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    /**
+     * Returns the actions of the replay.
+     *
+     * @return the actions of the replay
+     */
+    public List<String> actions() {
+        return actions;
+    }
+
+    /**
+     * Returns the number of actions of the replay.
+     *
+     * @return the number of actions
+     */
+    public int length() {
+        return actions.size();
+    }
+
+    /**
+     * Returns the state of the game after the given number of actions,
+     * replaying at most {@code checkpointInterval - 1} actions.
+     *
+     * @param k the number of actions played, between 0 and {@link #length()}
+     * @return the state after k actions
+     * @throws IllegalArgumentException if k is out of bounds
+     */
+    public GameState stateAt(int k) {
+        Preconditions.checkArgument(k >= 0 && k <= actions.size());
+        int checkpoint = k / checkpointInterval;
+        GameState gameState = checkpoints.get(checkpoint);
+        for (int i = checkpoint * checkpointInterval; i < k; i++) {
+            gameState = applied(gameState, actions.get(i));
+        }
+        return gameState;
+    }
+
+    /**
+     * Returns the state of the game after all the actions.
+     *
+     * @return the final state of the replay
+     */
+    public GameState finalState() {
+        return stateAt(actions.size());
+    }
+
+    /**
+     * Applies the given action to the given state.
+     *
+     * @param gameState the state
+     * @param action    the Base32 action
+     * @return the state after the action
+     * @throws IllegalArgumentException if the action is invalid
+     */
+    private static GameState applied(GameState gameState, String action) {
+        ActionEncoder.StateAction stateAction = ActionEncoder.decodeAndApply(gameState, action);
+        Preconditions.checkArgument(stateAction != null);
+        return stateAction.gameState();
+    }
+}
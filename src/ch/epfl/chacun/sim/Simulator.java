@@ -0,0 +1,247 @@
+package ch.epfl.chacun.sim;
+
+import ch.epfl.chacun.*;
+import ch.epfl.chacun.bot.Bot;
+import ch.epfl.chacun.bot.Bots;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongConsumer;
+import java.util.random.RandomGeneratorFactory;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * Headless simulator playing complete games between bots, in parallel, without any graphical interface.
+ * <p>
+ * Usage : {@code java -cp target/classes ch.epfl.chacun.sim.Simulator [--seeds=FIRST..LAST] [--players=N]
+ * [--bot=POLICY] [--parallelism=THREADS]}
+ * <p>
+ * The tiles of the game of seed s are shuffled exactly like {@code gui.Main --seed=s} does, and the bots of the
+ * game are seeded from s, so that every game can be replayed. Once all games are played, the throughput
+ * (games and plies per second), the statistics of the scores and the thinking times of the bots are printed,
+ * the latter to check that bots with a time budget (e.g. {@code --bot=mcts:50ms}) keep to it.
+ *
+ * @author Ilyes Rouibi (372420)
+ * @author Weifeng Ding (379902)
+ */
+public final class Simulator {
+    private static final int MIN_PLAYERS = 2;
+    private static final int MAX_PLAYERS = 5;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private Simulator() {
+    }
+
+    /**
+     * The result of a simulated game.
+     *
+     * @param seed   the seed of the game
+     * @param plies  the number of actions played (tile placements, occupations and pawn retakes)
+     * @param points the final points of every player, in playing order
+     */
+    public record GameResult(long seed, int plies, List<Integer> points) {
+        public GameResult {
+            points = List.copyOf(points);
+        }
+
+        /**
+         * Returns the points of the winners.
+         *
+         * @return the points of the winners
+         */
+        public int winningPoints() {
+            return Collections.max(points);
+        }
+    }
+
+    /**
+     * Creates the initial state of the game of the given seed, shuffling the tiles like {@code gui.Main}.
+     *
+     * @param seed        the seed of the game
+     * @param playerCount the number of players
+     * @return the initial game state
+     * @throws IllegalArgumentException if the number of players is not between 2 and 5
+     */
+    public static GameState initialState(long seed, int playerCount) {
+        Preconditions.checkArgument(playerCount >= MIN_PLAYERS && playerCount <= MAX_PLAYERS);
+        List<PlayerColor> players = PlayerColor.ALL.subList(0, playerCount);
+        Map<PlayerColor, String> names = players.stream().collect(Collectors.toMap(p -> p, PlayerColor::name));
+        return initialState(seed, playerCount, new TextMakerFr(names));
+    }
+
+    /**
+     * Creates the initial state of the game of the given seed, shuffling the tiles like {@code gui.Main},
+     * whose messages are built by the given text maker.
+     *
+     * @param seed        the seed of the game
+     * @param playerCount the number of players
+     * @param textMaker   the text maker of the messages, e.g. {@link NoTextMaker#INSTANCE} to build no text
+     * @return the initial game state
+     * @throws IllegalArgumentException if the number of players is not between 2 and 5
+     */
+    public static GameState initialState(long seed, int playerCount, TextMaker textMaker) {
+        Preconditions.checkArgument(playerCount >= MIN_PLAYERS && playerCount <= MAX_PLAYERS);
+        List<Tile> tiles = new ArrayList<>(Tiles.TILES);
+        Collections.shuffle(tiles, RandomGeneratorFactory.getDefault().create(seed));
+        Map<Tile.Kind, List<Tile>> tileDeckMap = tiles.stream().collect(Collectors.groupingBy(Tile::kind));
+        TileDecks tileDecks = new TileDecks(tileDeckMap.get(Tile.Kind.START), tileDeckMap.get(Tile.Kind.NORMAL), tileDeckMap.getOrDefault(Tile.Kind.MENHIR, List.of()));
+
+        return GameState.initial(PlayerColor.ALL.subList(0, playerCount), tileDecks, textMaker);
+    }
+
+    /**
+     * Plays the complete game of the given seed, every player being a bot following the given policy.
+     *
+     * @param seed        the seed of the game
+     * @param playerCount the number of players
+     * @param policy      the policy of the bots (see {@link Bots})
+     * @return the result of the game
+     */
+    public static GameResult play(long seed, int playerCount, String policy) {
+        return play(seed, playerCount, policy, nanos -> {});
+    }
+
+    /**
+     * Plays the complete game of the given seed, giving the time taken by every move of the bots to the given consumer.
+     *
+     * @param seed        the seed of the game
+     * @param playerCount the number of players
+     * @param policy      the policy of the bots (see {@link Bots})
+     * @param moveNanos   the consumer of the times taken by the moves, in nanoseconds
+     * @return the result of the game
+     */
+    static GameResult play(long seed, int playerCount, String policy, LongConsumer moveNanos) {
+        //the texts of the messages are never read
+        GameState gameState = initialState(seed, playerCount, NoTextMaker.INSTANCE).withStartingTilePlaced();
+        Map<PlayerColor, Bot> bots = new EnumMap<>(PlayerColor.class);
+        for (PlayerColor player : gameState.players()) {
+            bots.put(player, Bots.create(policy, seed * MAX_PLAYERS + player.ordinal()));
+        }
+
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int plies = 0;
+        while (gameState.nextAction() != GameState.Action.END_GAME) {
+            long start = System.nanoTime();
+            gameState = Bots.play(bots.get(gameState.currentPlayer()), gameState, moves);
+            moveNanos.accept(System.nanoTime() - start);
+            plies++;
+        }
+
+        Map<PlayerColor, Integer> points = gameState.messageBoard().points();
+        List<Integer> pointsInOrder = PlayerColor.ALL.subList(0, playerCount).stream()
+                .map(player -> points.getOrDefault(player, 0))
+                .toList();
+        return new GameResult(seed, plies, pointsInOrder);
+    }
+
+    /**
+     * Plays the games of the given seeds in parallel.
+     *
+     * @param firstSeed   the first seed (inclusive)
+     * @param lastSeed    the last seed (inclusive)
+     * @param playerCount the number of players
+     * @param policy      the policy of the bots
+     * @param parallelism the number of threads
+     * @return the results of the games, sorted by seed
+     */
+    public static List<GameResult> playAll(long firstSeed, long lastSeed, int playerCount, String policy, int parallelism) {
+        return playAll(firstSeed, lastSeed, playerCount, policy, parallelism, nanos -> {});
+    }
+
+    /**
+     * Plays the games of the given seeds in parallel, giving the time taken by every move of the bots
+     * to the given consumer, which must be thread-safe.
+     *
+     * @param firstSeed   the first seed (inclusive)
+     * @param lastSeed    the last seed (inclusive)
+     * @param playerCount the number of players
+     * @param policy      the policy of the bots
+     * @param parallelism the number of threads
+     * @param moveNanos   the consumer of the times taken by the moves, in nanoseconds
+     * @return the results of the games, sorted by seed
+     */
+    static List<GameResult> playAll(long firstSeed, long lastSeed, int playerCount, String policy, int parallelism,
+                                    LongConsumer moveNanos) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.submit(() -> LongStream.rangeClosed(firstSeed, lastSeed)
+                            .parallel()
+                            .mapToObj(seed -> play(seed, playerCount, policy, moveNanos))
+                            .toList())
+                    .get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Parses the arguments, plays the games and prints the statistics.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            Preconditions.checkArgument(arg.startsWith("--") && arg.contains("="));
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+
+        String[] seeds = options.getOrDefault("seeds", "0..99").split("\\.\\.");
+        long firstSeed = Long.parseLong(seeds[0]);
+        long lastSeed = seeds.length > 1 ? Long.parseLong(seeds[1]) : firstSeed;
+        int playerCount = Integer.parseInt(options.getOrDefault("players", "2"));
+        String policy = options.getOrDefault("bot", "random");
+        int parallelism = Integer.parseInt(options.getOrDefault("parallelism", "" + Runtime.getRuntime().availableProcessors()));
+        Preconditions.checkArgument(firstSeed <= lastSeed && parallelism > 0);
+        Bots.create(policy, 0);
+
+        LongSummaryStatistics moveNanos = new LongSummaryStatistics();
+        long start = System.nanoTime();
+        List<GameResult> results = playAll(firstSeed, lastSeed, playerCount, policy, parallelism, nanos -> {
+            synchronized (moveNanos) {
+                moveNanos.accept(nanos);
+            }
+        });
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.print(report(results, playerCount, seconds));
+        System.out.printf(Locale.ROOT, "move time : mean %.3f ms, max %.3f ms%n",
+                moveNanos.getAverage() / 1e6, moveNanos.getMax() / 1e6);
+    }
+
+    /**
+     * Returns the report of the given results : throughput and statistics of the scores.
+     *
+     * @param results     the results of the games
+     * @param playerCount the number of players
+     * @param seconds     the time taken to play the games
+     * @return the report
+     */
+    static String report(List<GameResult> results, int playerCount, double seconds) {
+        long plies = results.stream().mapToLong(GameResult::plies).sum();
+        IntSummaryStatistics winningPoints = results.stream().mapToInt(GameResult::winningPoints).summaryStatistics();
+
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.ROOT, "%d games, %d plies in %.3f s : %.1f games/s, %.0f plies/s%n",
+                results.size(), plies, seconds, results.size() / seconds, plies / seconds));
+        report.append(String.format(Locale.ROOT, "winning points : mean %.2f, min %d, max %d%n",
+                winningPoints.getAverage(), winningPoints.getMin(), winningPoints.getMax()));
+        IntStream.range(0, playerCount).forEach(seat -> {
+            IntSummaryStatistics points = results.stream().mapToInt(r -> r.points().get(seat)).summaryStatistics();
+            long wins = results.stream().filter(r -> r.points().get(seat) == r.winningPoints()).count();
+            report.append(String.format(Locale.ROOT, "%-7s : mean %.2f, min %d, max %d, wins (ties included) %d%n",
+                    PlayerColor.ALL.get(seat), points.getAverage(), points.getMin(), points.getMax(), wins));
+        });
+        return report.toString();
+    }
+}
@@ -0,0 +1,99 @@
+package ch.epfl.chacun;
+
+import ch.epfl.chacun.bot.RandomBot;
+import ch.epfl.chacun.sim.Simulator;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActionEncoderTest {
+    //the codes as they were computed by sorting the fringe and the pawns at every action
+    private static String sortedPlacementCode(GameState state, PlacedTile placedTile) {
+        var sortedFringe = state.board().insertionPositions()
+                .stream()
+                .sorted(Comparator.comparingInt(Pos::x).thenComparingInt(Pos::y))
+                .toList();
+        return Base32.encodeBits10(sortedFringe.indexOf(placedTile.pos()) << 2 | placedTile.rotation().ordinal());
+    }
+
+    private static List<Occupant> sortedPawns(Board board) {
+        return board.occupants()
+                .stream()
+                .filter(o -> o.kind() == Occupant.Kind.PAWN)
+                .sorted(Comparator.comparingInt(Occupant::zoneId))
+                .toList();
+    }
+
+    @Test
+    void actionEncoderCodesAreTheSameAsWithSortedFringeAndPawns() {
+        var moves = new int[MoveGenerator.MAX_MOVES];
+        var retakes = 0;
+        for (long seed = 0; seed < 20; seed += 1) {
+            var bot = new RandomBot(seed);
+            var state = Simulator.initialState(seed, 3).withStartingTilePlaced();
+            while (state.nextAction() != GameState.Action.END_GAME) {
+                var board = state.board();
+                if (state.nextAction() == GameState.Action.PLACE_TILE) {
+                    for (var pos : board.sortedInsertionPositions()) {
+                        for (var rotation : Rotation.ALL) {
+                            var placedTile = new PlacedTile(state.tileToPlace(), state.currentPlayer(), rotation, pos);
+                            if (board.canAddTile(placedTile))
+                                assertEquals(sortedPlacementCode(state, placedTile), ActionEncoder.withPlacedTile(state, placedTile).actionB32());
+                        }
+                    }
+                }
+                var pawns = sortedPawns(board);
+                for (var i = 0; i < pawns.size(); i += 1) {
+                    assertEquals(i, board.pawnIndexOf(pawns.get(i)));
+                    assertEquals(pawns.get(i), board.tileWithPawn(i).occupant());
+                    if (state.nextAction() == GameState.Action.RETAKE_PAWN
+                            && board.tileWithId(Zone.tileId(pawns.get(i).zoneId())).placer() == state.currentPlayer()) {
+                        assertEquals(Base32.encodeBits5(i), ActionEncoder.withOccupantRemoved(state, pawns.get(i)).actionB32());
+                        retakes += 1;
+                    }
+                }
+                assertNull(board.tileWithPawn(pawns.size()));
+
+                var move = bot.chooseMove(state, moves, MoveGenerator.generate(state, moves));
+                var code = ActionEncoder.withMove(state, move).actionB32();
+                var next = MoveGenerator.apply(state, move);
+                var decoded = ActionEncoder.decodeAndApply(state, code);
+                assertNotNull(decoded);
+                assertEquals(next.board(), decoded.gameState().board());
+                state = next;
+            }
+        }
+        assertTrue(retakes > 0);
+    }
+
+    @Test
+    void boardIndexesRejectUnknownPositionsAndOccupants() {
+        var board = Simulator.initialState(0, 2).withStartingTilePlaced().board();
+        assertEquals(-1, board.fringeIndexOf(new Pos(0, 0)));
+        assertEquals(-1, board.fringeIndexOf(new Pos(100, 100)));
+        assertEquals(-1, board.pawnIndexOf(new Occupant(Occupant.Kind.PAWN, 560)));
+        assertEquals(-1, board.pawnIndexOf(new Occupant(Occupant.Kind.HUT, 568)));
+        assertNull(board.tileWithPawn(0));
+        assertNull(board.tileWithPawn(-1));
+        for (var i = 0; i < board.sortedInsertionPositions().size(); i += 1) {
+            assertEquals(i, board.fringeIndexOf(board.sortedInsertionPositions().get(i)));
+        }
+    }
+
+    @Test
+    void actionEncoderWithMoveEncodesPackedMoves() {
+        var state = Simulator.initialState(1, 2).withStartingTilePlaced();
+        var moves = new int[MoveGenerator.MAX_MOVES];
+        var count = MoveGenerator.generate(state, moves);
+        var stateAction = ActionEncoder.withMove(state, moves[count - 1]);
+        assertEquals(Base32.encodeBits10(moves[count - 1]), stateAction.actionB32());
+        assertEquals(MoveGenerator.apply(state, moves[count - 1]), stateAction.gameState());
+
+        var occupation = ActionEncoder.withMove(stateAction.gameState(), MoveGenerator.NONE);
+        assertEquals(Base32.encodeBits5(MoveGenerator.NONE), occupation.actionB32());
+        assertThrows(IllegalArgumentException.class, () -> ActionEncoder.withMove(state, MoveGenerator.MAX_MOVES - 1));
+    }
+}
@@ -0,0 +1,85 @@
+package ch.epfl.chacun;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitboardTest {
+    private static int index(int x, int y) {
+        return (y + Board.REACH) * Board.BOARD_SIZE + (x + Board.REACH);
+    }
+
+    private static List<Integer> indices(Bitboard bitboard) {
+        var indices = new ArrayList<Integer>();
+        for (int i = bitboard.nextSetBit(0); i != Bitboard.NO_CELL; i = bitboard.nextSetBit(i + 1)) {
+            indices.add(i);
+        }
+        return indices;
+    }
+
+    @Test
+    void bitboardWithAndContainsWork() {
+        var bitboard = Bitboard.EMPTY.with(0).with(63).with(64).with(Board.BOARD_CELL_NUMBER - 1);
+        for (int i = 0; i < Board.BOARD_CELL_NUMBER; i += 1) {
+            assertEquals(i == 0 || i == 63 || i == 64 || i == Board.BOARD_CELL_NUMBER - 1, bitboard.contains(i));
+        }
+        assertEquals(4, bitboard.cardinality());
+        assertEquals(List.of(0, 63, 64, Board.BOARD_CELL_NUMBER - 1), indices(bitboard));
+        assertFalse(Bitboard.EMPTY.contains(0));
+    }
+
+    @Test
+    void bitboardNeighborIndexStaysInsideBoard() {
+        assertEquals(Bitboard.NO_CELL, Bitboard.neighborIndex(index(-12, -12), Direction.N));
+        assertEquals(Bitboard.NO_CELL, Bitboard.neighborIndex(index(-12, -12), Direction.W));
+        assertEquals(Bitboard.NO_CELL, Bitboard.neighborIndex(index(12, 12), Direction.S));
+        assertEquals(Bitboard.NO_CELL, Bitboard.neighborIndex(index(12, 0), Direction.E));
+        assertEquals(index(0, -1), Bitboard.neighborIndex(index(0, 0), Direction.N));
+        assertEquals(index(1, 0), Bitboard.neighborIndex(index(0, 0), Direction.E));
+        assertEquals(index(0, 1), Bitboard.neighborIndex(index(0, 0), Direction.S));
+        assertEquals(index(-1, 0), Bitboard.neighborIndex(index(0, 0), Direction.W));
+    }
+
+    @Test
+    void bitboardNeighborsDoesNotWrapAroundRows() {
+        var center = Bitboard.EMPTY.with(index(0, 0));
+        assertEquals(
+                List.of(index(0, -1), index(-1, 0), index(1, 0), index(0, 1)),
+                indices(center.neighbors()));
+
+        var eastEdge = Bitboard.EMPTY.with(index(12, 0));
+        assertEquals(
+                List.of(index(12, -1), index(11, 0), index(12, 1)),
+                indices(eastEdge.neighbors()));
+
+        var corner = Bitboard.EMPTY.with(index(-12, -12));
+        assertEquals(
+                List.of(index(-11, -12), index(-12, -11)),
+                indices(corner.neighbors()));
+    }
+
+    @Test
+    void bitboardNeighborhoodContainsTheThreeByThreeSquare() {
+        var neighborhood = Bitboard.EMPTY.with(index(-12, 3)).neighborhood();
+        var expected = new ArrayList<Integer>();
+        for (int y = 2; y <= 4; y += 1) {
+            for (int x = -12; x <= -11; x += 1) {
+                expected.add(index(x, y));
+            }
+        }
+        assertEquals(expected, indices(neighborhood));
+    }
+
+    @Test
+    void bitboardSetOperationsWork() {
+        var a = Bitboard.EMPTY.with(1).with(100).with(600);
+        var b = Bitboard.EMPTY.with(100).with(200);
+        assertEquals(List.of(1, 100, 200, 600), indices(a.or(b)));
+        assertEquals(List.of(100), indices(a.and(b)));
+        assertEquals(List.of(1, 600), indices(a.andNot(b)));
+        assertEquals(Bitboard.EMPTY.with(100), a.and(b));
+    }
+}
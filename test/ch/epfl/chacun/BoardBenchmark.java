@@ -0,0 +1,131 @@
+package ch.epfl.chacun;
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.random.RandomGeneratorFactory;
+import java.util.stream.Collectors;
+
+/**
+ * Micro-benchmark of the board on a full 95-tile board, and of the whole game leading to it.
+ * <p>
+ * This is not a JUnit test, it is run by hand once the project is compiled :
+ * {@code java -cp target/classes:target/test-classes ch.epfl.chacun.BoardBenchmark [seed]}
+ *
+ * @author Ilyes Rouibi (372420)
+ * @author Weifeng Ding (379902)
+ */
+final class BoardBenchmark {
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+    private static final int ITERATIONS = 2_000;
+
+    private BoardBenchmark() {}
+
+    public static void main(String[] args) {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 2024;
+        Board board = fullBoard(seed);
+
+        Set<Area<Zone.Forest>> forests = new HashSet<>();
+        Set<Area<Zone.River>> rivers = new HashSet<>();
+        List<Zone.Meadow> meadowZones = new ArrayList<>();
+        for (Area<Zone.Meadow> meadow : board.meadowAreas()) {
+            meadowZones.addAll(meadow.zones());
+            for (int tileId : meadow.tileIds()) {
+                PlacedTile tile = board.tileWithId(tileId);
+                tile.forestZones().forEach(forest -> forests.add(board.forestArea(forest)));
+                tile.riverZones().forEach(river -> rivers.add(board.riverArea(river)));
+            }
+        }
+
+        System.out.printf("board : %d occupants, %d forests, %d rivers, %d meadows (%d zones)%n",
+                board.occupants().size(), forests.size(), rivers.size(), board.meadowAreas().size(), meadowZones.size());
+
+        measure("withoutGatherersOrFishersIn", () -> System.identityHashCode(board.withoutGatherersOrFishersIn(forests, rivers)));
+        measure("meadow scoring lookups", () -> {
+            int zoneCount = 0;
+            for (Zone.Meadow meadowZone : meadowZones) {
+                Pos pos = board.tileWithId(meadowZone.tileId()).pos();
+                zoneCount += board.adjacentMeadow(pos, meadowZone).zones().size();
+            }
+            return zoneCount;
+        });
+        measure("couldPlaceTile (all tiles)", () -> {
+            int placeable = 0;
+            for (Tile tile : Tiles.TILES) {
+                if (board.couldPlaceTile(tile)) placeable += 1;
+            }
+            return placeable;
+        });
+        measure("full game", () -> System.identityHashCode(fullBoard(seed)), 20);
+    }
+
+    /**
+     * Plays a whole game with the given seed, every player placing the tile at the first legal position
+     * and occupying the first free zone of the tile.
+     *
+     * @param seed the seed used to shuffle the tiles
+     * @return the board at the end of the game
+     */
+    static Board fullBoard(long seed) {
+        List<Tile> tiles = new ArrayList<>(Tiles.TILES);
+        Collections.shuffle(tiles, RandomGeneratorFactory.getDefault().create(seed));
+        Map<Tile.Kind, List<Tile>> decks = tiles.stream().collect(Collectors.groupingBy(Tile::kind));
+        TileDecks tileDecks = new TileDecks(decks.get(Tile.Kind.START), decks.get(Tile.Kind.NORMAL), decks.get(Tile.Kind.MENHIR));
+
+        List<PlayerColor> players = List.of(PlayerColor.RED, PlayerColor.BLUE, PlayerColor.GREEN);
+        TextMakerFr textMaker = new TextMakerFr(Map.of(PlayerColor.RED, "Rouge", PlayerColor.BLUE, "Bleu", PlayerColor.GREEN, "Vert"));
+        GameState gameState = GameState.initial(players, tileDecks, textMaker).withStartingTilePlaced();
+
+        while (gameState.nextAction() != GameState.Action.END_GAME) {
+            gameState = switch (gameState.nextAction()) {
+                case PLACE_TILE -> gameState.withPlacedTile(firstLegalPlacement(gameState));
+                case OCCUPY_TILE -> gameState.withNewOccupant(gameState.lastTilePotentialOccupants()
+                        .stream()
+                        .min(Comparator.comparingInt(Occupant::zoneId))
+                        .orElse(null));
+                case RETAKE_PAWN -> gameState.withOccupantRemoved(null);
+                default -> throw new IllegalStateException();
+            };
+        }
+        return gameState.board();
+    }
+
+    private static PlacedTile firstLegalPlacement(GameState gameState) {
+        for (Pos pos : gameState.board().sortedInsertionPositions()) {
+            for (Rotation rotation : Rotation.ALL) {
+                if (gameState.board().canAddTileFast(gameState.tileToPlace(), rotation, pos))
+                    return new PlacedTile(gameState.tileToPlace(), gameState.currentPlayer(), rotation, pos);
+            }
+        }
+        throw new IllegalStateException("The tile to place cannot be placed");
+    }
+
+    private static void measure(String name, Operation operation) {
+        measure(name, operation, ITERATIONS);
+    }
+
+    private static void measure(String name, Operation operation, int iterations) {
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long sink = 0;
+        double bestNanos = Double.MAX_VALUE;
+        double bytes = 0;
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            long startBytes = threadBean.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                sink += operation.run();
+            }
+            double nanosPerOperation = (double) (System.nanoTime() - start) / iterations;
+            if (round >= WARMUP_ROUNDS) {
+                bestNanos = Math.min(bestNanos, nanosPerOperation);
+                bytes = (double) (threadBean.getCurrentThreadAllocatedBytes() - startBytes) / iterations;
+            }
+        }
+        System.out.printf("%-30s %12.0f ns/op %12.0f B/op (%d)%n", name, bestNanos, bytes, sink & 1);
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        int run();
+    }
+}
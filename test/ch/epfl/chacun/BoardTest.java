@@ -426,6 +426,33 @@ class BoardTest {
         assertEquals(expectedInsertionPositions, board.insertionPositions());
     }
 
+    @Test
+    void boardSortedInsertionPositionsAreSortedByXThenY() {
+        var allTiles = allTiles();
+
+        var t56 = new PlacedTile(allTiles.get(56), null, Rotation.NONE, new Pos(0, 0));
+        var t42 = new PlacedTile(allTiles.get(42), PlayerColor.RED, Rotation.LEFT, new Pos(1, 0));
+        var t94 = new PlacedTile(allTiles.get(94), PlayerColor.BLUE, Rotation.NONE, new Pos(0, -1));
+
+        var board = Board.EMPTY
+                .withNewTile(t56)
+                .withNewTile(t42)
+                .withNewTile(t94);
+
+        var expectedSortedInsertionPositions = List.of(
+                new Pos(-1, -1),
+                new Pos(-1, 0),
+                new Pos(0, -2),
+                new Pos(0, 1),
+                new Pos(1, -1),
+                new Pos(1, 1),
+                new Pos(2, 0));
+
+        assertEquals(expectedSortedInsertionPositions, board.sortedInsertionPositions());
+        assertEquals(Set.copyOf(expectedSortedInsertionPositions), board.insertionPositions());
+        assertEquals(List.of(), Board.EMPTY.sortedInsertionPositions());
+    }
+
     @Test
     void boardLastPlacedTileWorks() {
         var allTiles = allTiles();
@@ -762,6 +789,57 @@ class BoardTest {
         }
     }
 
+    @Test
+    void boardCanAddTileFastAgreesWithSideComparison() {
+        var allTiles = allTiles();
+        var t56 = new PlacedTile(allTiles.get(56), null, Rotation.NONE, new Pos(0, 0));
+        var t17 = new PlacedTile(allTiles.get(17), PlayerColor.BLUE, Rotation.NONE, new Pos(-1, 0));
+        var t27 = new PlacedTile(allTiles.get(27), PlayerColor.GREEN, Rotation.NONE, new Pos(1, 0));
+        var board = Board.EMPTY
+                .withNewTile(t56)
+                .withNewTile(t17)
+                .withNewTile(t27);
+
+        for (var tile : allTiles) {
+            for (var rotation : Rotation.ALL) {
+                for (int x = -3; x <= 3; x += 1) {
+                    for (int y = -3; y <= 3; y += 1) {
+                        var pos = new Pos(x, y);
+                        var placedTile = new PlacedTile(tile, null, rotation, pos);
+                        var expected = board.insertionPositions().contains(pos)
+                                && Direction.ALL.stream().allMatch(d -> {
+                                    var neighbor = board.tileAt(pos.neighbor(d));
+                                    return neighbor == null || placedTile.side(d).isSameKindAs(neighbor.side(d.opposite()));
+                                });
+                        assertEquals(expected, board.canAddTileFast(tile, rotation, pos));
+                    }
+                }
+            }
+        }
+        assertFalse(board.canAddTileFast(allTiles.get(0), Rotation.NONE, new Pos(-100, 0)));
+    }
+
+    @Test
+    void boardCouldPlaceTileStaysConsistentWhileTilesArePlaced() {
+        var allTiles = allTiles();
+        var board = Board.EMPTY.withNewTile(new PlacedTile(allTiles.get(56), null, Rotation.NONE, new Pos(0, 0)));
+        for (var tileToPlace : allTiles) {
+            for (var tile : allTiles) {
+                var b = board;
+                var expected = b.insertionPositions().stream()
+                        .anyMatch(pos -> Rotation.ALL.stream().anyMatch(r -> b.canAddTileFast(tile, r, pos)));
+                assertEquals(expected, board.couldPlaceTile(tile));
+            }
+            var placement = board.sortedInsertionPositions().stream()
+                    .flatMap(pos -> Rotation.ALL.stream().map(r -> new PlacedTile(tileToPlace, PlayerColor.RED, r, pos)))
+                    .filter(board::canAddTile)
+                    .findFirst();
+            if (placement.isPresent() && tileToPlace.id() != 56) {
+                board = board.withNewTile(placement.get());
+            }
+        }
+    }
+
     // No explicit test for `withNewTile`, which is used extensively by other tests
 
     @Test
@@ -852,6 +930,13 @@ class BoardTest {
         var board1 = board.withoutGatherersOrFishersIn(Set.of(occupiedForest), Set.of());
         assertEquals(List.of(), board1.forestArea(forest56).occupants());
         assertEquals(List.of(PlayerColor.GREEN), board1.meadowArea(meadow42).occupants());
+
+        for (var player : List.of(PlayerColor.RED, PlayerColor.BLUE, PlayerColor.YELLOW)) {
+            assertEquals(1, board.occupantCount(player, Occupant.Kind.PAWN));
+            assertEquals(0, board1.occupantCount(player, Occupant.Kind.PAWN));
+        }
+        assertEquals(1, board1.occupantCount(PlayerColor.GREEN, Occupant.Kind.PAWN));
+        assertEquals(0, board1.withoutOccupant(new Occupant(Occupant.Kind.PAWN, 42_1)).occupantCount(PlayerColor.GREEN, Occupant.Kind.PAWN));
     }
 
     @Test
@@ -927,6 +1012,37 @@ class BoardTest {
         assertNotEquals(board1, board2);
     }
 
+    @Test
+    void boardZobristKeyDependsOnlyOnContent() {
+        var allTiles = allTiles();
+
+        var t56 = new PlacedTile(allTiles.get(56), null, Rotation.NONE, new Pos(0, 0));
+        var t17 = new PlacedTile(allTiles.get(17), PlayerColor.BLUE, Rotation.NONE, new Pos(-1, 0));
+        var t27 = new PlacedTile(allTiles.get(27), PlayerColor.GREEN, Rotation.NONE, new Pos(1, 0));
+        var pawn = new Occupant(Occupant.Kind.PAWN, 17_0);
+        var tiger = new Animal(17_4_0, Animal.Kind.TIGER);
+
+        var board = Board.EMPTY
+                .withNewTile(t56)
+                .withNewTile(t17);
+        var board1 = board
+                .withNewTile(t27)
+                .withOccupant(pawn)
+                .withMoreCancelledAnimals(Set.of(tiger));
+        var board2 = board
+                .withMoreCancelledAnimals(Set.of(tiger))
+                .withOccupant(pawn)
+                .withNewTile(t27)
+                .withMoreCancelledAnimals(Set.of(tiger));
+
+        assertEquals(board1.zobristKey(), board2.zobristKey());
+        assertEquals(board1, board2);
+        assertNotEquals(board.zobristKey(), board1.zobristKey());
+        assertNotEquals(board.zobristKey(), board.withOccupant(pawn).zobristKey());
+        assertEquals(board.zobristKey(), board.withOccupant(pawn).withoutOccupant(pawn).zobristKey());
+        assertEquals(board, board.withOccupant(pawn).withoutOccupant(pawn));
+    }
+
     @Test
     void boardHashcodeHashedByStructure() {
         var allTiles = allTiles();
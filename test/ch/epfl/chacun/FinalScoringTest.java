@@ -0,0 +1,72 @@
+package ch.epfl.chacun;
+
+import ch.epfl.chacun.bot.RandomBot;
+import ch.epfl.chacun.sim.Simulator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FinalScoringTest {
+    private static List<Board> boardsOfRandomGames() {
+        var moves = new int[MoveGenerator.MAX_MOVES];
+        var boards = new ArrayList<Board>();
+        for (long seed = 0; seed < 10; seed += 1) {
+            var bot = new RandomBot(seed);
+            var state = Simulator.initialState(seed, 4).withStartingTilePlaced();
+            var ply = 0;
+            while (state.nextAction() != GameState.Action.END_GAME) {
+                if (ply % 20 == 0) boards.add(state.board());
+                state = MoveGenerator.apply(state, bot.chooseMove(state, moves, MoveGenerator.generate(state, moves)));
+                ply += 1;
+            }
+        }
+        return boards;
+    }
+
+    @Test
+    void breakdownIsTheSameInParallel() {
+        for (var board : boardsOfRandomGames()) {
+            assertEquals(FinalScoring.breakdown(board, Integer.MAX_VALUE), FinalScoring.breakdown(board, 0));
+        }
+    }
+
+    @Test
+    void breakdownScoresEveryMeadowThenEveryRiverSystem() {
+        var scoredAreas = 0;
+        for (var board : boardsOfRandomGames()) {
+            var breakdown = FinalScoring.breakdown(board);
+            assertEquals(board.meadowAreas().size() + board.riverSystemAreas().size(), breakdown.size());
+            for (var i = 0; i < breakdown.size(); i += 1) {
+                var areaScore = breakdown.get(i);
+                assertEquals(i < board.meadowAreas().size(), board.meadowAreas().contains(areaScore.area()));
+                for (var animal : areaScore.cancelledAnimals()) {
+                    assertEquals(Animal.Kind.DEER, animal.kind());
+                    assertFalse(board.cancelledAnimals().contains(animal));
+                }
+                for (var event : areaScore.events()) {
+                    assertTrue(event.points() > 0);
+                    assertTrue(areaScore.area().isOccupied());
+                }
+                if (!areaScore.events().isEmpty()) scoredAreas += 1;
+            }
+        }
+        assertTrue(scoredAreas > 0);
+    }
+
+    @Test
+    void areaScorePointsOfSumsTheEventsOfThePlayer() {
+        var area = new Area<Zone.Meadow>(Set.of(), List.of(PlayerColor.RED), 0);
+        var events = List.of(
+                new MessageBoard.Event(MessageBoard.Event.Kind.MEADOW, 3, 0b01, Set.of(1), 0, 0),
+                new MessageBoard.Event(MessageBoard.Event.Kind.PIT_TRAP, 2, 0b11, Set.of(1), 0, 0));
+        var areaScore = new FinalScoring.AreaScore(area, events, Set.of());
+        assertEquals(5, areaScore.pointsOf(PlayerColor.RED));
+        assertEquals(2, areaScore.pointsOf(PlayerColor.BLUE));
+        assertEquals(0, areaScore.pointsOf(PlayerColor.GREEN));
+        assertThrows(UnsupportedOperationException.class, () -> areaScore.events().add(null));
+    }
+}
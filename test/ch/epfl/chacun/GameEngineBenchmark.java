@@ -0,0 +1,78 @@
+package ch.epfl.chacun;
+
+import ch.epfl.chacun.sim.Simulator;
+
+import java.util.SplittableRandom;
+
+/**
+ * Measure of the number of moves per second of random rollouts, played by {@link GameEngine}
+ * and by the immutable {@link GameState} with {@link MoveGenerator}.
+ * <p>
+ * This is not a JUnit test, it is run by hand once the project is compiled :
+ * {@code java -cp target/classes:target/test-classes ch.epfl.chacun.GameEngineBenchmark [seed]}
+ * <p>
+ * A rollout plays random moves from the state after the starting tile up to the end of the game ;
+ * the engine then undoes them all to start the next rollout, which is included in its time.
+ *
+ * @author Ilyes Rouibi (372420)
+ * @author Weifeng Ding (379902)
+ */
+final class GameEngineBenchmark {
+    private static final int WARMUP_ROLLOUTS = 2_000;
+    private static final int ROLLOUTS = 5_000;
+
+    private GameEngineBenchmark() {}
+
+    public static void main(String[] args) {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 2024;
+        GameState start = Simulator.initialState(seed, 3, NoTextMaker.INSTANCE).withStartingTilePlaced();
+
+        engineRollouts(start, seed, WARMUP_ROLLOUTS);
+        stateRollouts(start, seed, WARMUP_ROLLOUTS);
+
+        long engineStart = System.nanoTime();
+        long enginePlies = engineRollouts(start, seed, ROLLOUTS);
+        long engineNanos = System.nanoTime() - engineStart;
+
+        long stateStart = System.nanoTime();
+        long statePlies = stateRollouts(start, seed, ROLLOUTS);
+        long stateNanos = System.nanoTime() - stateStart;
+
+        System.out.printf("%d rollouts of %d moves on average%n", ROLLOUTS, enginePlies / ROLLOUTS);
+        report("GameEngine", enginePlies, engineNanos);
+        report("GameState", statePlies, stateNanos);
+    }
+
+    private static long engineRollouts(GameState start, long seed, int rollouts) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        GameEngine engine = new GameEngine(start);
+        long plies = 0;
+        for (int i = 0; i < rollouts; i++) {
+            while (engine.nextAction() != GameState.Action.END_GAME) {
+                engine.makeMove(moves[random.nextInt(engine.generateMoves(moves))]);
+                plies++;
+            }
+            while (engine.depth() > 0) engine.unmake();
+        }
+        return plies;
+    }
+
+    private static long stateRollouts(GameState start, long seed, int rollouts) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        long plies = 0;
+        for (int i = 0; i < rollouts; i++) {
+            GameState state = start;
+            while (state.nextAction() != GameState.Action.END_GAME) {
+                state = MoveGenerator.apply(state, moves[random.nextInt(MoveGenerator.generate(state, moves))]);
+                plies++;
+            }
+        }
+        return plies;
+    }
+
+    private static void report(String name, long plies, long nanos) {
+        System.out.printf("%-12s %12.0f moves/s%n", name, plies * 1e9 / nanos);
+    }
+}
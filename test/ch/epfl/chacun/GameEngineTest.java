@@ -0,0 +1,141 @@
+package ch.epfl.chacun;
+
+import ch.epfl.chacun.sim.Perft;
+import ch.epfl.chacun.sim.Simulator;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameEngineTest {
+    private static void assertSameGame(GameState state, GameEngine engine) {
+        assertEquals(state.nextAction(), engine.nextAction());
+        assertEquals(state.currentPlayer(), engine.currentPlayer());
+        assertEquals(state.tileToPlace(), engine.tileToPlace());
+        for (var player : state.players()) {
+            assertEquals(state.messageBoard().pointsOf(player), engine.pointsOf(player), player.name());
+            for (var kind : Occupant.Kind.values())
+                assertEquals(state.freeOccupantsCount(player, kind), engine.freeOccupantsCount(player, kind));
+        }
+        var expectedMoves = new int[MoveGenerator.MAX_MOVES];
+        var moves = new int[MoveGenerator.MAX_MOVES];
+        var count = state.nextAction() == GameState.Action.END_GAME ? 0 : MoveGenerator.generate(state, expectedMoves);
+        assertArrayEquals(Arrays.copyOf(expectedMoves, count), Arrays.copyOf(moves, engine.generateMoves(moves)));
+    }
+
+    //plays random moves on both the engine and the states, then undoes them all, checking every ply
+    private static void playAndUndo(GameState initialState, GameEngine engine, long seed) {
+        var random = new Random(seed);
+        var moves = new int[MoveGenerator.MAX_MOVES];
+        var states = new ArrayList<GameState>();
+        var state = initialState;
+        var startDepth = engine.depth();
+        while (state.nextAction() != GameState.Action.END_GAME) {
+            assertSameGame(state, engine);
+            states.add(state);
+            var move = moves[random.nextInt(MoveGenerator.generate(state, moves))];
+            state = MoveGenerator.apply(state, move);
+            engine.makeMove(move);
+        }
+        assertSameGame(state, engine);
+        assertEquals(state, engine.toGameState());
+
+        for (var ply = states.size() - 1; ply >= 0; ply -= 1) {
+            engine.unmake();
+            assertSameGame(states.get(ply), engine);
+        }
+        assertEquals(startDepth, engine.depth());
+        assertEquals(initialState, engine.toGameState());
+    }
+
+    private static long perft(GameEngine engine, int depth, int[][] moves) {
+        if (depth == 0 || engine.nextAction() == GameState.Action.END_GAME) return 1;
+        var count = engine.generateMoves(moves[depth - 1]);
+        if (depth == 1) return count;
+        var nodes = 0L;
+        for (var i = 0; i < count; i += 1) {
+            engine.makeMove(moves[depth - 1][i]);
+            nodes += perft(engine, depth - 1, moves);
+            engine.unmake();
+        }
+        return nodes;
+    }
+
+    @Test
+    void gameEngineFollowsGameStateRulesOnWholeGames() {
+        for (var seed = 0; seed < 40; seed += 1) {
+            var initialState = Simulator.initialState(seed, 2 + seed % 4, NoTextMaker.INSTANCE);
+            var engine = new GameEngine(initialState);
+            assertSameGame(initialState, engine);
+            engine.startGame();
+            playAndUndo(initialState.withStartingTilePlaced(), engine, seed);
+            engine.unmake();
+            assertSameGame(initialState, engine);
+            assertEquals(0, engine.depth());
+        }
+    }
+
+    @Test
+    void gameEngineFollowsGameStateRulesOnTheFixtureDecks() {
+        for (var deck : Perft.FIXTURE_DECKS.values()) {
+            for (var seed = 0; seed < 20; seed += 1) {
+                var state = Perft.fixtureState(deck, 2 + seed % 4);
+                playAndUndo(state, new GameEngine(state), seed);
+            }
+        }
+    }
+
+    @Test
+    void gameEnginePerftMatchesPerft() {
+        for (var deck : Perft.FIXTURE_DECKS.values()) {
+            var state = Perft.fixtureState(deck, 2);
+            var engine = new GameEngine(state);
+            for (var depth = 0; depth <= 5; depth += 1) {
+                assertEquals(Perft.perft(state, depth), perft(engine, depth, new int[depth][MoveGenerator.MAX_MOVES]));
+                assertEquals(0, engine.depth());
+            }
+        }
+    }
+
+    @Test
+    void gameEngineStartsFromAGameInProgress() {
+        for (var seed = 0; seed < 10; seed += 1) {
+            var random = new Random(seed);
+            var moves = new int[MoveGenerator.MAX_MOVES];
+            var state = Simulator.initialState(seed, 2 + seed % 4, NoTextMaker.INSTANCE).withStartingTilePlaced();
+            for (var ply = 0; ply < 20 + 4 * seed; ply += 1) {
+                state = MoveGenerator.apply(state, moves[random.nextInt(MoveGenerator.generate(state, moves))]);
+            }
+            var engine = new GameEngine(state);
+            assertSame(state, engine.toGameState());
+            playAndUndo(state, engine, seed);
+        }
+    }
+
+    @Test
+    void gameEngineRejectsIllegalMovesWithoutChanging() {
+        var state = Simulator.initialState(3, 2, NoTextMaker.INSTANCE);
+        var engine = new GameEngine(state);
+        assertThrows(IllegalArgumentException.class, () -> engine.makeMove(0));
+        assertThrows(IllegalArgumentException.class, engine::unmake);
+        engine.startGame();
+        assertThrows(IllegalArgumentException.class, engine::startGame);
+        for (var move : List.of(-1, 1 << 9, MoveGenerator.NONE)) {
+            assertThrows(IllegalArgumentException.class, () -> engine.makeMove(move));
+        }
+        assertEquals(1, engine.depth());
+        assertSameGame(state.withStartingTilePlaced(), engine);
+
+        var moves = new int[MoveGenerator.MAX_MOVES];
+        engine.makeMove(moves[engine.generateMoves(moves) - 1]);
+        if (engine.nextAction() == GameState.Action.OCCUPY_TILE) {
+            var expected = engine.toGameState();
+            for (var move : List.of(-1, 0b1111, 1 << 5)) {
+                assertThrows(IllegalArgumentException.class, () -> engine.makeMove(move));
+            }
+            assertEquals(2, engine.depth());
+            assertSameGame(expected, engine);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package ch.epfl.chacun;
+
+import ch.epfl.chacun.bot.RandomBot;
+import ch.epfl.chacun.sim.Simulator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measure of the memory taken by the history of a whole game, compared to independent copies of its states.
+ * <p>
+ * This is not a JUnit test, it is run by hand once the project is compiled :
+ * {@code java -cp target/classes:target/test-classes ch.epfl.chacun.GameHistoryBenchmark [seed]}
+ * <p>
+ * The independent copies are obtained by replaying every state from the start, so that they share no board,
+ * partition or message with each other.
+ *
+ * @author Ilyes Rouibi (372420)
+ * @author Weifeng Ding (379902)
+ */
+final class GameHistoryBenchmark {
+    private static final int GC_ROUNDS = 5;
+
+    private GameHistoryBenchmark() {}
+
+    public static void main(String[] args) {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 2024;
+        GameState start = Simulator.initialState(seed, 3).withStartingTilePlaced();
+
+        long emptyBytes = usedBytes();
+        GameHistory unboundedHistory = historyOf(start, seed, Integer.MAX_VALUE);
+        long unboundedBytes = usedBytes() - emptyBytes;
+        int turns = unboundedHistory.length();
+        unboundedHistory = null;
+
+        emptyBytes = usedBytes();
+        GameHistory history = historyOf(start, seed, GameHistory.DEFAULT_BUDGET);
+        long historyBytes = usedBytes() - emptyBytes;
+
+        List<String> actions = history.actions();
+        List<GameState> copies = new ArrayList<>();
+        long beforeCopiesBytes = usedBytes();
+        for (int k = 1; k <= turns; k++) {
+            GameState copy = start;
+            for (String action : actions.subList(0, k)) copy = ActionEncoder.decodeAndApply(copy, action).gameState();
+            copies.add(copy);
+        }
+        long copiesBytes = usedBytes() - beforeCopiesBytes;
+
+        System.out.printf("%d actions, %d states kept by the default history%n", turns, history.keptStateCount());
+        report("unbounded history", unboundedBytes, turns);
+        report("default history", historyBytes, turns);
+        report("independent copies", copiesBytes, turns);
+        System.out.printf("(%d)%n", copies.size() + history.length());
+    }
+
+    private static GameHistory historyOf(GameState start, long seed, int budget) {
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        RandomBot bot = new RandomBot(seed);
+        GameHistory history = new GameHistory(start, budget, GameHistory.DEFAULT_ANCHOR_INTERVAL);
+        GameState state = start;
+        while (state.nextAction() != GameState.Action.END_GAME) {
+            int move = bot.chooseMove(state, moves, MoveGenerator.generate(state, moves));
+            state = history.push(ActionEncoder.withMove(state, move));
+        }
+        return history;
+    }
+
+    private static void report(String name, long bytes, int turns) {
+        System.out.printf("%-20s %10d B %8d B/turn%n", name, bytes, bytes / turns);
+    }
+
+    private static long usedBytes() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < GC_ROUNDS; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
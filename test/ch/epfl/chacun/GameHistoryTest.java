@@ -0,0 +1,95 @@
+package ch.epfl.chacun;
+
+import ch.epfl.chacun.bot.RandomBot;
+import ch.epfl.chacun.sim.Simulator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameHistoryTest {
+    private static List<ActionEncoder.StateAction> randomGame(GameState state, long seed) {
+        var moves = new int[MoveGenerator.MAX_MOVES];
+        var bot = new RandomBot(seed);
+        var stateActions = new ArrayList<ActionEncoder.StateAction>();
+        while (state.nextAction() != GameState.Action.END_GAME) {
+            var move = bot.chooseMove(state, moves, MoveGenerator.generate(state, moves));
+            var stateAction = ActionEncoder.withMove(state, move);
+            stateActions.add(stateAction);
+            state = stateAction.gameState();
+        }
+        return stateActions;
+    }
+
+    @Test
+    void gameHistoryGivesEveryStateWithinTheBudget() {
+        var start = Simulator.initialState(3, 3).withStartingTilePlaced();
+        var game = randomGame(start, 3);
+        var history = new GameHistory(start, 4, 8);
+        for (var stateAction : game) history.push(stateAction);
+
+        assertEquals(game.size(), history.length());
+        assertTrue(history.keptStateCount() <= 4 + 1 + game.size() / 8 + 1);
+        assertSame(start, history.stateAt(0));
+        for (var k = game.size(); k > 0; k -= 1) {
+            var expected = game.get(k - 1).gameState();
+            var actual = history.stateAt(k);
+            assertEquals(expected.board(), actual.board());
+            assertEquals(expected.zobristKey(), actual.zobristKey());
+            assertEquals(expected.messageBoard().events(), actual.messageBoard().events());
+            assertTrue(history.keptStateCount() <= 4 + 1 + game.size() / 8 + 1);
+        }
+    }
+
+    @Test
+    void gameHistoryUndoesAndRedoes() {
+        var start = Simulator.initialState(5, 2).withStartingTilePlaced();
+        var game = randomGame(start, 5);
+        var history = new GameHistory(start, 2, 4);
+        assertFalse(history.canUndo());
+        assertFalse(history.canRedo());
+        for (var stateAction : game.subList(0, 10)) history.push(stateAction);
+
+        for (var k = 9; k >= 0; k -= 1) {
+            var state = history.undo();
+            assertEquals(k, history.position());
+            assertEquals(k == 0 ? start.board() : game.get(k - 1).gameState().board(), state.board());
+        }
+        assertFalse(history.canUndo());
+        assertThrows(IllegalArgumentException.class, history::undo);
+        assertEquals(List.of(), history.actions());
+
+        for (var k = 1; k <= 10; k += 1) {
+            assertEquals(game.get(k - 1).gameState().board(), history.redo().board());
+        }
+        assertFalse(history.canRedo());
+        assertThrows(IllegalArgumentException.class, history::redo);
+        assertEquals(game.subList(0, 10).stream().map(ActionEncoder.StateAction::actionB32).toList(), history.actions());
+    }
+
+    @Test
+    void gameHistoryForgetsUndoneActionsWhenPlaying() {
+        var start = Simulator.initialState(7, 2).withStartingTilePlaced();
+        var game = randomGame(start, 7);
+        var otherGame = randomGame(start, 8);
+        var history = new GameHistory(start, 1, 3);
+        for (var stateAction : game.subList(0, 12)) history.push(stateAction);
+        for (var i = 0; i < 12; i += 1) history.undo();
+
+        history.push(otherGame.getFirst());
+        assertEquals(1, history.length());
+        assertFalse(history.canRedo());
+        assertEquals(otherGame.getFirst().gameState().board(), history.current().board());
+        assertEquals(List.of(otherGame.getFirst().actionB32()), history.actions());
+        assertEquals(start.board(), history.undo().board());
+    }
+
+    @Test
+    void gameHistoryConstructorThrowsOnInvalidArguments() {
+        var start = Simulator.initialState(0, 2).withStartingTilePlaced();
+        assertThrows(IllegalArgumentException.class, () -> new GameHistory(start, -1, 16));
+        assertThrows(IllegalArgumentException.class, () -> new GameHistory(start, 16, 0));
+    }
+}
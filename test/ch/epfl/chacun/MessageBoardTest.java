@@ -4,6 +4,7 @@ import org.junit.jupiter.api.Test;
 
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static ch.epfl.chacun.PlayerColor.*;
 import static ch.epfl.chacun.Zone.Forest.*;
@@ -174,6 +175,28 @@ class MessageBoardTest {
         assertEquals(List.of(expectedMessage), mb.messages());
     }
 
+    private static Area<Zone.Meadow> meadowOfDeer(int tileCount) {
+        var meadows = new HashSet<Zone.Meadow>();
+        for (var tileId = 1; tileId <= tileCount; tileId += 1) {
+            var zoneId = tileId * 10;
+            var deer = IntStream.range(0, 10).mapToObj(n -> new Animal(zoneId * 10 + n, Animal.Kind.DEER)).toList();
+            meadows.add(new Zone.Meadow(zoneId, deer, null));
+        }
+        return new Area<>(meadows, List.of(RED), 0);
+    }
+
+    @Test
+    void messageBoardWithScoredHuntingTrapKeepsTheTrueAnimalCounts() {
+        var mb = new MessageBoard(new BasicTextMaker(), List.of());
+        mb = mb.withScoredHuntingTrap(BLUE, meadowOfDeer(30), Set.of());
+        var tileIds = IntStream.rangeClosed(1, 30).boxed().collect(Collectors.toSet());
+        var expectedMessage = new MessageBoard.Message("BLUE|300|0×MAMMOTH/0×AUROCHS/300×DEER/0×TIGER", 300, Set.of(BLUE), tileIds);
+        assertEquals(List.of(expectedMessage), mb.messages());
+
+        var tooManyDeer = meadowOfDeer(6_554);
+        assertThrows(IllegalArgumentException.class, () -> new MessageBoard(new BasicTextMaker(), List.of()).withScoredMeadow(tooManyDeer, Set.of()));
+    }
+
     @Test
     void messageBoardWithScoredLogboatWorks() {
         var l1 = new Zone.Lake(18, 1, null);
@@ -406,6 +429,76 @@ class MessageBoardTest {
         // assertEquals(expectedMessage.scorers(), actualMessage.scorers());
         assertEquals(expectedMessage.tileIds(), actualMessage.tileIds());
     }
+
+    @Test
+    void messageBoardBuildsTextsOnlyWhenMessagesAreRead() {
+        var calls = new int[1];
+        var textMaker = new BasicTextMaker() {
+            @Override
+            public String playersScoredForest(Set<PlayerColor> scorers, int points, int mushroomGroupCount, int tileCount) {
+                calls[0] += 1;
+                return super.playersScoredForest(scorers, points, mushroomGroupCount, tileCount);
+            }
+        };
+        var forestArea = new Area<>(Set.of(new Zone.Forest(10, Kind.PLAIN), new Zone.Forest(20, Kind.WITH_MUSHROOMS)), List.of(RED), 0);
+        var mb = new MessageBoard(textMaker, List.of()).withScoredForest(forestArea).withScoredForest(forestArea);
+        assertEquals(Map.of(RED, 14), mb.points());
+        assertEquals(14, mb.pointsOf(RED));
+        assertEquals(0, mb.pointsOf(BLUE));
+        assertNull(mb.points().get(BLUE));
+        assertThrows(UnsupportedOperationException.class, () -> mb.points().put(BLUE, 1));
+        assertEquals(2, mb.size());
+        assertEquals(0, calls[0]);
+
+        var event = mb.events().getFirst();
+        assertEquals(MessageBoard.Event.Kind.FOREST, event.kind());
+        assertEquals(7, event.points());
+        assertEquals(Set.of(RED), event.players());
+        assertEquals(1, event.count());
+
+        assertEquals("{RED}|7|1|2", mb.messages().getLast().text());
+        assertEquals(2, calls[0]);
+        mb.messages();
+        assertEquals(2, calls[0]);
+    }
+
+    @Test
+    void messageBoardEqualityBuildsNoText() {
+        var calls = new int[1];
+        var textMaker = new BasicTextMaker() {
+            @Override
+            public String playersScoredForest(Set<PlayerColor> scorers, int points, int mushroomGroupCount, int tileCount) {
+                calls[0] += 1;
+                return super.playersScoredForest(scorers, points, mushroomGroupCount, tileCount);
+            }
+        };
+        var forestArea = new Area<>(Set.of(new Zone.Forest(10, Kind.PLAIN), new Zone.Forest(20, Kind.WITH_MUSHROOMS)), List.of(RED), 0);
+        var otherForestArea = new Area<>(Set.of(new Zone.Forest(10, Kind.PLAIN), new Zone.Forest(20, Kind.WITH_MUSHROOMS)), List.of(BLUE), 0);
+        var message = new MessageBoard.Message("text", 3, Set.of(GREEN), Set.of(5));
+        var mb = new MessageBoard(textMaker, List.of(message));
+        var mb1 = mb.withScoredForest(forestArea).withScoredForest(forestArea);
+        var mb2 = mb.withScoredForest(forestArea).withScoredForest(forestArea);
+        var mb3 = mb.withScoredForest(forestArea).withScoredForest(otherForestArea);
+
+        assertEquals(mb1, mb2);
+        assertEquals(mb1.hashCode(), mb2.hashCode());
+        assertNotEquals(mb1, mb3);
+        assertNotEquals(mb1, mb.withScoredForest(forestArea));
+        assertEquals(new MessageBoard(textMaker, List.of(message)), mb);
+        assertNotEquals(new MessageBoard(textMaker, List.of(message, message)), mb.withScoredForest(forestArea));
+        assertEquals(0, calls[0]);
+    }
+
+    @Test
+    void messageBoardEventsKeepAnimalCounts() {
+        var m1 = new Zone.Meadow(10, List.of(new Animal(10_1, Animal.Kind.MAMMOTH), new Animal(10_2, Animal.Kind.DEER)), null);
+        var m2 = new Zone.Meadow(20, List.of(new Animal(20_1, Animal.Kind.DEER)), null);
+        var meadowArea = new Area<>(Set.of(m1, m2), List.of(GREEN), 0);
+        var mb = new MessageBoard(NoTextMaker.INSTANCE, List.of()).withScoredMeadow(meadowArea, Set.of());
+        var event = mb.events().getFirst();
+        assertEquals(Map.of(Animal.Kind.MAMMOTH, 1, Animal.Kind.DEER, 2), event.animals());
+        assertEquals(new MessageBoard.Message("", 5, Set.of(GREEN), Set.of(1, 2)), mb.messages().getFirst());
+    }
 }
 
 class BasicTextMaker implements TextMaker {
@@ -0,0 +1,108 @@
+package ch.epfl.chacun;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoveGeneratorTest {
+    private static GameState initialState(long seed) {
+        var tiles = new ArrayList<>(Tiles.TILES);
+        Collections.shuffle(tiles, new Random(seed));
+        var decks = tiles.stream().collect(Collectors.groupingBy(Tile::kind));
+        var tileDecks = new TileDecks(decks.get(Tile.Kind.START), decks.get(Tile.Kind.NORMAL), decks.get(Tile.Kind.MENHIR));
+        var players = List.of(PlayerColor.RED, PlayerColor.BLUE, PlayerColor.GREEN);
+        var textMaker = new TextMakerFr(Map.of(PlayerColor.RED, "Rouge", PlayerColor.BLUE, "Bleu", PlayerColor.GREEN, "Vert"));
+        return GameState.initial(players, tileDecks, textMaker).withStartingTilePlaced();
+    }
+
+    private static Set<Integer> generatedMoves(GameState state) {
+        var moves = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generate(state, moves);
+        var set = new HashSet<Integer>();
+        for (int i = 0; i < count; i += 1) {
+            assertTrue(set.add(moves[i]));
+        }
+        return set;
+    }
+
+    private static Set<Integer> expectedMoves(GameState state) {
+        var expected = new HashSet<Integer>();
+        switch (state.nextAction()) {
+            case PLACE_TILE -> {
+                var fringe = state.board().sortedInsertionPositions();
+                for (int i = 0; i < fringe.size(); i += 1) {
+                    for (var rotation : Rotation.ALL) {
+                        var tile = new PlacedTile(state.tileToPlace(), state.currentPlayer(), rotation, fringe.get(i));
+                        if (state.board().canAddTile(tile)) expected.add(i << 2 | rotation.ordinal());
+                    }
+                }
+            }
+            case OCCUPY_TILE -> {
+                for (var occupant : state.lastTilePotentialOccupants()) {
+                    expected.add(occupant.kind().ordinal() << 4 | Zone.localId(occupant.zoneId()));
+                }
+                expected.add(MoveGenerator.NONE);
+            }
+            case RETAKE_PAWN -> {
+                var pawns = state.board().occupants().stream()
+                        .filter(o -> o.kind() == Occupant.Kind.PAWN)
+                        .sorted(Comparator.comparingInt(Occupant::zoneId))
+                        .toList();
+                for (int i = 0; i < pawns.size(); i += 1) {
+                    var placer = state.board().tileWithId(Zone.tileId(pawns.get(i).zoneId())).placer();
+                    if (placer == state.currentPlayer()) expected.add(i);
+                }
+                expected.add(MoveGenerator.NONE);
+            }
+            default -> fail();
+        }
+        return expected;
+    }
+
+    @Test
+    void moveGeneratorGeneratesExactlyTheLegalMoves() {
+        for (long seed = 0; seed < 5; seed += 1) {
+            var random = new Random(seed);
+            var state = initialState(seed);
+            while (state.nextAction() != GameState.Action.END_GAME) {
+                var moves = generatedMoves(state);
+                assertEquals(expectedMoves(state), moves);
+
+                //occupying as often as possible exercises the retake and the exhausted occupant cases
+                var sortedMoves = moves.stream().sorted().toList();
+                int move = state.nextAction() == GameState.Action.PLACE_TILE
+                        ? sortedMoves.get(random.nextInt(sortedMoves.size()))
+                        : sortedMoves.getFirst();
+                state = MoveGenerator.apply(state, move);
+            }
+            assertEquals(0, MoveGenerator.generate(state, new int[MoveGenerator.MAX_MOVES]));
+        }
+    }
+
+    @Test
+    void moveGeneratorMovesAreActionEncoderCodes() {
+        var state = initialState(7);
+        var moves = new int[MoveGenerator.MAX_MOVES];
+        for (int turn = 0; turn < 40 && state.nextAction() != GameState.Action.END_GAME; turn += 1) {
+            int count = MoveGenerator.generate(state, moves);
+            int move = moves[count / 2];
+            var stateAction = ActionEncoder.withMove(state, move);
+            var decoded = ActionEncoder.decodeAndApply(state, stateAction.actionB32());
+            assertNotNull(decoded);
+            var applied = MoveGenerator.apply(state, move);
+            assertEquals(decoded.gameState(), applied);
+            assertEquals(applied, stateAction.gameState());
+            state = applied;
+        }
+    }
+
+    @Test
+    void moveGeneratorApplyThrowsOnIllegalMoves() {
+        var state = initialState(3);
+        int fringeSize = state.board().sortedInsertionPositions().size();
+        assertThrows(IllegalArgumentException.class, () -> MoveGenerator.apply(state, fringeSize << 2));
+    }
+}
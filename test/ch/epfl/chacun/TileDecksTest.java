@@ -1,9 +1,11 @@
 package ch.epfl.chacun;
 
+import ch.epfl.chacun.sim.Simulator;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.SplittableRandom;
 import java.util.function.Predicate;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -198,6 +200,36 @@ class TileDecksTest {
                 decks.withTopTileDrawnUntil(Tile.Kind.MENHIR, falsePredicate).menhirTiles());
     }
 
+    @Test
+    void tileDecksPlaceabilityIndexMatchesCouldPlaceTile() {
+        var random = new SplittableRandom(2024);
+        var moves = new int[MoveGenerator.MAX_MOVES];
+        for (long seed = 0; seed < 5; seed += 1) {
+            var state = Simulator.initialState(seed, 2).withStartingTilePlaced();
+            while (state.nextAction() != GameState.Action.END_GAME) {
+                var board = state.board();
+                for (var kind : List.of(Tile.Kind.NORMAL, Tile.Kind.MENHIR)) {
+                    var decks = state.tileDecks();
+                    var deck = kind == Tile.Kind.NORMAL ? decks.normalTiles() : decks.menhirTiles();
+                    assertEquals(decks.withTopTileDrawnUntil(kind, board::couldPlaceTile),
+                            decks.withTopTileDrawnUntilPlaceable(kind, board));
+                    assertEquals(deck.stream().anyMatch(board::couldPlaceTile), decks.hasPlaceableTile(kind, board));
+                    assertEquals(deck.stream().filter(board::couldPlaceTile).count(), decks.placeableTileCount(kind, board));
+                }
+                state = MoveGenerator.apply(state, moves[random.nextInt(MoveGenerator.generate(state, moves))]);
+            }
+        }
+    }
+
+    @Test
+    void tileDecksDrawingSharesTheDeck() {
+        var decks = new TileDecks(List.of(), List.copyOf(Tiles.TILES.subList(1, 80)), List.of());
+        var drawn = decks.withTopTileDrawn(Tile.Kind.NORMAL).withTopTileDrawn(Tile.Kind.NORMAL);
+        assertEquals(Tiles.TILES.subList(3, 80), drawn.normalTiles());
+        assertEquals(Tiles.TILES.get(3), drawn.topTile(Tile.Kind.NORMAL));
+        assertEquals(Tiles.TILES.subList(3, 80).hashCode(), drawn.normalTiles().hashCode());
+    }
+
     record ConstantPredicate(boolean b) implements Predicate<Tile> {
         @Override
         public boolean test(Tile tile) {
@@ -26,6 +26,25 @@ class TileTest {
         assertEquals(List.of(sN, sE, sS, sW), tile.sides());
     }
 
+    @Test
+    void tileSideKindsPacksRotatedSides() {
+        var l0 = new Zone.Lake(1_8, 3, null);
+        var z0 = new Zone.Meadow(1_0, List.of(), null);
+        var z1 = new Zone.River(1_1, 0, l0);
+        var z2 = new Zone.Meadow(1_2, List.of(), null);
+        var z3 = new Zone.Forest(1_3, Zone.Forest.Kind.PLAIN);
+        var sN = new TileSide.Meadow(z0);
+        var sE = new TileSide.River(z0, z1, z2);
+        var sS = new TileSide.Forest(z3);
+        var sW = new TileSide.Meadow(z2);
+        var tile = new Tile(1, Tile.Kind.NORMAL, sN, sE, sS, sW);
+
+        assertEquals(0b10_01_11_10, tile.sideKinds(Rotation.NONE));
+        assertEquals(0b01_11_10_10, tile.sideKinds(Rotation.RIGHT));
+        assertEquals(0b11_10_10_01, tile.sideKinds(Rotation.HALF_TURN));
+        assertEquals(0b10_10_01_11, tile.sideKinds(Rotation.LEFT));
+    }
+
     @Test
     void tileSideZonesReturnsOnlySideZones() {
         var l0 = new Zone.Lake(4_8, 1, null);
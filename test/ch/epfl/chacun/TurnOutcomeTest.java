@@ -0,0 +1,63 @@
+package ch.epfl.chacun;
+
+import ch.epfl.chacun.bot.RandomBot;
+import ch.epfl.chacun.sim.Simulator;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TurnOutcomeTest {
+    @Test
+    void turnOutcomeDescribesTheEndOfTheTurn() {
+        var moves = new int[MoveGenerator.MAX_MOVES];
+        var closedAreas = 0;
+        var menhirTurns = 0;
+        for (long seed = 0; seed < 10; seed += 1) {
+            var bot = new RandomBot(seed);
+            var state = Simulator.initialState(seed, 3).withStartingTilePlaced();
+            while (state.nextAction() != GameState.Action.END_GAME) {
+                var move = bot.chooseMove(state, moves, MoveGenerator.generate(state, moves));
+                var next = MoveGenerator.apply(state, move);
+                if (state.nextAction() == GameState.Action.OCCUPY_TILE) {
+                    var occupant = move == MoveGenerator.NONE
+                            ? null
+                            : new Occupant(Occupant.Kind.values()[move >>> 4], state.board().lastPlacedTile().id() * 10 + (move & 0b1111));
+                    var outcome = state.turnOutcome(occupant);
+                    assertEquals(state.currentPlayer(), outcome.player());
+                    closedAreas += outcome.closedForests().size() + outcome.closedRivers().size();
+
+                    var newEvents = next.messageBoard().events().subList(state.messageBoard().events().size(), next.messageBoard().events().size());
+                    if (next.nextAction() != GameState.Action.END_GAME)
+                        assertEquals(newEvents, outcome.events());
+                    for (var returned : outcome.returnedOccupants())
+                        assertFalse(next.board().occupants().contains(returned));
+
+                    var playsAgain = next.currentPlayer() == state.currentPlayer()
+                            && next.tileToPlace() != null && next.tileToPlace().kind() == Tile.Kind.MENHIR;
+                    assertEquals(playsAgain, outcome.menhirTurnGranted());
+                    if (playsAgain) menhirTurns += 1;
+                }
+                state = next;
+            }
+        }
+        assertTrue(closedAreas > 0);
+        assertTrue(menhirTurns > 0);
+    }
+
+    @Test
+    void turnOutcomeRequiresOccupyTile() {
+        var state = Simulator.initialState(0, 2).withStartingTilePlaced();
+        assertThrows(IllegalArgumentException.class, () -> state.turnOutcome(null));
+    }
+
+    @Test
+    void turnOutcomeIsImmutable() {
+        var outcome = new TurnOutcome(PlayerColor.RED, Set.of(), Set.of(), Set.of(), List.of(), null);
+        assertFalse(outcome.menhirTurnGranted());
+        assertEquals(0, outcome.pointsOf(PlayerColor.RED));
+        assertThrows(UnsupportedOperationException.class, () -> outcome.events().add(null));
+    }
+}
@@ -2,12 +2,15 @@ package ch.epfl.chacun;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class ZonePartitionTest {
     @Test
@@ -314,4 +317,63 @@ class ZonePartitionTest {
         var expectedArea1 = new Area<>(a1.zones(), a1.occupants(), a1.openConnections() - 2);
         assertEquals(Set.of(a0, expectedArea1), partitionBuilder.build().areas());
     }
-}
\ No newline at end of file
+
+    @Test
+    void zonePartitionBuilderUnionWorksWithLongChainOfAreas() {
+        var zones = new ArrayList<Zone.Meadow>();
+        var partitionBuilder = new ZonePartition.Builder<>(new ZonePartition<Zone.Meadow>());
+        for (int i = 0; i < 50; i++) {
+            var zone = new Zone.Meadow(i * 10, List.of(), null);
+            zones.add(zone);
+            partitionBuilder.addSingleton(zone, 2);
+        }
+        for (int i = 1; i < zones.size(); i++) {
+            partitionBuilder.union(zones.get(i - 1), zones.get(i));
+        }
+        var partition = partitionBuilder.build();
+        var expectedArea = new Area<>(Set.copyOf(zones), List.of(), 2);
+        assertEquals(Set.of(expectedArea), partition.areas());
+        for (var zone : zones) {
+            assertEquals(expectedArea, partition.areaContaining(zone));
+        }
+    }
+
+    @Test
+    void zonePartitionBuilderDoesNotModifyBuiltPartitions() {
+        var f0 = new Zone.Forest(0, Zone.Forest.Kind.PLAIN);
+        var f1 = new Zone.Forest(1, Zone.Forest.Kind.PLAIN);
+        var a0 = new Area<>(Set.of(f0), List.of(), 1);
+        var a1 = new Area<>(Set.of(f1), List.of(), 1);
+        var partition = new ZonePartition<>(Set.of(a0, a1));
+        var partitionBuilder = new ZonePartition.Builder<>(partition);
+        partitionBuilder.addInitialOccupant(f0, PlayerColor.RED);
+        var partition1 = partitionBuilder.build();
+        partitionBuilder.union(f0, f1);
+        var partition2 = partitionBuilder.build();
+
+        var occupiedArea0 = new Area<>(Set.of(f0), List.of(PlayerColor.RED), 1);
+        var expectedArea = new Area<>(Set.of(f0, f1), List.of(PlayerColor.RED), 0);
+        assertEquals(Set.of(a0, a1), partition.areas());
+        assertEquals(Set.of(occupiedArea0, a1), partition1.areas());
+        assertEquals(Set.of(expectedArea), partition2.areas());
+        assertEquals(a1, partition1.areaContaining(f1));
+        assertEquals(expectedArea, partition2.areaContaining(f1));
+    }
+
+    @Test
+    void zonePartitionInSameAreaComparesAreas() {
+        var f0 = new Zone.Forest(0, Zone.Forest.Kind.PLAIN);
+        var f1 = new Zone.Forest(1, Zone.Forest.Kind.PLAIN);
+        var f2 = new Zone.Forest(2, Zone.Forest.Kind.PLAIN);
+        var f3 = new Zone.Forest(3, Zone.Forest.Kind.PLAIN);
+        var partition = new ZonePartition<>(Set.of(
+                new Area<>(Set.of(f0, f1), List.of(), 0),
+                new Area<>(Set.of(f2), List.of(), 2)));
+
+        assertTrue(partition.inSameArea(f0, f1));
+        assertTrue(partition.inSameArea(f2, f2));
+        assertFalse(partition.inSameArea(f0, f2));
+        assertFalse(partition.inSameArea(f0, f3));
+        assertFalse(partition.inSameArea(f3, f3));
+    }
+}
@@ -0,0 +1,88 @@
+package ch.epfl.chacun.bot;
+
+import ch.epfl.chacun.GameState;
+import ch.epfl.chacun.MoveGenerator;
+import ch.epfl.chacun.sim.Simulator;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MctsBotTest {
+    private static GameState someStates(long seed, int plies) {
+        var gameState = Simulator.initialState(seed, 2).withStartingTilePlaced();
+        var random = new RandomBot(seed);
+        var moves = new int[MoveGenerator.MAX_MOVES];
+        for (int i = 0; i < plies; i += 1) gameState = Bots.play(random, gameState, moves);
+        return gameState;
+    }
+
+    @Test
+    void mctsBotChoosesLegalMoves() {
+        var bot = new MctsBot(1, 20, 0, 2);
+        var moves = new int[MoveGenerator.MAX_MOVES];
+        for (int plies = 0; plies < 12; plies += 1) {
+            var gameState = someStates(7, plies);
+            var count = MoveGenerator.generate(gameState, moves);
+            var legal = Arrays.copyOf(moves, count);
+            var move = bot.chooseMove(gameState, moves, count);
+            assertTrue(Arrays.stream(legal).anyMatch(m -> m == move));
+            assertArrayEquals(legal, Arrays.copyOf(moves, count));
+        }
+        assertEquals(12, bot.moveNanos().getCount());
+    }
+
+    @Test
+    void mctsBotWithIterationBudgetIsReproducible() {
+        var gameState = someStates(3, 0);
+        var moves = new int[MoveGenerator.MAX_MOVES];
+        var count = MoveGenerator.generate(gameState, moves);
+        var bot1 = new MctsBot(5, 30, 0, 3);
+        var bot2 = new MctsBot(5, 30, 0, 3);
+        assertEquals(bot1.chooseMove(gameState, moves, count), bot2.chooseMove(gameState, moves, count));
+        assertEquals(30, bot1.lastMoveIterations());
+    }
+
+    private static void playTimedMoves(MctsBot bot, int plies, boolean warm) {
+        var moves = new int[MoveGenerator.MAX_MOVES];
+        var gameState = someStates(11, 0);
+        for (int i = 0; i < plies; i += 1) {
+            var count = MoveGenerator.generate(gameState, moves);
+            var move = bot.chooseMove(gameState, moves, count);
+            if (warm && count > 1) assertTrue(bot.lastMoveIterations() > 0);
+            gameState = MoveGenerator.apply(gameState, move);
+        }
+    }
+
+    @Test
+    void mctsBotKeepsToItsTimeBudget() {
+        //the first moves of a fresh JVM are slowed down by the compilation of the rules, they are not measured
+        playTimedMoves(new MctsBot(1, 0, 20, 2), 12, false);
+
+        var bot = new MctsBot(0, 0, 20, 2);
+        var plies = 40;
+        playTimedMoves(bot, plies, true);
+        assertEquals(plies, bot.moveNanos().getCount());
+        //a move can exceed its budget by one ply and the gathering of the statistics, and by the time other processes
+        //of a loaded machine take the processor, so only most of the moves have to end within the allowance
+        assertTrue(bot.overruns() <= plies / 4, bot.overruns() + " overruns, " + bot.moveNanos());
+    }
+
+    @Test
+    void mctsBotRejectsInvalidBudgets() {
+        assertThrows(IllegalArgumentException.class, () -> new MctsBot(0, 0, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new MctsBot(0, -1, 10, 1));
+        assertThrows(IllegalArgumentException.class, () -> new MctsBot(0, 10, 0, 0));
+    }
+
+    @Test
+    void botsCreateParsesMctsBudgets() {
+        assertInstanceOf(MctsBot.class, Bots.create("mcts", 0));
+        assertInstanceOf(MctsBot.class, Bots.create("mcts:50ms", 0));
+        assertInstanceOf(MctsBot.class, Bots.create("mcts:100it", 0));
+        assertThrows(IllegalArgumentException.class, () -> Bots.create("mcts:100", 0));
+        assertThrows(IllegalArgumentException.class, () -> Bots.create("mcts:xms", 0));
+        assertThrows(IllegalArgumentException.class, () -> Bots.create("random:10ms", 0));
+    }
+}
@@ -0,0 +1,145 @@
+package ch.epfl.chacun.sim;
+
+import ch.epfl.chacun.*;
+import ch.epfl.chacun.bot.RandomBot;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameCorpusTest {
+    @TempDir
+    Path directory;
+
+    private static List<Integer> appendGame(GameCorpus.Appender appender, long seed, int playerCount) throws IOException {
+        var initialState = Simulator.initialState(seed, playerCount, NoTextMaker.INSTANCE);
+        Map<PlayerColor, String> names = new EnumMap<>(PlayerColor.class);
+        for (var player : initialState.players()) names.put(player, player.name());
+        appender.writeHeader(GameRecordHeader.of(seed, initialState, names));
+
+        var bot = new RandomBot(seed);
+        var moves = new int[MoveGenerator.MAX_MOVES];
+        var codes = new ArrayList<Integer>();
+        var state = initialState.withStartingTilePlaced();
+        while (state.nextAction() != GameState.Action.END_GAME) {
+            var move = bot.chooseMove(state, moves, MoveGenerator.generate(state, moves));
+            if (state.nextAction() == GameState.Action.PLACE_TILE) appender.writePlacement(move);
+            else appender.writeOccupation(move);
+            codes.add(move);
+            state = MoveGenerator.apply(state, move);
+        }
+        appender.endRecord();
+        return codes;
+    }
+
+    private static GameState play(long seed, int playerCount, List<Integer> codes) {
+        var state = Simulator.initialState(seed, playerCount, NoTextMaker.INSTANCE).withStartingTilePlaced();
+        for (var code : codes) state = MoveGenerator.apply(state, code);
+        return state;
+    }
+
+    private static <T> List<T> concatenated(List<T> left, List<T> right) {
+        var list = new ArrayList<>(left);
+        list.addAll(right);
+        return list;
+    }
+
+    @Test
+    void gameCorpusGivesEveryGameByItsIndex() throws IOException {
+        var data = directory.resolve("games" + GameRecordHeader.FILE_EXTENSION);
+        var games = new ArrayList<List<Integer>>();
+        try (var appender = GameCorpus.appender(data)) {
+            for (var seed = 0; seed < 12; seed += 1) games.add(appendGame(appender, seed, 2 + seed % 4));
+        }
+
+        var corpus = GameCorpus.open(data);
+        assertEquals(games.size(), corpus.size());
+        var codes = new int[1024];
+        for (var game = corpus.size() - 1; game >= 0; game -= 1) {
+            var header = corpus.header(game);
+            assertEquals(game, header.seed());
+            assertEquals(2 + game % 4, header.players().size());
+            var count = corpus.actions(game, codes);
+            assertEquals(games.get(game), Arrays.stream(codes, 0, count).boxed().toList());
+            assertEquals(play(game, 2 + game % 4, games.get(game)).board(), corpus.replay(game, NoTextMaker.INSTANCE).board());
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> corpus.record(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> corpus.record(corpus.size()));
+    }
+
+    @Test
+    void gameCorpusAppenderDropsTheRecordsWhichAreNotEnded() throws IOException {
+        var data = directory.resolve("games" + GameRecordHeader.FILE_EXTENSION);
+        try (var appender = GameCorpus.appender(data)) {
+            appendGame(appender, 0, 2);
+            appender.writeHeader(GameRecordHeader.of(1, Simulator.initialState(1, 2), Map.of(PlayerColor.RED, "a", PlayerColor.BLUE, "b")));
+            appender.writePlacement(0);
+        }
+        assertEquals(1, GameCorpus.open(data).size());
+        //an entry of the index which is not completely written
+        Files.write(Path.of(data + GameCorpus.INDEX_EXTENSION), new byte[3], StandardOpenOption.APPEND);
+        assertEquals(1, GameCorpus.open(data).size());
+
+        List<Integer> codes;
+        try (var appender = GameCorpus.appender(data)) {
+            codes = appendGame(appender, 2, 3);
+        }
+        var corpus = GameCorpus.open(data);
+        assertEquals(2, corpus.size());
+        assertEquals(List.of(0L, 2L), List.of(corpus.header(0).seed(), corpus.header(1).seed()));
+        assertEquals(play(2, 3, codes).board(), corpus.replay(1, NoTextMaker.INSTANCE).board());
+    }
+
+    @Test
+    void gameCorpusScansAreTheSameWhateverTheChunksAndTheRanges() throws IOException {
+        var data = directory.resolve("games" + GameRecordHeader.FILE_EXTENSION);
+        try (var appender = GameCorpus.appender(data)) {
+            for (var seed = 0; seed < 20; seed += 1) appendGame(appender, seed, 2);
+        }
+
+        GameCorpus.RecordVisitor<List<String>> visitor = (game, header, actions) -> {
+            var points = GameCorpus.replay(header, actions, NoTextMaker.INSTANCE).messageBoard().points();
+            return List.of(game + ":" + header.seed() + ":" + new TreeMap<>(points));
+        };
+        var corpus = GameCorpus.open(data);
+        var expected = corpus.scan(0, corpus.size(), visitor, List.of(), GameCorpusTest::concatenated);
+        assertEquals(IntStream.range(0, 20).mapToObj(g -> g + ":" + g).toList(),
+                expected.stream().map(s -> s.substring(0, s.lastIndexOf(':'))).toList());
+
+        var chunkedCorpus = GameCorpus.open(data, 200);
+        for (var game = 0; game < corpus.size(); game += 1) assertEquals(corpus.record(game), chunkedCorpus.record(game));
+        assertEquals(expected, chunkedCorpus.scan(0, corpus.size(), visitor, List.of(), GameCorpusTest::concatenated));
+        assertEquals(expected.subList(3, 17), chunkedCorpus.scan(3, 17, visitor, List.of(), GameCorpusTest::concatenated));
+        assertEquals(List.of(), chunkedCorpus.scan(5, 5, visitor, List.of(), GameCorpusTest::concatenated));
+        for (var threshold : List.of(1, 3, 64)) {
+            assertEquals(expected, chunkedCorpus.scanParallel(visitor, List.of(), GameCorpusTest::concatenated, 3, threshold));
+        }
+        assertEquals(expected, corpus.scanParallel(visitor, List.of(), GameCorpusTest::concatenated, 2));
+        assertThrows(IndexOutOfBoundsException.class, () -> corpus.scan(5, 21, visitor, List.of(), GameCorpusTest::concatenated));
+        assertThrows(IllegalArgumentException.class, () -> corpus.scanParallel(visitor, List.of(), GameCorpusTest::concatenated, 0));
+    }
+
+    @Test
+    void gameCorpusRejectsAnIndexBeyondItsData() throws IOException {
+        var data = directory.resolve("games" + GameRecordHeader.FILE_EXTENSION);
+        try (var appender = GameCorpus.appender(data)) {
+            appendGame(appender, 0, 2);
+        }
+        try (var channel = java.nio.channels.FileChannel.open(data, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 1);
+        }
+        assertThrows(IOException.class, () -> GameCorpus.open(data));
+        assertThrows(IOException.class, () -> GameCorpus.appender(data));
+
+        var empty = directory.resolve("empty" + GameRecordHeader.FILE_EXTENSION);
+        GameCorpus.appender(empty).close();
+        assertEquals(0, GameCorpus.open(empty).size());
+    }
+}
@@ -0,0 +1,181 @@
+package ch.epfl.chacun.sim;
+
+import ch.epfl.chacun.*;
+import ch.epfl.chacun.bot.RandomBot;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameRecordTest {
+    private record PlayedGame(GameRecordHeader header, List<Integer> codes, List<Boolean> placements, GameState finalState) {}
+
+    private static PlayedGame play(long seed, int playerCount) {
+        var initialState = Simulator.initialState(seed, playerCount, NoTextMaker.INSTANCE);
+        Map<PlayerColor, String> names = new EnumMap<>(PlayerColor.class);
+        for (var player : initialState.players()) names.put(player, "Joueur·se " + player.name().toLowerCase());
+        var header = GameRecordHeader.of(seed, initialState, names);
+
+        var bot = new RandomBot(seed);
+        var moves = new int[MoveGenerator.MAX_MOVES];
+        var codes = new ArrayList<Integer>();
+        var placements = new ArrayList<Boolean>();
+        var state = initialState.withStartingTilePlaced();
+        while (state.nextAction() != GameState.Action.END_GAME) {
+            var move = bot.chooseMove(state, moves, MoveGenerator.generate(state, moves));
+            codes.add(move);
+            placements.add(state.nextAction() == GameState.Action.PLACE_TILE);
+            state = MoveGenerator.apply(state, move);
+        }
+        return new PlayedGame(header, codes, placements, state);
+    }
+
+    private static byte[] write(List<PlayedGame> games) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        try (var writer = new GameRecordWriter(bytes)) {
+            for (var game : games) {
+                writer.writeHeader(game.header());
+                for (var i = 0; i < game.codes().size(); i += 1) {
+                    if (game.placements().get(i)) writer.writePlacement(game.codes().get(i));
+                    else writer.writeOccupation(game.codes().get(i));
+                }
+                writer.endRecord();
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    @Test
+    void gameRecordsAreReadBackAndReplayed() throws IOException {
+        var games = List.of(play(0, 2), play(1, 3), play(2, 5));
+        try (var reader = new GameRecordReader(new ByteArrayInputStream(write(games)))) {
+            for (var game : games) {
+                var header = reader.readHeader();
+                assertEquals(game.header(), header);
+                var state = header.initialState(NoTextMaker.INSTANCE).withStartingTilePlaced();
+                for (var i = 0; i < game.codes().size(); i += 1) {
+                    var code = reader.readAction();
+                    assertEquals(game.codes().get(i), code);
+                    assertEquals(game.placements().get(i), reader.isPlacement());
+                    state = MoveGenerator.apply(state, code);
+                }
+                assertEquals(GameRecordReader.END_OF_RECORD, reader.readAction());
+                assertEquals(game.finalState().board(), state.board());
+                assertEquals(game.finalState().messageBoard().points(), state.messageBoard().points());
+            }
+            assertNull(reader.readHeader());
+        }
+    }
+
+    @Test
+    void gameRecordsAreReadFromABufferWithoutChangingIt() throws IOException {
+        var games = List.of(play(3, 2), play(4, 4));
+        var buffer = ByteBuffer.wrap(write(games));
+        var reader = new GameRecordReader(buffer);
+        var codes = new int[1024];
+        for (var game : games) {
+            assertEquals(game.header(), reader.readHeader());
+            var count = reader.readActions(codes);
+            assertArrayEquals(game.codes().stream().mapToInt(c -> c).toArray(), Arrays.copyOf(codes, count));
+        }
+        assertNull(reader.readHeader());
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    void gameRecordReaderSkipsTheActionsWhichAreNotRead() throws IOException {
+        var games = List.of(play(5, 2), play(6, 3), play(7, 2));
+        var reader = new GameRecordReader(ByteBuffer.wrap(write(games)));
+        assertEquals(games.get(0).header(), reader.readHeader());
+        reader.readAction();
+        assertEquals(games.get(1).header(), reader.readHeader());
+        assertEquals(games.get(1).codes().size(), reader.skipActions());
+        assertEquals(games.get(2).header(), reader.readHeader());
+        assertNull(reader.readHeader());
+    }
+
+    @Test
+    void gameRecordActionsTakeElevenOrSevenBits() throws IOException {
+        var game = play(8, 2);
+        var bytes = write(List.of(game));
+        var headerBytes = 4 + 1 + 8 + 8 + 1 + game.header().names().stream()
+                .mapToInt(n -> 2 + n.getBytes(java.nio.charset.StandardCharsets.UTF_8).length)
+                .sum();
+        var placements = game.placements().stream().filter(p -> p).count();
+        var actionBits = placements * 11 + (game.codes().size() - placements) * 7 + 2;
+        assertEquals(headerBytes + (actionBits + 7) / 8, bytes.length);
+    }
+
+    @Test
+    void gameRecordWriterAcceptsBase32Actions() throws IOException {
+        var header = GameRecordHeader.of(0, Simulator.initialState(0, 2), Map.of(PlayerColor.RED, "Ilyes", PlayerColor.BLUE, "Weifeng"));
+        var bytes = new ByteArrayOutputStream();
+        try (var writer = new GameRecordWriter(bytes)) {
+            writer.writeHeader(header);
+            writer.writeAction("CD");
+            writer.writeAction("7");
+            writer.endRecord();
+        }
+        var reader = new GameRecordReader(ByteBuffer.wrap(bytes.toByteArray()));
+        assertEquals(header, reader.readHeader());
+        assertEquals(Base32.decode("CD"), reader.readAction());
+        assertTrue(reader.isPlacement());
+        assertEquals(Base32.decode("7"), reader.readAction());
+        assertFalse(reader.isPlacement());
+        assertEquals(GameRecordReader.END_OF_RECORD, reader.readAction());
+    }
+
+    @Test
+    void gameRecordWriterRejectsMisuse() throws IOException {
+        var header = GameRecordHeader.of(0, Simulator.initialState(0, 2), Map.of(PlayerColor.RED, "a", PlayerColor.BLUE, "b"));
+        var writer = new GameRecordWriter(new ByteArrayOutputStream());
+        assertThrows(IllegalArgumentException.class, () -> writer.writePlacement(0));
+        assertThrows(IllegalArgumentException.class, writer::endRecord);
+        writer.writeHeader(header);
+        assertThrows(IllegalArgumentException.class, () -> writer.writeHeader(header));
+        assertThrows(IllegalArgumentException.class, () -> writer.writePlacement(1 << 10));
+        assertThrows(IllegalArgumentException.class, () -> writer.writeOccupation(1 << 5));
+        assertThrows(IllegalArgumentException.class, () -> writer.writeAction("ABC"));
+        assertThrows(IllegalArgumentException.class, () -> writer.writeAction(""));
+
+        var longName = "x".repeat(256);
+        var longNameHeader = new GameRecordHeader(GameRecordHeader.VERSION, 0, header.players(), List.of(longName, "b"), 0);
+        assertThrows(IllegalArgumentException.class, () -> new GameRecordWriter(new ByteArrayOutputStream()).writeHeader(longNameHeader));
+        assertThrows(IllegalArgumentException.class, () -> GameRecordHeader.of(0, Simulator.initialState(0, 3), Map.of(PlayerColor.RED, "a")));
+    }
+
+    @Test
+    void gameRecordReaderRejectsInvalidRecords() throws IOException {
+        var bytes = write(List.of(play(9, 2)));
+        var truncated = new GameRecordReader(ByteBuffer.wrap(bytes, 0, bytes.length - 1));
+        truncated.readHeader();
+        assertThrows(EOFException.class, truncated::skipActions);
+        assertThrows(EOFException.class, () -> new GameRecordReader(ByteBuffer.wrap(bytes, 0, 10)).readHeader());
+
+        var corrupted = bytes.clone();
+        corrupted[0] = 0;
+        assertThrows(IOException.class, () -> new GameRecordReader(ByteBuffer.wrap(corrupted)).readHeader());
+        var futureVersion = bytes.clone();
+        futureVersion[4] = (byte) (GameRecordHeader.VERSION + 1);
+        assertThrows(IOException.class, () -> new GameRecordReader(ByteBuffer.wrap(futureVersion)).readHeader());
+        assertThrows(IllegalArgumentException.class, () -> new GameRecordReader(ByteBuffer.wrap(bytes)).readAction());
+    }
+
+    @Test
+    void gameRecordHeaderChecksTheOrderOfTheTiles() {
+        var initialState = Simulator.initialState(10, 2);
+        var header = GameRecordHeader.of(10, initialState, Map.of(PlayerColor.RED, "a", PlayerColor.BLUE, "b"));
+        assertEquals(GameRecordHeader.tileOrderHash(initialState.tileDecks()), header.tileOrderHash());
+        assertNotEquals(header.tileOrderHash(), GameRecordHeader.tileOrderHash(Simulator.initialState(11, 2).tileDecks()));
+        assertEquals(initialState.tileDecks(), header.initialState(NoTextMaker.INSTANCE).tileDecks());
+
+        var otherSeed = new GameRecordHeader(header.version(), 11, header.players(), header.names(), header.tileOrderHash());
+        assertThrows(IllegalArgumentException.class, () -> otherSeed.initialState(NoTextMaker.INSTANCE));
+    }
+}
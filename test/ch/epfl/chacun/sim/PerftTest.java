@@ -0,0 +1,71 @@
+package ch.epfl.chacun.sim;
+
+import ch.epfl.chacun.GameState;
+import ch.epfl.chacun.MoveGenerator;
+import ch.epfl.chacun.Tiles;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PerftTest {
+    //the counts of the depths 1 to 6 with two players, computed by perft and referencePerft
+    private static final Map<String, long[]> BASELINES = Map.of(
+            "shaman", new long[]{7, 49, 420, 1_636, 15_362, 86_847},
+            "hunting_trap", new long[]{4, 32, 224, 884, 6_832, 51_152},
+            "fire", new long[]{4, 20, 160, 1_176, 11_736, 50_648},
+            "logboat_raft", new long[]{4, 20, 160, 1_194, 10_146, 57_490});
+
+    @Test
+    void perftMatchesTheBaselinesOfTheFixtureDecks() {
+        assertEquals(BASELINES.keySet(), Perft.FIXTURE_DECKS.keySet());
+        for (var entry : BASELINES.entrySet()) {
+            var state = Perft.fixtureState(Perft.FIXTURE_DECKS.get(entry.getKey()), 2);
+            var counts = entry.getValue();
+            for (var depth = 1; depth <= counts.length; depth += 1) {
+                assertEquals(counts[depth - 1], Perft.perft(state, depth), entry.getKey() + " at depth " + depth);
+            }
+        }
+    }
+
+    @Test
+    void perftMatchesTheReferenceRules() {
+        for (var deck : Perft.FIXTURE_DECKS.values()) {
+            var state = Perft.fixtureState(deck, 3);
+            for (var depth = 0; depth <= 4; depth += 1) {
+                assertEquals(Perft.referencePerft(state, depth), Perft.perft(state, depth));
+            }
+        }
+        var seededState = Simulator.initialState(7, 2).withStartingTilePlaced();
+        assertEquals(Perft.referencePerft(seededState, 3), Perft.perft(seededState, 3));
+    }
+
+    @Test
+    void perftParallelMatchesPerft() {
+        var state = Perft.fixtureState(Tiles.TILES_FIRE, 2);
+        for (var depth = 0; depth <= 5; depth += 1) {
+            assertEquals(Perft.perft(state, depth), Perft.perftParallel(state, depth, 3));
+        }
+    }
+
+    @Test
+    void perftCountsAFinishedGameOnce() {
+        var state = Perft.fixtureState(Tiles.TILES_SHAMAN, 2);
+        var moves = new int[MoveGenerator.MAX_MOVES];
+        while (state.nextAction() != GameState.Action.END_GAME) {
+            MoveGenerator.generate(state, moves);
+            state = MoveGenerator.apply(state, moves[0]);
+        }
+        assertEquals(1, Perft.perft(state, 3));
+        assertEquals(1, Perft.referencePerft(state, 3));
+    }
+
+    @Test
+    void perftRejectsInvalidArguments() {
+        var state = Perft.fixtureState(Tiles.TILES_SHAMAN, 2);
+        assertThrows(IllegalArgumentException.class, () -> Perft.perft(state, -1));
+        assertThrows(IllegalArgumentException.class, () -> Perft.perftParallel(state, 2, 0));
+        assertThrows(IllegalArgumentException.class, () -> Perft.fixtureState(Tiles.TILES_SHAMAN, 1));
+    }
+}
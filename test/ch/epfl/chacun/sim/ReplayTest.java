@@ -0,0 +1,65 @@
+package ch.epfl.chacun.sim;
+
+import ch.epfl.chacun.ActionEncoder;
+import ch.epfl.chacun.GameState;
+import ch.epfl.chacun.MoveGenerator;
+import ch.epfl.chacun.bot.RandomBot;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplayTest {
+    private static List<String> randomGame(long seed, List<GameState> states) {
+        var gameState = Simulator.initialState(seed, 3).withStartingTilePlaced();
+        var bot = new RandomBot(seed);
+        var moves = new int[MoveGenerator.MAX_MOVES];
+        var actions = new ArrayList<String>();
+        states.add(gameState);
+        while (gameState.nextAction() != GameState.Action.END_GAME) {
+            var move = bot.chooseMove(gameState, moves, MoveGenerator.generate(gameState, moves));
+            var stateAction = ActionEncoder.withMove(gameState, move);
+            actions.add(stateAction.actionB32());
+            gameState = stateAction.gameState();
+            states.add(gameState);
+        }
+        return actions;
+    }
+
+    @Test
+    void replayStateAtMatchesForwardReplay() {
+        var states = new ArrayList<GameState>();
+        var actions = randomGame(4, states);
+        for (var interval : List.of(1, 5, Replay.DEFAULT_CHECKPOINT_INTERVAL, 1000)) {
+            var replay = new Replay(states.getFirst(), actions, interval);
+            assertEquals(actions.size(), replay.length());
+            for (int k = actions.size(); k >= 0; k -= 1) {
+                assertEquals(states.get(k), replay.stateAt(k));
+            }
+            assertEquals(GameState.Action.END_GAME, replay.finalState().nextAction());
+        }
+    }
+
+    @Test
+    void replayOfSeedStartsLikeTheSimulator() {
+        var states = new ArrayList<GameState>();
+        var actions = randomGame(9, states);
+        var replay = Replay.of(9, 3, actions);
+        assertEquals(states.get(37).zobristKey(), replay.stateAt(37).zobristKey());
+        assertEquals(states.get(37).board(), replay.stateAt(37).board());
+        assertEquals(states.getLast().messageBoard().points(), replay.finalState().messageBoard().points());
+    }
+
+    @Test
+    void replayRejectsInvalidArguments() {
+        var states = new ArrayList<GameState>();
+        var actions = randomGame(2, states);
+        var replay = new Replay(states.getFirst(), actions, 8);
+        assertThrows(IllegalArgumentException.class, () -> replay.stateAt(-1));
+        assertThrows(IllegalArgumentException.class, () -> replay.stateAt(actions.size() + 1));
+        assertThrows(IllegalArgumentException.class, () -> new Replay(states.getFirst(), actions, 0));
+        assertThrows(IllegalArgumentException.class, () -> new Replay(states.getFirst(), List.of("A"), 8));
+    }
+}
@@ -0,0 +1,39 @@
+package ch.epfl.chacun.sim;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulatorTest {
+    @Test
+    void simulatorGamesAreReproducible() {
+        for (var policy : List.of("random", "first")) {
+            var result = Simulator.play(42, 3, policy);
+            assertEquals(result, Simulator.play(42, 3, policy));
+            assertEquals(42, result.seed());
+            assertEquals(3, result.points().size());
+            assertTrue(result.plies() > 0);
+        }
+    }
+
+    @Test
+    void simulatorPlayAllMatchesSequentialGames() {
+        var results = Simulator.playAll(10, 15, 2, "random", 3);
+        assertEquals(6, results.size());
+        for (int i = 0; i < results.size(); i += 1) {
+            assertEquals(Simulator.play(10 + i, 2, "random"), results.get(i));
+        }
+    }
+
+    @Test
+    void simulatorRejectsInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> Simulator.play(0, 1, "random"));
+        assertThrows(IllegalArgumentException.class, () -> Simulator.play(0, 6, "random"));
+        assertThrows(IllegalArgumentException.class, () -> Simulator.play(0, 2, "unknown"));
+        assertThrows(IllegalArgumentException.class, () -> Simulator.initialState(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> Simulator.initialState(0, -1));
+        assertThrows(IllegalArgumentException.class, () -> Simulator.initialState(0, 6));
+    }
+}